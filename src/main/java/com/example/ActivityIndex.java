@@ -0,0 +1,63 @@
+package com.example;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Senaste läsning eller ändring per produkt i minnet, i millisekunder enligt lagrets klocka.
+// Finns bara i lagrets indexlista när en kall nivå är påslagen.
+final class ActivityIndex implements InventoryIndex {
+    private final Map<UUID, Long> lastActive = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    ActivityIndex(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    // Läsningar går utan lås; en läsning som krockar med ett borttag får inte lägga tillbaka id:t
+    void touch(UUID id) {
+        lastActive.computeIfPresent(id, (key, previous) -> now());
+    }
+
+    @Override
+    public void added(Product product) {
+        lastActive.put(product.uuid(), now());
+    }
+
+    @Override
+    public void removed(Product product) {
+        lastActive.remove(product.uuid());
+    }
+
+    @Override
+    public void cleared() {
+        lastActive.clear();
+    }
+
+    @Override
+    public void replaced(Product previous, Product current) {
+        lastActive.put(current.uuid(), now());
+    }
+
+    // Id:n som inte använts sedan tidpunkten
+    List<UUID> inactiveSince(long millis) {
+        List<UUID> inactive = new ArrayList<>();
+        lastActive.forEach((id, last) -> {
+            if (last < millis) inactive.add(id);
+        });
+        return inactive;
+    }
+
+    // De count minst nyligen använda id:na, äldst först
+    List<UUID> leastRecentlyActive(int count) {
+        List<Map.Entry<UUID, Long>> oldest = TopK.largest(lastActive.entrySet(), count,
+                Map.Entry.<UUID, Long>comparingByValue().reversed());
+        List<UUID> ids = new ArrayList<>(oldest.size());
+        oldest.forEach(entry -> ids.add(entry.getKey()));
+        return ids;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR-händelse runt varje WarehouseAnalyzer-metod; varaktigheten sätts av begin()/commit()
+@Name("com.example.AnalyzerRun")
+@Label("Warehouse Analyzer Run")
+@jdk.jfr.Category({"Warehouse"})
+@Description("A WarehouseAnalyzer method call with inventory and result sizes")
+@StackTrace(false)
+final class AnalyzerRunEvent extends Event {
+
+    @Label("Warehouse")
+    String warehouse;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Inventory Size")
+    int inventorySize;
+
+    @Label("Result Size")
+    int resultSize;
+}
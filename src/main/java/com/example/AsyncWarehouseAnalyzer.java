@@ -0,0 +1,128 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Asynchronous facade over {@link WarehouseAnalyzer}. Every call takes a fresh {@link WarehouseSnapshot}
+ * and runs on the configured executor, by default one virtual thread per task.
+ * {@link #fullReport(double, Duration)} runs the report components concurrently over a single snapshot,
+ * so its latency is that of the slowest component rather than the sum.
+ */
+class AsyncWarehouseAnalyzer implements AutoCloseable {
+    private final Warehouse warehouse;
+    private final Executor executor;
+    // Stängs bara om fasaden själv skapade den
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Creates a facade that runs each analysis on its own virtual thread.
+     */
+    public AsyncWarehouseAnalyzer(Warehouse warehouse) {
+        this(warehouse, Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    /**
+     * Creates a facade that runs analyses on the given executor. The executor is not shut down by {@link #close()}.
+     */
+    public AsyncWarehouseAnalyzer(Warehouse warehouse, Executor executor) {
+        this(warehouse, executor, false);
+    }
+
+    private AsyncWarehouseAnalyzer(Warehouse warehouse, Executor executor, boolean owned) {
+        if (warehouse == null) { throw new IllegalArgumentException("Warehouse cannot be null."); }
+        if (executor == null) { throw new IllegalArgumentException("Executor cannot be null."); }
+        this.warehouse = warehouse;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+    }
+
+    public CompletableFuture<InventoryStatistics> getInventoryStatistics() {
+        return run(WarehouseAnalyzer::getInventoryStatistics);
+    }
+
+    public CompletableFuture<InventoryValidation> validateInventoryConstraints() {
+        return run(WarehouseAnalyzer::validateInventoryConstraints);
+    }
+
+    public CompletableFuture<Map<Category, BigDecimal>> calculateWeightedAveragePriceByCategory() {
+        return run(WarehouseAnalyzer::calculateWeightedAveragePriceByCategory);
+    }
+
+    public CompletableFuture<List<Product>> findPriceOutliers(double standardDeviations) {
+        return run(analyzer -> analyzer.findPriceOutliers(standardDeviations));
+    }
+
+    public CompletableFuture<Map<Product, BigDecimal>> calculateExpirationBasedDiscounts() {
+        return run(WarehouseAnalyzer::calculateExpirationBasedDiscounts);
+    }
+
+    /**
+     * Computes all report components concurrently over one snapshot.
+     * <p>
+     * If the report does not complete within the timeout it completes exceptionally with a
+     * {@link java.util.concurrent.TimeoutException}. If any component fails, or the returned future is
+     * cancelled or times out, the remaining components are cancelled. Components that have not started
+     * are skipped; a component that is already running finishes and its result is discarded.
+     *
+     * @param outlierStandardDeviations the threshold passed to {@link WarehouseAnalyzer#findPriceOutliers(double)}
+     * @param timeout                   the maximum time to wait for the whole report; must be positive
+     * @return a future report tagged with the snapshot version it was computed at
+     */
+    public CompletableFuture<InventoryReport> fullReport(double outlierStandardDeviations, Duration timeout) {
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive.");
+        }
+        WarehouseSnapshot snapshot = warehouse.snapshot();
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(snapshot);
+
+        CompletableFuture<InventoryStatistics> statistics = submit(analyzer, WarehouseAnalyzer::getInventoryStatistics);
+        CompletableFuture<InventoryValidation> validation = submit(analyzer, WarehouseAnalyzer::validateInventoryConstraints);
+        CompletableFuture<Map<Category, BigDecimal>> averages = submit(analyzer, WarehouseAnalyzer::calculateWeightedAveragePriceByCategory);
+        CompletableFuture<List<Product>> outliers = submit(analyzer, a -> a.findPriceOutliers(outlierStandardDeviations));
+        CompletableFuture<Map<Product, BigDecimal>> discounts = submit(analyzer, WarehouseAnalyzer::calculateExpirationBasedDiscounts);
+        List<CompletableFuture<?>> components = List.of(statistics, validation, averages, outliers, discounts);
+
+        CompletableFuture<InventoryReport> report = new CompletableFuture<>();
+        CompletableFuture.allOf(components.toArray(CompletableFuture[]::new)).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                report.completeExceptionally(failure);
+            } else {
+                report.complete(new InventoryReport(snapshot.version(), statistics.join(), validation.join(),
+                        averages.join(), outliers.join(), discounts.join()));
+            }
+        });
+        // Första fel avbryter resten, så att ett fel inte väntar in de långsammaste delarna
+        components.forEach(component -> component.whenComplete((ignored, failure) -> {
+            if (failure != null) report.completeExceptionally(failure);
+        }));
+        report.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        report.whenComplete((ignored, failure) -> {
+            if (failure != null) components.forEach(component -> component.cancel(false));
+        });
+        return report;
+    }
+
+    private <T> CompletableFuture<T> run(Function<WarehouseAnalyzer, T> analysis) {
+        return submit(new WarehouseAnalyzer(warehouse.snapshot()), analysis);
+    }
+
+    private <T> CompletableFuture<T> submit(WarehouseAnalyzer analyzer, Function<WarehouseAnalyzer, T> analysis) {
+        return CompletableFuture.supplyAsync(() -> analysis.apply(analyzer), executor);
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+}
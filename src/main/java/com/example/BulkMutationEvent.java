@@ -0,0 +1,29 @@
+package com.example;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR-händelse runt Warehouse-operationer som ändrar många produkter på en gång
+@Name("com.example.BulkMutation")
+@Label("Warehouse Bulk Mutation")
+@jdk.jfr.Category({"Warehouse"})
+@Description("A Warehouse operation that changes many products at once")
+@StackTrace(false)
+final class BulkMutationEvent extends Event {
+
+    @Label("Warehouse")
+    String warehouse;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Inventory Size")
+    @Description("Number of products before the mutation")
+    int inventorySize;
+
+    @Label("Affected Products")
+    int resultSize;
+}
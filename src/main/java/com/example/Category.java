@@ -1,13 +1,13 @@
 package com.example;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Category {
 
     // Flyweight-cache: normaliserat namn → unik Category-instans
-    private static final Map<String, Category> CACHE = new HashMap<>();
+    private static final Map<String, Category> CACHE = new ConcurrentHashMap<>();
     private final String name;
 
     // Endast instanser via of() (flyweight/factory-mönster)
@@ -25,10 +25,7 @@ public final class Category {
         String capitalizedName = trimmedName.substring(0, 1).toUpperCase()
                                 + trimmedName.substring(1).toLowerCase();
 
-        if (!CACHE.containsKey(capitalizedName)) {
-            CACHE.put(capitalizedName, new Category(capitalizedName));
-        }
-        return CACHE.get(capitalizedName);
+        return CACHE.computeIfAbsent(capitalizedName, Category::new);
     }
 
     public String getName() {
@@ -0,0 +1,42 @@
+package com.example;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Produkter per kategori
+final class CategoryIndex implements InventoryIndex {
+    private final Map<Category, Map<UUID, Product>> byCategory = new ConcurrentHashMap<>();
+
+    @Override
+    public void added(Product product) {
+        byCategory.computeIfAbsent(product.category(), c -> new ConcurrentHashMap<>()).put(product.uuid(), product);
+    }
+
+    // Samma kategori och id, så det räcker att byta värdet
+    @Override
+    public void replaced(Product previous, Product current) {
+        added(current);
+    }
+
+    @Override
+    public void removed(Product product) {
+        Map<UUID, Product> bucket = byCategory.get(product.category());
+        if (bucket != null && bucket.remove(product.uuid()) != null && bucket.isEmpty()) {
+            byCategory.remove(product.category());
+        }
+    }
+
+    @Override
+    public void cleared() {
+        byCategory.clear();
+    }
+
+    Collection<Product> inCategory(Category category) {
+        Map<UUID, Product> bucket = byCategory.get(category);
+        return bucket == null ? List.of() : Collections.unmodifiableCollection(bucket.values());
+    }
+
+    Set<Category> categories() {
+        return Collections.unmodifiableSet(byCategory.keySet());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Lagrets kalla nivå: produkter flyttade ur minnet, kodade med ProductCodec i en fil där nya
+// poster läggs till sist. I minnet finns bara filposition och längd per id, packade i en long.
+// Hämtade och kasserade poster blir döda byte i filen; när de är fler än de levande skrivs de
+// levande om till en ny fil. Filen är en avlastning för den här processen och töms när nivån öppnas.
+// Bäst-före-datum för varorna på disk hålls i minnet, så att utgångna kan rensas utan att läsa filen.
+// Ändras bara under lagrets skrivlås.
+final class ColdTier implements AutoCloseable {
+    private static final int LENGTH_BITS = 24;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+    // Kompaktering först när det finns något värt att vinna
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final Path file;
+    private final Map<UUID, Long> locations = new ConcurrentHashMap<>();
+    // Bäst-före-datum → id:n på disk, och omvänt; bara bäst-före-varor
+    private final NavigableMap<LocalDate, Set<UUID>> byExpiration = new TreeMap<>();
+    private final Map<UUID, LocalDate> expirations = new HashMap<>();
+    private FileChannel channel;
+    private long end;
+    private long liveBytes;
+
+    ColdTier(Path file) throws IOException {
+        this.file = file;
+        this.channel = open(file);
+    }
+
+    int size() {
+        return locations.size();
+    }
+
+    boolean contains(UUID id) {
+        return locations.containsKey(id);
+    }
+
+    List<UUID> ids() {
+        return new ArrayList<>(locations.keySet());
+    }
+
+    // Skriver produkterna i ett enda anrop sist i filen
+    void write(Collection<Product> products) {
+        int total = 0;
+        for (Product product : products) {
+            total += ProductCodec.encodedSize(List.of(product));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        long[] locationsWritten = new long[products.size()];
+        int i = 0;
+        for (Product product : products) {
+            int start = buffer.position();
+            ProductCodec.encode(List.of(product), buffer);
+            locationsWritten[i++] = (end + start) << LENGTH_BITS | (buffer.position() - start);
+        }
+        buffer.flip();
+        try {
+            long position = end;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to cold tier " + file, e);
+        }
+        end += total;
+        liveBytes += total;
+        i = 0;
+        for (Product product : products) {
+            Long previous = locations.put(product.uuid(), locationsWritten[i++]);
+            if (previous != null) liveBytes -= previous & LENGTH_MASK;
+            forgetExpiration(product.uuid());
+            if (product instanceof Perishable perishable) {
+                expirations.put(product.uuid(), perishable.expirationDate());
+                byExpiration.computeIfAbsent(perishable.expirationDate(), date -> new HashSet<>()).add(product.uuid());
+            }
+        }
+    }
+
+    // Id:n för varor på disk med bäst-före före datumet
+    List<UUID> expiringBefore(LocalDate date) {
+        List<UUID> ids = new ArrayList<>();
+        for (Set<UUID> expiring : byExpiration.headMap(date).values()) {
+            ids.addAll(expiring);
+        }
+        return ids;
+    }
+
+    // Läser produkten utan att ta bort den; null om den inte finns här
+    Product read(UUID id) {
+        Long location = locations.get(id);
+        return location == null ? null : read(location);
+    }
+
+    // Läser och tar bort produkten, t.ex. när den flyttas tillbaka till minnet
+    Product take(UUID id) {
+        Long location = locations.get(id);
+        if (location == null) return null;
+        Product product = read(location);
+        discard(id);
+        return product;
+    }
+
+    boolean discard(UUID id) {
+        Long location = locations.remove(id);
+        if (location == null) return false;
+        forgetExpiration(id);
+        liveBytes -= location & LENGTH_MASK;
+        long dead = end - liveBytes;
+        if (dead > liveBytes && dead >= MIN_COMPACTION_BYTES) compact();
+        return true;
+    }
+
+    void clear() {
+        locations.clear();
+        expirations.clear();
+        byExpiration.clear();
+        end = 0;
+        liveBytes = 0;
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clear cold tier " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        locations.clear();
+        expirations.clear();
+        byExpiration.clear();
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    private void forgetExpiration(UUID id) {
+        LocalDate expiration = expirations.remove(id);
+        if (expiration == null) return;
+        Set<UUID> ids = byExpiration.get(expiration);
+        ids.remove(id);
+        if (ids.isEmpty()) byExpiration.remove(expiration);
+    }
+
+    private Product read(long location) {
+        int length = (int) (location & LENGTH_MASK);
+        long position = location >>> LENGTH_BITS;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read from cold tier " + file, e);
+        }
+        return ProductCodec.decode(buffer.flip()).getFirst();
+    }
+
+    // De levande posterna skrivs i följd till en ny fil som sedan ersätter den gamla
+    private void compact() {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        Map<UUID, Long> moved = new HashMap<>(locations.size());
+        long position = 0;
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<UUID, Long> entry : locations.entrySet()) {
+                long length = entry.getValue() & LENGTH_MASK;
+                long source = entry.getValue() >>> LENGTH_BITS;
+                long copied = 0;
+                while (copied < length) {
+                    copied += channel.transferTo(source + copied, length - copied, target);
+                }
+                moved.put(entry.getKey(), position << LENGTH_BITS | length);
+                position += length;
+            }
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact cold tier " + file, e);
+        }
+        locations.putAll(moved);
+        end = position;
+        liveBytes = position;
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example;
+
+import java.math.BigDecimal;
+
+// En rabattnivå: varor med minDaysLeft..maxDaysLeft dagar kvar till bäst-före säljs för price * priceFactor
+public record DiscountRule(int minDaysLeft, int maxDaysLeft, BigDecimal priceFactor) {
+
+    public DiscountRule {
+        if (minDaysLeft < 0 || maxDaysLeft < minDaysLeft) {
+            throw new IllegalArgumentException("Discount days must satisfy 0 <= minDaysLeft <= maxDaysLeft.");
+        }
+        if (priceFactor == null || priceFactor.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Price factor cannot be null or negative.");
+        }
+    }
+
+    boolean appliesTo(long daysLeft) {
+        return daysLeft >= minDaysLeft && daysLeft <= maxDaysLeft;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Regeltabell för utgångsrabatter; första matchande regel vinner
+public final class DiscountRules {
+
+    private static final DiscountRules DEFAULTS = new DiscountRules(List.of(
+            new DiscountRule(0, 0, new BigDecimal("0.50")),
+            new DiscountRule(1, 1, new BigDecimal("0.70")),
+            new DiscountRule(2, 3, new BigDecimal("0.85"))));
+
+    private final List<DiscountRule> rules;
+    private final int horizonDays;
+
+    private DiscountRules(List<DiscountRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.horizonDays = this.rules.stream().mapToInt(DiscountRule::maxDaysLeft).max().orElse(-1);
+    }
+
+    // 50 % idag, 30 % imorgon, 15 % inom tre dagar
+    public static DiscountRules defaults() {
+        return DEFAULTS;
+    }
+
+    public static DiscountRules of(List<DiscountRule> rules) {
+        if (rules == null) { throw new IllegalArgumentException("Discount rules cannot be null."); }
+        return new DiscountRules(rules);
+    }
+
+    public List<DiscountRule> rules() {
+        return rules;
+    }
+
+    // Största antal dagar kvar som någon regel täcker, -1 om tabellen är tom
+    public int horizonDays() {
+        return horizonDays;
+    }
+
+    // Prisfaktor för antal dagar kvar, null om ingen regel gäller
+    BigDecimal factorFor(long daysLeft) {
+        for (DiscountRule rule : rules) {
+            if (rule.appliesTo(daysLeft)) return rule.priceFactor();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Materialiserade rabattpriser för varor inom rabattfönstret. Uppdateras vid tillägg,
+// borttag, prisändring och dygnsskifte; övriga produkter kostar sitt ordinarie pris.
+final class DiscountTable implements InventoryIndex {
+    private final ExpiryIndex expiryIndex;
+    // Regler och rabattpriser byts tillsammans med en skrivning, så att läsare utan lås aldrig ser
+    // en halvbyggd tabell vid dygnsskifte eller nya regler
+    private volatile Table table = new Table(DiscountRules.defaults(), new ConcurrentHashMap<>());
+
+    DiscountTable(ExpiryIndex expiryIndex) {
+        this.expiryIndex = expiryIndex;
+    }
+
+    DiscountRules rules() {
+        return table.rules();
+    }
+
+    void setRules(DiscountRules rules) {
+        rebuild(rules);
+    }
+
+    BigDecimal discountedPrice(Product product) {
+        return table.discountedById().getOrDefault(product.uuid(), product.price());
+    }
+
+    @Override
+    public void added(Product product) {
+        update(table, product);
+    }
+
+    @Override
+    public void removed(Product product) {
+        table.discountedById().remove(product.uuid());
+    }
+
+    @Override
+    public void cleared() {
+        table = new Table(table.rules(), new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public void replaced(Product previous, Product current) {
+        update(table, current);
+    }
+
+    // ExpiryIndex har redan flyttats till det nya datumet; bara varorna inom fönstret räknas om
+    @Override
+    public void dayChanged(LocalDate today) {
+        rebuild(table.rules());
+    }
+
+    private void rebuild(DiscountRules rules) {
+        Table rebuilt = new Table(rules, new ConcurrentHashMap<>());
+        if (rules.horizonDays() >= 0) {
+            LocalDate today = expiryIndex.today();
+            for (Perishable perishable : expiryIndex.expiringBetween(today, today.plusDays(rules.horizonDays()))) {
+                update(rebuilt, (Product) perishable);
+            }
+        }
+        table = rebuilt;
+    }
+
+    private void update(Table table, Product product) {
+        BigDecimal discounted = discountedPrice(product, expiryIndex.today(), table.rules());
+        if (discounted == null) {
+            table.discountedById().remove(product.uuid());
+        } else {
+            table.discountedById().put(product.uuid(), discounted);
+        }
+    }
+
+    private record Table(DiscountRules rules, Map<UUID, BigDecimal> discountedById) {
+    }
+
+    // Rabattpriset enligt reglerna, null om ingen regel gäller; samma beräkning för ögonblicksbilder
+    static BigDecimal discountedPrice(Product product, LocalDate today, DiscountRules rules) {
+        if (!(product instanceof Perishable perishable)) return null;
+        long daysLeft = ChronoUnit.DAYS.between(today, perishable.expirationDate());
+        BigDecimal factor = rules.factorFor(daysLeft);
+        return factor == null ? null : product.price().multiply(factor).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -1,12 +1,13 @@
 package com.example;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.UUID;
 
-public class ElectronicsProduct extends Product implements Shippable {
+public final class ElectronicsProduct extends Product implements Shippable {
     private final int warrantyMonths;
-    private final BigDecimal weight;
+    // Heltal och skala istället för BigDecimal, som i FoodProduct
+    private final long weightUnscaled;
+    private final int weightScale;
 
     public ElectronicsProduct(UUID id, String name, Category category, BigDecimal price, int warrantyMonths, BigDecimal weight) {
         super(id, name, category, price);
@@ -15,26 +16,31 @@ public class ElectronicsProduct extends Product implements Shippable {
         if (weight == null || weight.compareTo(BigDecimal.ZERO) < 0) { throw new IllegalArgumentException("Weight cannot be null or negative"); }
 
         this.warrantyMonths = warrantyMonths;
-        this.weight = weight;
+        this.weightUnscaled = ProductValues.unscaled(weight, "Weight");
+        this.weightScale = weight.scale();
     }
 
     @Override
-    public double weight() { return weight.doubleValue(); }
+    public double weight() { return ProductValues.toDouble(weightUnscaled, weightScale); }
 
     @Override
     public String productDetails() { return "Electronics: " + name() + ", Warranty: " + warrantyMonths + " months"; }
 
     @Override
     public BigDecimal calculateShippingCost() {
-        BigDecimal cost = BigDecimal.valueOf(79);
-        if (weight.compareTo(BigDecimal.valueOf(5.0)) > 0) {
-            cost = cost.add(BigDecimal.valueOf(49));
-        }
-        return cost.setScale(2, RoundingMode.HALF_UP);
+        return ShippingRates.defaults().electronicsCost(weightValue());
     }
 
+    BigDecimal weightValue() {
+        return ProductValues.decimal(weightUnscaled, weightScale);
+    }
+
+    int warrantyMonths() { return warrantyMonths; }
+    long weightUnscaled() { return weightUnscaled; }
+    int weightScale() { return weightScale; }
+
     @Override
     public String toString() {
-        return "ElectronicsProduct{" + "warrantyMonths=" + warrantyMonths + ", weight=" + weight + '}';
+        return "ElectronicsProduct{" + "warrantyMonths=" + warrantyMonths + ", weight=" + weightValue() + '}';
     }
 }
\ No newline at end of file
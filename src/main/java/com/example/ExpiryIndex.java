@@ -0,0 +1,151 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+// Bäst-före-varor grupperade per utgångsdatum. Tillståndet (färsk/rabatt/utgången) följer av
+// hinkens läge relativt dagens datum, så ett dygnsskifte flyttar hela hinkar på en gång
+// och räknarna per tillstånd räknas om från datumintervallen istället för per vara.
+final class ExpiryIndex implements InventoryIndex {
+    private final ConcurrentNavigableMap<LocalDate, Map<UUID, Product>> byDate = new ConcurrentSkipListMap<>();
+    // Antal per ExpiryState, indexerat på ordinal
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(ExpiryState.values().length);
+    private int size;
+    private volatile LocalDate today = LocalDate.EPOCH;
+    // Antal dagar före bäst-före då en vara räknas som rabattvara (idag inräknat som dag 0)
+    private volatile int discountWindowDays = DiscountRules.defaults().horizonDays();
+
+    ExpiryIndex() {
+        recount();
+    }
+
+    @Override
+    public void added(Product product) {
+        if (product instanceof Perishable perishable) {
+            LocalDate date = perishable.expirationDate();
+            byDate.computeIfAbsent(date, d -> new ConcurrentHashMap<>()).put(product.uuid(), product);
+            counts.incrementAndGet(stateOf(date).ordinal());
+            size++;
+        }
+    }
+
+    @Override
+    public void removed(Product product) {
+        if (product instanceof Perishable perishable) {
+            LocalDate date = perishable.expirationDate();
+            Map<UUID, Product> bucket = byDate.get(date);
+            if (bucket != null && bucket.remove(product.uuid()) != null) {
+                if (bucket.isEmpty()) byDate.remove(date);
+                counts.decrementAndGet(stateOf(date).ordinal());
+                size--;
+            }
+        }
+    }
+
+    // Räknarna per tillstånd räknas om en gång för hela klumpen istället för per vara
+    @Override
+    public void removedAll(Collection<Product> products) {
+        for (Product product : products) {
+            if (product instanceof Perishable perishable) {
+                LocalDate date = perishable.expirationDate();
+                Map<UUID, Product> bucket = byDate.get(date);
+                if (bucket != null && bucket.remove(product.uuid()) != null) {
+                    if (bucket.isEmpty()) byDate.remove(date);
+                    size--;
+                }
+            }
+        }
+        recount();
+    }
+
+    @Override
+    public void cleared() {
+        byDate.clear();
+        size = 0;
+        recount();
+    }
+
+    @Override
+    public void dayChanged(LocalDate today) {
+        this.today = today;
+        recount();
+    }
+
+    LocalDate today() {
+        return today;
+    }
+
+    void setDiscountWindowDays(int discountWindowDays) {
+        this.discountWindowDays = discountWindowDays;
+        recount();
+    }
+
+    ExpiryState stateOf(LocalDate expirationDate) {
+        long daysLeft = ChronoUnit.DAYS.between(today, expirationDate);
+        if (daysLeft < 0) return ExpiryState.EXPIRED;
+        if (daysLeft <= discountWindowDays) return ExpiryState.DISCOUNT;
+        return ExpiryState.FRESH;
+    }
+
+    int count(ExpiryState state) {
+        return counts.get(state.ordinal());
+    }
+
+    // Alla varor med bäst-före i [from, to], i datumordning
+    List<Perishable> expiringBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) return new ArrayList<>();
+        return collect(byDate.subMap(from, true, to, true));
+    }
+
+    // Samma intervall som en lat ström av produkter, för frågor som kombinerar bäst-före med andra villkor
+    Stream<Product> streamExpiringBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) return Stream.empty();
+        return byDate.subMap(from, true, to, true).values().stream().flatMap(bucket -> bucket.values().stream());
+    }
+
+    int countBetween(LocalDate from, LocalDate to) {
+        return from.isAfter(to) ? 0 : sizeOf(byDate.subMap(from, true, to, true));
+    }
+
+    // Alla varor med bäst-före på eller före datumet, i datumordning
+    List<Perishable> expiringOnOrBefore(LocalDate date) {
+        return collect(byDate.headMap(date, true));
+    }
+
+    // Alla varor med bäst-före före datumet, i datumordning
+    List<Perishable> expiringBefore(LocalDate date) {
+        return collect(byDate.headMap(date, false));
+    }
+
+    private void recount() {
+        int expired = sizeOf(byDate.headMap(today, false));
+        int discount = discountWindowDays < 0 ? 0 : sizeOf(byDate.subMap(today, true, today.plusDays(discountWindowDays), true));
+        counts.set(ExpiryState.EXPIRED.ordinal(), expired);
+        counts.set(ExpiryState.DISCOUNT.ordinal(), discount);
+        counts.set(ExpiryState.FRESH.ordinal(), size - expired - discount);
+    }
+
+    private static int sizeOf(Map<LocalDate, Map<UUID, Product>> buckets) {
+        int total = 0;
+        for (Map<UUID, Product> bucket : buckets.values()) {
+            total += bucket.size();
+        }
+        return total;
+    }
+
+    private static List<Perishable> collect(Map<LocalDate, Map<UUID, Product>> buckets) {
+        List<Perishable> result = new ArrayList<>();
+        for (Map<UUID, Product> bucket : buckets.values()) {
+            for (Product product : bucket.values()) {
+                result.add((Perishable) product);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+// Dagens datum för ett lager. Läsningen är en jämförelse mot nästa dygnsgräns utan lås;
+// när gränsen passeras (eller klockan ställs om) körs dygnsskiftet en gång, under lagrets skrivlås.
+final class ExpiryScheduler {
+    private final Lock writeLock;
+    private final Consumer<LocalDate> onDayChanged;
+    private volatile Clock clock;
+    private volatile LocalDate today;
+    private volatile long dayStartMillis;
+    private volatile long nextDayStartMillis;
+
+    ExpiryScheduler(Clock clock, Lock writeLock, Consumer<LocalDate> onDayChanged) {
+        this.writeLock = writeLock;
+        this.onDayChanged = onDayChanged;
+        setClock(clock);
+    }
+
+    Clock clock() {
+        return clock;
+    }
+
+    void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null.");
+        }
+        writeLock.lock();
+        try {
+            this.clock = clock;
+            rollOver();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    LocalDate today() {
+        if (outsideCurrentDay()) {
+            writeLock.lock();
+            try {
+                if (outsideCurrentDay()) rollOver();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return today;
+    }
+
+    private boolean outsideCurrentDay() {
+        long now = clock.millis();
+        return now >= nextDayStartMillis || now < dayStartMillis;
+    }
+
+    private void rollOver() {
+        ZoneId zone = clock.getZone();
+        LocalDate newDay = LocalDate.now(clock);
+        if (!newDay.equals(today)) {
+            today = newDay;
+            onDayChanged.accept(newDay);
+        }
+        // Gränserna sätts sist, så att läsare utan lås inte ser dem före det nya datumet
+        dayStartMillis = newDay.atStartOfDay(zone).toInstant().toEpochMilli();
+        nextDayStartMillis = newDay.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
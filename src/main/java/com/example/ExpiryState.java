@@ -0,0 +1,11 @@
+package com.example;
+
+// Tillstånd för en bäst-före-vara relativt dagens datum
+public enum ExpiryState {
+    // Mer än rabattfönstret kvar till bäst-före
+    FRESH,
+    // Bäst-före idag eller inom rabattfönstret
+    DISCOUNT,
+    // Bäst-före har passerat
+    EXPIRED
+}
@@ -1,13 +1,14 @@
 package com.example;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.UUID;
 
-public class FoodProduct extends Product implements Perishable, Shippable {
+public final class FoodProduct extends Product implements Perishable, Shippable {
     private final LocalDate expirationDate;
-    private final BigDecimal weight;
+    // Vikten lagras som heltal och skala, så att weight() och fraktkostnaden blir exakt som förut
+    private final long weightUnscaled;
+    private final int weightScale;
 
     public FoodProduct(UUID id, String name, Category category, BigDecimal price, LocalDate expirationDate, BigDecimal weight) {
         super(id, name, category, price);
@@ -17,25 +18,33 @@ public class FoodProduct extends Product implements Perishable, Shippable {
         if (expirationDate == null) { throw new IllegalArgumentException("Expiration date cannot be null."); }
 
         this.expirationDate = expirationDate;
-        this.weight = weight;
+        this.weightUnscaled = ProductValues.unscaled(weight, "Weight");
+        this.weightScale = weight.scale();
     }
 
     @Override
     public LocalDate expirationDate() { return expirationDate; }
     @Override
 
-    public double weight() { return weight.doubleValue(); }
+    public double weight() { return ProductValues.toDouble(weightUnscaled, weightScale); }
 
     @Override
     public String productDetails() { return "Food: " + name() + ", Expires: " + expirationDate(); }
 
     @Override
     public BigDecimal calculateShippingCost() {
-        return weight.multiply(BigDecimal.valueOf(50)).setScale(2, RoundingMode.HALF_UP);
+        return ShippingRates.defaults().foodCost(weightValue());
     }
 
+    BigDecimal weightValue() {
+        return ProductValues.decimal(weightUnscaled, weightScale);
+    }
+
+    long weightUnscaled() { return weightUnscaled; }
+    int weightScale() { return weightScale; }
+
     @Override
     public String toString() {
-        return "FoodProduct{" + "expirationDate=" + expirationDate + ", weight=" + weight + '}';
+        return "FoodProduct{" + "expirationDate=" + expirationDate + ", weight=" + weightValue() + '}';
     }
 }
\ No newline at end of file
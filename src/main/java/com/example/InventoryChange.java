@@ -0,0 +1,31 @@
+package com.example;
+
+import java.util.UUID;
+
+// En ändring i lagret. product är produkten efter ändringen (för REMOVED den borttagna) och null för RESET.
+// version är lagrets version efter ändringen, så att händelser kan stämmas av mot en WarehouseSnapshot.
+public record InventoryChange(Type type, UUID productId, Product product, long version) {
+
+    public enum Type {
+        ADDED,
+        PRICE_CHANGED,
+        REMOVED,
+        // Tidigare kända produkter gäller inte längre (lagret tömdes eller prenumeranten hann inte med);
+        // läs om lagret via Warehouse.snapshot()
+        RESET
+    }
+
+    static InventoryChange reset(long version) {
+        return new InventoryChange(Type.RESET, null, null, version);
+    }
+
+    // Sammanslagning av två väntande ändringar för samma produkt. ADDED följt av REMOVED blir REMOVED:
+    // ADDED kan ha ersatt en produkt som prenumeranten redan känner till, och en REMOVED för en
+    // okänd produkt är ofarlig.
+    InventoryChange then(InventoryChange next) {
+        return switch (next.type) {
+            case PRICE_CHANGED -> type == Type.ADDED ? new InventoryChange(Type.ADDED, productId, next.product, next.version) : next;
+            case ADDED, REMOVED, RESET -> next;
+        };
+    }
+}
@@ -0,0 +1,195 @@
+package com.example;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Publicerar lagrets ändringar som batchar till prenumeranter med mottryck (Flow.Subscription.request).
+// Varje prenumerant har en begränsad buffert där väntande ändringar slås ihop per produkt. Skrivaren
+// lägger bara in ändringen och väcker leveransen; den väntar aldrig på en långsam prenumerant.
+// Blir bufferten full töms den och prenumeranten får en RESET-händelse istället.
+public final class InventoryChangePublisher implements Flow.Publisher<List<InventoryChange>> {
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final Executor executor;
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    InventoryChangePublisher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    InventoryChangePublisher(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<InventoryChange>> subscriber) {
+        subscribe(subscriber, DEFAULT_BUFFER_CAPACITY, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    // bufferCapacity: högsta antal väntande produkter; maxBatchSize: högsta antal ändringar per onNext
+    public void subscribe(Flow.Subscriber<? super List<InventoryChange>> subscriber, int bufferCapacity, int maxBatchSize) {
+        if (subscriber == null) { throw new NullPointerException("Subscriber cannot be null."); }
+        if (bufferCapacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Buffer capacity and batch size must be positive.");
+        }
+        ChangeSubscription subscription = new ChangeSubscription(subscriber, bufferCapacity, maxBatchSize);
+        subscriber.onSubscribe(subscription);
+        subscriptions.add(subscription);
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    // Anropas av Warehouse under skrivlåset, så ordningen följer versionerna
+    void publish(InventoryChange change) {
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    void publish(List<InventoryChange> changes) {
+        if (changes.isEmpty()) return;
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.offer(changes);
+        }
+    }
+
+    private final class ChangeSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super List<InventoryChange>> subscriber;
+        private final int bufferCapacity;
+        private final int maxBatchSize;
+
+        // Väntande ändringar per produkt i ankomstordning; RESET lagras under nyckeln null
+        private final LinkedHashMap<UUID, InventoryChange> pending = new LinkedHashMap<>();
+        private final AtomicLong demand = new AtomicLong();
+        // Antal begärda leveransrundor; bara den som ökar från 0 schemalägger leverans
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        ChangeSubscription(Flow.Subscriber<? super List<InventoryChange>> subscriber, int bufferCapacity, int maxBatchSize) {
+            this.subscriber = subscriber;
+            this.bufferCapacity = bufferCapacity;
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        void offer(InventoryChange change) {
+            if (cancelled) return;
+            synchronized (pending) {
+                merge(change);
+            }
+            signal();
+        }
+
+        void offer(List<InventoryChange> changes) {
+            if (cancelled) return;
+            synchronized (pending) {
+                for (InventoryChange change : changes) {
+                    merge(change);
+                }
+            }
+            signal();
+        }
+
+        private void merge(InventoryChange change) {
+            if (change.type() == InventoryChange.Type.RESET) {
+                pending.clear();
+                pending.put(null, change);
+                return;
+            }
+            InventoryChange previous = pending.remove(change.productId());
+            InventoryChange merged = previous == null ? change : previous.then(change);
+            if (pending.size() >= bufferCapacity) {
+                pending.clear();
+                pending.put(null, InventoryChange.reset(change.version()));
+                return;
+            }
+            pending.put(change.productId(), merged);
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) return;
+            if (n <= 0) {
+                failure = new IllegalArgumentException("Requested count must be positive, was " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        private void signal() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    wip.set(0);
+                    fail(e);
+                }
+            }
+        }
+
+        // Levererar så länge det finns efterfrågan och väntande ändringar; en leverans åt gången
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                Throwable error = failure;
+                if (error != null) {
+                    fail(error);
+                    return;
+                }
+                while (!cancelled && demand.get() > 0) {
+                    List<InventoryChange> batch = takeBatch();
+                    if (batch.isEmpty()) break;
+                    demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(batch);
+                    } catch (Throwable e) {
+                        fail(e);
+                        return;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private List<InventoryChange> takeBatch() {
+            synchronized (pending) {
+                List<InventoryChange> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+                Iterator<InventoryChange> iterator = pending.values().iterator();
+                while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+                return List.copyOf(batch);
+            }
+        }
+
+        private void fail(Throwable error) {
+            if (cancelled) return;
+            cancel();
+            synchronized (pending) {
+                pending.clear();
+            }
+            subscriber.onError(error);
+        }
+    }
+}
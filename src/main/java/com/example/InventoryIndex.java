@@ -0,0 +1,41 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+// Sekundär struktur som Warehouse håller i synk vid varje ändring av lagret. Ändringar görs
+// under lagrets skrivlås; läsare går utan lås, så strukturerna bygger på samtidiga samlingar.
+interface InventoryIndex {
+
+    void added(Product product);
+    void removed(Product product);
+    void cleared();
+
+    // Många borttag i en ändring; index som kan göra något i klump skriver över den
+    default void removedAll(Collection<Product> products) {
+        products.forEach(this::removed);
+    }
+
+    // Produkten har bytts mot en kopia med nytt pris (samma id)
+    default void replaced(Product previous, Product current) {
+        removed(previous);
+        added(current);
+    }
+
+    // Produkten har flyttats till den kalla nivån: den finns kvar i lagret men inte i minnet. Index
+    // över produkterna i minnet tar bort den; index som följer hela lagret låter den stå kvar.
+    default void spilled(Product product) {
+        removed(product);
+    }
+
+    // Produkten har hämtats tillbaka från den kalla nivån
+    default void restored(Product product) {
+        added(product);
+    }
+
+    // En produkt på disk har tagits bort ur lagret. Bara index som behåller produkter vid spilled berörs.
+    default void removedCold(Product product) { }
+
+    // Anropas en gång per dygnsskifte med det nya datumet
+    default void dayChanged(LocalDate today) { }
+}
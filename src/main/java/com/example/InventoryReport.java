@@ -0,0 +1,23 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A full inventory report, with every part computed from the same {@link WarehouseSnapshot}.
+ *
+ * @param version             the warehouse version the report was computed at
+ * @param statistics          the result of {@link WarehouseAnalyzer#getInventoryStatistics()}
+ * @param validation          the result of {@link WarehouseAnalyzer#validateInventoryConstraints()}
+ * @param averagePriceByCategory the result of {@link WarehouseAnalyzer#calculateWeightedAveragePriceByCategory()}
+ * @param priceOutliers       the result of {@link WarehouseAnalyzer#findPriceOutliers(double)}
+ * @param expirationDiscounts the result of {@link WarehouseAnalyzer#calculateExpirationBasedDiscounts()}
+ */
+record InventoryReport(long version,
+                       InventoryStatistics statistics,
+                       InventoryValidation validation,
+                       Map<Category, BigDecimal> averagePriceByCategory,
+                       List<Product> priceOutliers,
+                       Map<Product, BigDecimal> expirationDiscounts) {
+}
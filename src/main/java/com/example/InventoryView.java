@@ -0,0 +1,36 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+// Läsgränssnittet som WarehouseAnalyzer arbetar mot: ett levande Warehouse (med index)
+// eller en WarehouseSnapshot (ett oföränderligt tillstånd som genomsöks)
+interface InventoryView {
+
+    String getName();
+    WarehouseMetrics metrics();
+
+    // Ökar vid varje ändring av produkterna, rabattreglerna, frakttaxorna eller dagens datum
+    long version();
+    LocalDate today();
+
+    int size();
+    List<Product> getProducts();
+    List<Shippable> shippableProducts();
+    ProductQuery query();
+
+    List<Perishable> perishablesExpiringBetween(LocalDate from, LocalDate to);
+    int countPerishables(ExpiryState state);
+    BigDecimal discountedPrice(Product product);
+    BigDecimal shippingCost(Shippable shippable);
+
+    // Ungefärligt pris vid kvantilen (0-1), null om inga produkter finns
+    BigDecimal priceQuantile(double quantile);
+    BigDecimal priceQuantile(Category category, double quantile);
+    Set<Category> categories();
+
+    List<Product> mostExpensiveProducts(int k);
+    List<Product> cheapestProducts(int k);
+}
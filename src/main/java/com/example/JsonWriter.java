@@ -0,0 +1,114 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Minimal JSON-skrivare för WarehouseHttpServer; håller reda på kommatecken per nivå
+final class JsonWriter {
+    private final StringBuilder out = new StringBuilder();
+    // true om nästa värde på nivån är det första
+    private final Deque<Boolean> first = new ArrayDeque<>();
+    private boolean afterName;
+
+    JsonWriter beginObject() {
+        separator();
+        out.append('{');
+        first.push(true);
+        return this;
+    }
+
+    JsonWriter endObject() {
+        first.pop();
+        out.append('}');
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separator();
+        out.append('[');
+        first.push(true);
+        return this;
+    }
+
+    JsonWriter endArray() {
+        first.pop();
+        out.append(']');
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        separator();
+        quote(name);
+        out.append(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separator();
+        if (value == null) out.append("null");
+        else quote(value);
+        return this;
+    }
+
+    // Belopp skrivs som JSON-tal utan exponent
+    JsonWriter value(BigDecimal value) {
+        separator();
+        out.append(value == null ? "null" : value.toPlainString());
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separator();
+        out.append(value);
+        return this;
+    }
+
+    JsonWriter value(double value) {
+        separator();
+        out.append(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separator();
+        out.append(value);
+        return this;
+    }
+
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!first.isEmpty()) {
+            if (!first.pop()) out.append(',');
+            first.push(false);
+        }
+    }
+
+    private void quote(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Trigramindex över gemena produktnamn för delsträngssökning. En sökterm med minst tre tecken
+// kan bara matcha produkter som finns i varje trigrams postlista, så den kortaste listan
+// räcker som kandidatmängd; själva contains-kontrollen görs sedan på kandidaterna.
+final class NameIndex implements InventoryIndex {
+    static final int GRAM = 3;
+
+    private final Map<String, Map<UUID, Product>> postings = new ConcurrentHashMap<>();
+
+    @Override
+    public void added(Product product) {
+        for (String gram : grams(normalize(product.name()))) {
+            postings.computeIfAbsent(gram, g -> new ConcurrentHashMap<>()).put(product.uuid(), product);
+        }
+    }
+
+    // Namnet är oförändrat, så samma postlistor får bara det nya värdet
+    @Override
+    public void replaced(Product previous, Product current) {
+        added(current);
+    }
+
+    @Override
+    public void removed(Product product) {
+        for (String gram : grams(normalize(product.name()))) {
+            Map<UUID, Product> posting = postings.get(gram);
+            if (posting != null && posting.remove(product.uuid()) != null && posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    @Override
+    public void cleared() {
+        postings.clear();
+    }
+
+    // Kortaste postlistan för termens trigram; null om termen är för kort för indexet
+    Collection<Product> candidates(String term) {
+        String normalized = normalize(term);
+        if (normalized.length() < GRAM) return null;
+        Collection<Product> best = null;
+        for (String gram : grams(normalized)) {
+            Map<UUID, Product> posting = postings.get(gram);
+            if (posting == null) return List.of();
+            if (best == null || posting.size() < best.size()) {
+                best = posting.values();
+            }
+        }
+        return Collections.unmodifiableCollection(best);
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
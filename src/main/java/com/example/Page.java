@@ -0,0 +1,15 @@
+package com.example;
+
+import java.util.List;
+
+// En sida resultat; next är null på sista sidan
+public record Page<T>(List<T> items, PageCursor next) {
+
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Markör för nyckelbaserad sidindelning: sista radens (pris, id) på föregående sida
+public record PageCursor(BigDecimal price, UUID id) {
+
+    public PageCursor {
+        if (price == null || id == null) { throw new IllegalArgumentException("Cursor price and id cannot be null."); }
+    }
+}
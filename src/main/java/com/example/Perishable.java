@@ -6,6 +6,11 @@ public interface Perishable {
 
     LocalDate expirationDate();
     default boolean isExpired() {
-        return !expirationDate().isAfter(LocalDate.now());
+        return isExpired(LocalDate.now());
+    }
+
+    // Samma regel mot ett givet datum, t.ex. lagrets klocka istället för systemklockan
+    default boolean isExpired(LocalDate today) {
+        return !expirationDate().isAfter(today);
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Produkter sorterade på (pris, id). Id:t som andra nyckel gör ordningen total, vilket
+// ger stabila intervall och kan användas som markör vid sidindelning.
+final class PriceIndex implements InventoryIndex {
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final UUID HIGHEST_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    record PriceKey(BigDecimal price, UUID id) implements Comparable<PriceKey> {
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = price.compareTo(other.price);
+            return byPrice != 0 ? byPrice : id.compareTo(other.id);
+        }
+    }
+
+    private final NavigableMap<PriceKey, Product> byPrice = new ConcurrentSkipListMap<>();
+
+    static PriceKey keyOf(Product product) {
+        return new PriceKey(product.price(), product.uuid());
+    }
+
+    @Override
+    public void added(Product product) {
+        byPrice.put(new PriceKey(product.price(), product.uuid()), product);
+    }
+
+    @Override
+    public void removed(Product product) {
+        byPrice.remove(new PriceKey(product.price(), product.uuid()));
+    }
+
+    @Override
+    public void cleared() {
+        byPrice.clear();
+    }
+
+    // Alla produkter i stigande prisordning
+    NavigableMap<PriceKey, Product> all() {
+        return Collections.unmodifiableNavigableMap(byPrice);
+    }
+
+    // De k billigaste (stigande) eller dyraste (fallande) direkt från indexets ändar, O(k)
+    List<Product> cheapest(int k) {
+        return take(byPrice.values(), k);
+    }
+
+    List<Product> mostExpensive(int k) {
+        return take(byPrice.descendingMap().values(), k);
+    }
+
+    private static List<Product> take(Collection<Product> ordered, int k) {
+        if (k < 0) { throw new IllegalArgumentException("k cannot be negative."); }
+        List<Product> result = new ArrayList<>(Math.min(k, ordered.size()));
+        Iterator<Product> products = ordered.iterator();
+        while (result.size() < k && products.hasNext()) {
+            result.add(products.next());
+        }
+        return result;
+    }
+
+    // Produkter med min <= pris <= max, i stigande prisordning
+    NavigableMap<PriceKey, Product> between(BigDecimal min, BigDecimal max) {
+        if (min.compareTo(max) > 0) return Collections.emptyNavigableMap();
+        return Collections.unmodifiableNavigableMap(
+                byPrice.subMap(new PriceKey(min, LOWEST_ID), true, new PriceKey(max, HIGHEST_ID), true));
+    }
+
+    // Produkter med pris strikt över gränsen, i stigande prisordning
+    NavigableMap<PriceKey, Product> above(BigDecimal price) {
+        return Collections.unmodifiableNavigableMap(byPrice.tailMap(new PriceKey(price, HIGHEST_ID), false));
+    }
+
+    // Del av intervallet efter markören; tål markörer utanför intervallets gränser
+    static NavigableMap<PriceKey, Product> after(NavigableMap<PriceKey, Product> range, PriceKey cursor) {
+        if (range.isEmpty() || cursor.compareTo(range.firstKey()) < 0) return range;
+        if (cursor.compareTo(range.lastKey()) >= 0) return Collections.emptyNavigableMap();
+        return range.tailMap(cursor, false);
+    }
+
+    // Räknar högst limit poster, så att planeraren inte betalar mer än det bästa alternativet kostar
+    static int countUpTo(Map<PriceKey, Product> range, int limit) {
+        int count = 0;
+        Iterator<PriceKey> keys = range.keySet().iterator();
+        while (count < limit && keys.hasNext()) {
+            keys.next();
+            count++;
+        }
+        return count;
+    }
+}
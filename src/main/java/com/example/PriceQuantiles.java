@@ -0,0 +1,18 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.function.DoubleFunction;
+
+/**
+ * Approximate price percentiles, see {@link WarehouseAnalyzer#getPriceQuantiles()}
+ */
+record PriceQuantiles(BigDecimal p50, BigDecimal p90, BigDecimal p99) {
+
+    static PriceQuantiles of(DoubleFunction<BigDecimal> quantile) {
+        return new PriceQuantiles(orZero(quantile.apply(0.50)), orZero(quantile.apply(0.90)), orZero(quantile.apply(0.99)));
+    }
+
+    private static BigDecimal orZero(BigDecimal price) {
+        return price == null ? BigDecimal.ZERO : price;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Kvantilskiss över priser i ören: log-linjära hinkar som LatencyHistogram, 32 delhinkar per
+// tvåpotens. Ett svar är hinkens mittpunkt, så felet är högst ~1,6 % av priset (exakt under 0,64).
+// Till skillnad från KLL och t-digest går ett värde att ta bort igen, vilket prisändringar kräver.
+// Rader per tvåpotens skapas först när ett pris hamnar där, så en typisk skiss tar någon kB.
+final class PriceSketch {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Priser från 2^47 ören (~1,4 biljoner kronor) hamnar i sista hinken
+    private static final int MAX_EXPONENT = 46;
+    private static final int ROWS = MAX_EXPONENT - SUB_BUCKET_BITS + 2;
+
+    private final AtomicReferenceArray<AtomicIntegerArray> rows = new AtomicReferenceArray<>(ROWS);
+    // Ändras bara under lagrets skrivlås (eller på en lokal skiss)
+    private volatile int count;
+
+    void add(BigDecimal price) {
+        update(price, 1);
+    }
+
+    void remove(BigDecimal price) {
+        update(price, -1);
+    }
+
+    int count() {
+        return count;
+    }
+
+    // Lägger till en annan skiss; skisserna har samma hinkar och kan därför slås ihop exakt
+    void merge(PriceSketch other) {
+        for (int row = 0; row < ROWS; row++) {
+            AtomicIntegerArray source = other.rows.get(row);
+            if (source == null) continue;
+            AtomicIntegerArray target = row(row);
+            for (int i = 0; i < SUB_BUCKETS; i++) {
+                target.addAndGet(i, source.get(i));
+            }
+        }
+        count += other.count;
+    }
+
+    // Ungefärligt pris vid kvantilen (0-1), null om skissen är tom
+    BigDecimal quantile(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0) { throw new IllegalArgumentException("Quantile must be between 0 and 1."); }
+        int total = count;
+        if (total <= 0) return null;
+        long target = Math.max(1, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        int last = -1;
+        for (int row = 0; row < ROWS; row++) {
+            AtomicIntegerArray counts = rows.get(row);
+            if (counts == null) continue;
+            for (int i = 0; i < SUB_BUCKETS; i++) {
+                int inBucket = counts.get(i);
+                if (inBucket <= 0) continue;
+                last = row * SUB_BUCKETS + i;
+                seen += inBucket;
+                if (seen >= target) return centsToPrice(midpointOf(last));
+            }
+        }
+        // Samtidiga ändringar kan ge färre värden än count; svara med högsta hinken
+        return last < 0 ? null : centsToPrice(midpointOf(last));
+    }
+
+    private void update(BigDecimal price, int delta) {
+        int index = indexOf(cents(price));
+        row(index / SUB_BUCKETS).addAndGet(index % SUB_BUCKETS, delta);
+        count += delta;
+    }
+
+    private AtomicIntegerArray row(int row) {
+        AtomicIntegerArray counts = rows.get(row);
+        if (counts == null) {
+            rows.compareAndSet(row, null, new AtomicIntegerArray(SUB_BUCKETS));
+            counts = rows.get(row);
+        }
+        return counts;
+    }
+
+    private static long cents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static BigDecimal centsToPrice(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) Math.max(0, value);
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && value >= (1L << (MAX_EXPONENT + 1))) return ROWS * SUB_BUCKETS - 1;
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long midpointOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width / 2;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Priskvantiler för hela lagret och per kategori, uppdaterade vid varje ändring
+final class PriceSketchIndex implements InventoryIndex {
+    private volatile PriceSketch overall = new PriceSketch();
+    private final Map<Category, PriceSketch> byCategory = new ConcurrentHashMap<>();
+
+    @Override
+    public void added(Product product) {
+        overall.add(product.price());
+        byCategory.computeIfAbsent(product.category(), c -> new PriceSketch()).add(product.price());
+    }
+
+    @Override
+    public void removed(Product product) {
+        overall.remove(product.price());
+        PriceSketch sketch = byCategory.get(product.category());
+        if (sketch != null) {
+            sketch.remove(product.price());
+            if (sketch.count() == 0) byCategory.remove(product.category());
+        }
+    }
+
+    @Override
+    public void cleared() {
+        overall = new PriceSketch();
+        byCategory.clear();
+    }
+
+    BigDecimal quantile(double quantile) {
+        return overall.quantile(quantile);
+    }
+
+    // null om kategorin saknar produkter
+    BigDecimal quantile(Category category, double quantile) {
+        PriceSketch sketch = byCategory.get(category);
+        return sketch == null ? null : sketch.quantile(quantile);
+    }
+}
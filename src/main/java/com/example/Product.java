@@ -5,11 +5,14 @@ import java.math.RoundingMode;
 import java.util.Objects;
 import java.util.UUID;
 
-public abstract class Product {
+// Förseglad: produkttypen avgör förmågorna (Perishable, Shippable), vilket lagrets partitioner bygger på
+public abstract sealed class Product implements Cloneable permits FoodProduct, ElectronicsProduct {
     private final UUID id;
     private final String name;
     private final Category category;
-    private BigDecimal price;
+    // Priset lagras i ören; price() delar BigDecimal-instanser för vanliga belopp. Sätts bara i
+    // konstruktorn och i kopian från withPrice, så en produkt ändras aldrig efter att den skapats.
+    private long priceCents;
 
     protected Product(UUID id, String name, Category category, BigDecimal price) {
         if (id == null) { throw new IllegalArgumentException("ID cannot be null"); }
@@ -18,21 +21,35 @@ public abstract class Product {
         if (price == null || price.compareTo(BigDecimal.ZERO) < 0) { throw new IllegalArgumentException("Price cannot be negative."); }
 
         this.id = id;
-        this.name = name;
+        this.name = ProductValues.name(name);
         this.category = category;
-        this.price = price.setScale(2, RoundingMode.HALF_UP);
+        this.priceCents = cents(price);
     }
 
     public UUID uuid() { return id; }
     public String name() { return name; }
     public Category category() { return category; }
-    public BigDecimal price() { return price; }
+    public BigDecimal price() { return ProductValues.decimal(priceCents, 2); }
+    long priceCents() { return priceCents; }
 
-    public void setPrice(BigDecimal newPrice) {
+    private static long cents(BigDecimal price) {
+        return ProductValues.unscaled(price.setScale(2, RoundingMode.HALF_UP), "Price");
+    }
+
+    // Kopia med nytt pris och samma id. Warehouse byter ut produkten istället för att ändra den,
+    // så att ögonblicksbilder som redan delats ut behåller sitt pris.
+    public Product withPrice(BigDecimal newPrice) {
         if (newPrice == null || newPrice.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Price cannot be null or negative");
         }
-        this.price = newPrice.setScale(2, RoundingMode.HALF_UP);
+        Product copy;
+        try {
+            copy = (Product) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        copy.priceCents = cents(newPrice);
+        return copy;
     }
 
     @Override
@@ -53,7 +70,7 @@ public abstract class Product {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", category=" + category +
-                ", price=" + price +
+                ", price=" + price() +
                 '}';
     }
 
@@ -0,0 +1,211 @@
+package com.example;
+
+import java.lang.foreign.MemorySegment;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+// Kompakt binärformat för produkter, för att flytta ett lagers innehåll mellan processer och
+// till disk. Formatet (big-endian, version 1):
+//
+//   short magic "WH", byte version
+//   ushort antal kategorier, per kategori: ushort längd + UTF-8-namn
+//   int antal produkter, per produkt:
+//     byte typ (1 = livsmedel, 2 = elektronik), 16 byte UUID, ushort längd + UTF-8-namn,
+//     ushort kategoriindex, long pris i ören,
+//     livsmedel: int bäst-före som epokdag; elektronik: int garantimånader,
+//     long vikt som heltal + byte skala
+//
+// Kodning och avkodning sker direkt mot anroparens buffert eller minnessegment utan mellanlager.
+public final class ProductCodec {
+    public static final int VERSION = 1;
+
+    private static final short MAGIC = 0x5748;
+    private static final byte FOOD = 1;
+    private static final byte ELECTRONICS = 2;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final int HEADER_BYTES = Short.BYTES + Byte.BYTES + Short.BYTES + Integer.BYTES;
+    // Typ, UUID, namnlängd, kategori, pris, datum/garanti, vikt och skala
+    private static final int FIXED_PRODUCT_BYTES = 1 + 16 + 2 + 2 + 8 + 4 + 8 + 1;
+
+    private ProductCodec() {
+    }
+
+    // Antal byte som encode skriver för produkterna
+    public static int encodedSize(Collection<? extends Product> products) {
+        if (products == null) { throw new IllegalArgumentException("Products cannot be null."); }
+        int size = HEADER_BYTES;
+        Set<Category> categories = new HashSet<>();
+        for (Product product : products) {
+            size += FIXED_PRODUCT_BYTES + utf8Length(product.name());
+            if (categories.add(product.category())) size += Short.BYTES + utf8Length(product.category().getName());
+        }
+        return size;
+    }
+
+    // Ny heap-buffert med produkterna, klar att läsas
+    public static ByteBuffer encode(Collection<? extends Product> products) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(products));
+        encode(products, buffer);
+        return buffer.flip();
+    }
+
+    // Skriver från buffertens position och flyttar den förbi det skrivna. Får inte allt plats
+    // kastas BufferOverflowException och positionen lämnas orörd.
+    public static void encode(Collection<? extends Product> products, ByteBuffer out) {
+        if (products == null) { throw new IllegalArgumentException("Products cannot be null."); }
+        if (out == null) { throw new IllegalArgumentException("Buffer cannot be null."); }
+        ByteBuffer buffer = out.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        Map<Category, Integer> categories = new LinkedHashMap<>();
+        for (Product product : products) {
+            categories.putIfAbsent(product.category(), categories.size());
+        }
+        if (categories.size() > MAX_STRING_BYTES) { throw new IllegalArgumentException("Too many categories to encode."); }
+
+        buffer.putShort(MAGIC).put((byte) VERSION);
+        buffer.putShort((short) categories.size());
+        for (Category category : categories.keySet()) {
+            putString(buffer, category.getName());
+        }
+        buffer.putInt(products.size());
+        for (Product product : products) {
+            putProduct(buffer, product, categories.get(product.category()));
+        }
+        out.position(buffer.position());
+    }
+
+    // Skriver från segmentets början via en buffertvy över samma minne; returnerar antal byte
+    public static long encode(Collection<? extends Product> products, MemorySegment out) {
+        if (out == null) { throw new IllegalArgumentException("Segment cannot be null."); }
+        ByteBuffer buffer = out.asByteBuffer();
+        encode(products, buffer);
+        return buffer.position();
+    }
+
+    // Läser från buffertens position och flyttar den förbi de lästa produkterna
+    public static List<Product> decode(ByteBuffer in) {
+        if (in == null) { throw new IllegalArgumentException("Buffer cannot be null."); }
+        ByteBuffer buffer = in.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getShort() != MAGIC) { throw new IllegalArgumentException("Not an encoded product stream."); }
+            int version = buffer.get();
+            if (version != VERSION) { throw new IllegalArgumentException("Unsupported codec version: " + version); }
+
+            byte[] scratch = new byte[64];
+            Category[] categories = new Category[Short.toUnsignedInt(buffer.getShort())];
+            for (int i = 0; i < categories.length; i++) {
+                categories[i] = Category.of(getString(buffer, scratch));
+            }
+            int count = buffer.getInt();
+            if (count < 0) { throw new IllegalArgumentException("Negative product count."); }
+            List<Product> products = new ArrayList<>(Math.min(count, buffer.remaining() / FIXED_PRODUCT_BYTES));
+            for (int i = 0; i < count; i++) {
+                products.add(getProduct(buffer, categories, scratch));
+            }
+            in.position(buffer.position());
+            return products;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated product stream.");
+        }
+    }
+
+    public static List<Product> decode(MemorySegment in) {
+        if (in == null) { throw new IllegalArgumentException("Segment cannot be null."); }
+        return decode(in.asReadOnly().asByteBuffer());
+    }
+
+    private static void putProduct(ByteBuffer buffer, Product product, int category) {
+        switch (product) {
+            case FoodProduct food -> {
+                long epochDay = food.expirationDate().toEpochDay();
+                if (epochDay != (int) epochDay) { throw new IllegalArgumentException("Expiration date is out of range."); }
+                putCommon(buffer, FOOD, product, category);
+                buffer.putInt((int) epochDay);
+                putWeight(buffer, food.weightUnscaled(), food.weightScale());
+            }
+            case ElectronicsProduct electronics -> {
+                putCommon(buffer, ELECTRONICS, product, category);
+                buffer.putInt(electronics.warrantyMonths());
+                putWeight(buffer, electronics.weightUnscaled(), electronics.weightScale());
+            }
+        }
+    }
+
+    private static void putCommon(ByteBuffer buffer, byte type, Product product, int category) {
+        buffer.put(type)
+                .putLong(product.uuid().getMostSignificantBits())
+                .putLong(product.uuid().getLeastSignificantBits());
+        putString(buffer, product.name());
+        buffer.putShort((short) category).putLong(product.priceCents());
+    }
+
+    private static void putWeight(ByteBuffer buffer, long unscaled, int scale) {
+        if (scale != (byte) scale) { throw new IllegalArgumentException("Weight scale is out of range."); }
+        buffer.putLong(unscaled).put((byte) scale);
+    }
+
+    private static Product getProduct(ByteBuffer buffer, Category[] categories, byte[] scratch) {
+        byte type = buffer.get();
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        String name = getString(buffer, scratch);
+        int category = Short.toUnsignedInt(buffer.getShort());
+        if (category >= categories.length) { throw new IllegalArgumentException("Unknown category index: " + category); }
+        BigDecimal price = ProductValues.decimal(buffer.getLong(), 2);
+        return switch (type) {
+            case FOOD -> {
+                LocalDate expirationDate = LocalDate.ofEpochDay(buffer.getInt());
+                yield new FoodProduct(id, name, categories[category], price, expirationDate, getWeight(buffer));
+            }
+            case ELECTRONICS -> {
+                int warrantyMonths = buffer.getInt();
+                yield new ElectronicsProduct(id, name, categories[category], price, warrantyMonths, getWeight(buffer));
+            }
+            default -> throw new IllegalArgumentException("Unknown product type: " + type);
+        };
+    }
+
+    private static BigDecimal getWeight(ByteBuffer buffer) {
+        long unscaled = buffer.getLong();
+        return ProductValues.decimal(unscaled, buffer.get());
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) { throw new IllegalArgumentException("Name is too long to encode."); }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    // Heap-buffertar läses direkt ur sin array; övriga via en återanvänd mellanarray
+    private static String getString(ByteBuffer buffer, byte[] scratch) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length > buffer.remaining()) throw new BufferUnderflowException();
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) length += 1;
+            else if (c < 0x800) length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) length += 1; // ersätts med '?' av getBytes
+            else length += 3;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example;
+
+import java.util.*;
+
+// Produkterna uppdelade efter förmåga (Perishable, Shippable eller båda) redan när de läggs in.
+// Product är förseglad, så typen avgör förmågorna en gång per ändring; frågor som bara gäller
+// bäst-före- eller fraktvaror läser sin partition utan typtest per vara. Partitionerna är
+// disjunkta persistenta trier, så en ögonblicksbild delar dem med sin föregångare som den
+// delar huvudtrien.
+final class ProductPartitions {
+    static final ProductPartitions EMPTY = new ProductPartitions(ProductTrie.EMPTY, ProductTrie.EMPTY);
+
+    // Både bäst-före och fraktbara (FoodProduct)
+    private final ProductTrie perishableShippable;
+    // Bara fraktbara (ElectronicsProduct)
+    private final ProductTrie shippableOnly;
+
+    private ProductPartitions(ProductTrie perishableShippable, ProductTrie shippableOnly) {
+        this.perishableShippable = perishableShippable;
+        this.shippableOnly = shippableOnly;
+    }
+
+    ProductPartitions with(Product product) {
+        return switch (product) {
+            case FoodProduct food -> new ProductPartitions(perishableShippable.with(food), shippableOnly);
+            case ElectronicsProduct electronics -> new ProductPartitions(perishableShippable, shippableOnly.with(electronics));
+        };
+    }
+
+    ProductPartitions without(Product product) {
+        return switch (product) {
+            case FoodProduct food -> new ProductPartitions(perishableShippable.without(food.uuid()), shippableOnly);
+            case ElectronicsProduct electronics -> new ProductPartitions(perishableShippable, shippableOnly.without(electronics.uuid()));
+        };
+    }
+
+    // Byter ut en produkt mot en ny version med samma id, t.ex. efter en prisändring
+    ProductPartitions replaced(Product previous, Product current) {
+        if (previous.getClass() == current.getClass()) return with(current);
+        return without(previous).with(current);
+    }
+
+    Collection<Perishable> perishables() {
+        return view(perishableShippable);
+    }
+
+    List<Shippable> shippables() {
+        List<Shippable> result = new ArrayList<>(perishableShippable.size() + shippableOnly.size());
+        result.addAll(view(perishableShippable));
+        result.addAll(view(shippableOnly));
+        return result;
+    }
+
+    // Varje partition innehåller bara produkter med partitionens förmågor, så vyn behöver ingen kontroll per vara
+    @SuppressWarnings("unchecked")
+    private static <T> Collection<T> view(ProductTrie partition) {
+        return (Collection<T>) (Collection<?>) partition.values();
+    }
+}
@@ -0,0 +1,303 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Sammansatt fråga mot ett Warehouse. Planeraren väljer det villkor vars index ger minst
+// kandidater (pris, kategori, bäst-före eller namn) och prövar övriga villkor bara på dem.
+// Mot en WarehouseSnapshot finns inga index och alla villkor prövas under en genomsökning.
+public final class ProductQuery {
+    private final InventoryView source;
+    // Lagret vars index används; null för ögonblicksbilder
+    private final Warehouse warehouse;
+    private final Supplier<Collection<Product>> scan;
+    private final List<Condition> conditions = new ArrayList<>();
+    private Comparator<? super Product> order;
+    private int limit = Integer.MAX_VALUE;
+
+    ProductQuery(Warehouse warehouse) {
+        this.source = warehouse;
+        this.warehouse = warehouse;
+        this.scan = warehouse::productValues;
+    }
+
+    ProductQuery(WarehouseSnapshot snapshot) {
+        this.source = snapshot;
+        this.warehouse = null;
+        this.scan = snapshot::productValues;
+    }
+
+    public ProductQuery inCategory(Category category) {
+        if (category == null) { throw new IllegalArgumentException("Category cannot be null."); }
+        conditions.add(new CategoryCondition(category));
+        return this;
+    }
+
+    // Inklusivt intervall [min, max]
+    public ProductQuery priceBetween(BigDecimal min, BigDecimal max) {
+        if (min == null || max == null) { throw new IllegalArgumentException("Price bounds cannot be null."); }
+        conditions.add(new PriceCondition(min, max, false));
+        return this;
+    }
+
+    // Strikt större än priset
+    public ProductQuery priceAbove(BigDecimal price) {
+        if (price == null) { throw new IllegalArgumentException("Price cannot be null."); }
+        conditions.add(new PriceCondition(price, null, true));
+        return this;
+    }
+
+    // Bäst-före idag eller inom days dagar, som WarehouseAnalyzer.findProductsExpiringWithinDays
+    public ProductQuery expiringWithinDays(int days) {
+        conditions.add(new ExpiryCondition(days));
+        return this;
+    }
+
+    // Skiftlägesokänslig delsträng i namnet
+    public ProductQuery nameContains(String term) {
+        if (term == null) { throw new IllegalArgumentException("Search term cannot be null."); }
+        conditions.add(new NameCondition(NameIndex.normalize(term)));
+        return this;
+    }
+
+    // Godtyckligt villkor utan index; prövas alltid på kandidatmängden
+    public ProductQuery where(Predicate<? super Product> predicate) {
+        if (predicate == null) { throw new IllegalArgumentException("Predicate cannot be null."); }
+        conditions.add(new FilterCondition(predicate));
+        return this;
+    }
+
+    public ProductQuery orderBy(Comparator<? super Product> order) {
+        this.order = order;
+        return this;
+    }
+
+    public ProductQuery limit(int limit) {
+        if (limit < 0) { throw new IllegalArgumentException("Limit cannot be negative."); }
+        this.limit = limit;
+        return this;
+    }
+
+    public List<Product> list() {
+        return stream().collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    // Lat ström över kandidatmängden; utan orderBy avbryts genomgången när konsumenten slutar läsa.
+    // Mot ett levande lager läser strömmen indexen direkt och ser samtidiga ändringar svagt konsistent;
+    // fråga en WarehouseSnapshot för ett exakt tillstånd.
+    public Stream<Product> stream() {
+        Plan plan = plan();
+        Stream<Product> matches = plan.candidates().filter(plan::matches);
+        if (order != null) {
+            matches = matches.sorted(order);
+        }
+        return matches.limit(limit);
+    }
+
+    // Första sidan i (pris, id)-ordning
+    public Page<Product> page(int pageSize) {
+        return page(null, pageSize);
+    }
+
+    // Sidan efter markören i (pris, id)-ordning. Bred fråga: prisindexet läses från markören och
+    // genomgången slutar efter pageSize + 1 träffar. Smal fråga: de få kandidaterna sorteras.
+    // limit ignoreras och orderBy kan inte kombineras med sidindelning.
+    public Page<Product> page(PageCursor after, int pageSize) {
+        if (pageSize <= 0) { throw new IllegalArgumentException("Page size must be positive."); }
+        if (order != null) { throw new IllegalStateException("Pages are ordered by price; orderBy cannot be combined with page()."); }
+        Plan plan = plan();
+        PriceIndex.PriceKey from = after == null ? null : new PriceIndex.PriceKey(after.price(), after.id());
+        Stream<Product> ordered;
+        if (warehouse != null && (plan.access == null || plan.access instanceof PriceCondition)) {
+            NavigableMap<PriceIndex.PriceKey, Product> range = plan.access == null
+                    ? warehouse.priceIndex().all()
+                    : ((PriceCondition) plan.access).range();
+            if (from != null) range = PriceIndex.after(range, from);
+            ordered = range.values().stream().filter(plan::matches);
+        } else {
+            ordered = plan.candidates()
+                    .filter(plan::matches)
+                    .filter(product -> from == null || PriceIndex.keyOf(product).compareTo(from) > 0)
+                    .sorted(Comparator.comparing(PriceIndex::keyOf));
+        }
+        List<Product> items = ordered.limit(pageSize + 1L).collect(Collectors.toCollection(ArrayList::new));
+        if (items.size() <= pageSize) {
+            return new Page<>(items, null);
+        }
+        items.removeLast();
+        Product last = items.getLast();
+        return new Page<>(items, new PageCursor(last.price(), last.uuid()));
+    }
+
+    // Beskriver vald åtkomstväg och kvarvarande villkor, t.ex. "category(Dairy) ~3 then price[10, 20]"
+    public String explain() {
+        Plan plan = plan();
+        String access = plan.access == null ? "scan ~" + source.size() : plan.access.describe() + " ~" + plan.estimate;
+        StringJoiner residual = new StringJoiner(", ");
+        for (Condition condition : plan.residual) {
+            residual.add(condition.describe());
+        }
+        return plan.residual.isEmpty() ? access : access + " then " + residual;
+    }
+
+    private Plan plan() {
+        LocalDate today = source.today();
+        for (Condition condition : conditions) {
+            condition.prepare(today);
+        }
+        IndexedCondition best = null;
+        int bestEstimate = source.size();
+        for (Condition condition : warehouse == null ? List.<Condition>of() : conditions) {
+            if (!(condition instanceof IndexedCondition indexed)) continue;
+            int estimate = indexed.estimate(bestEstimate);
+            if (estimate >= 0 && (best == null || estimate < bestEstimate)) {
+                best = indexed;
+                bestEstimate = estimate;
+            }
+        }
+        List<Condition> residual = new ArrayList<>(conditions);
+        if (best != null) residual.remove(best);
+        Stream<Product> candidates = best == null ? scan.get().stream() : best.candidates();
+        return new Plan(best, bestEstimate, candidates, residual);
+    }
+
+    private record Plan(IndexedCondition access, int estimate, Stream<Product> candidates, List<Condition> residual) {
+        boolean matches(Product product) {
+            for (Condition condition : residual) {
+                if (!condition.test(product)) return false;
+            }
+            return true;
+        }
+    }
+
+    private interface Condition extends Predicate<Product> {
+        String describe();
+
+        default void prepare(LocalDate today) { }
+    }
+
+    // Villkor med en åtkomstväg genom ett av lagrets index
+    private interface IndexedCondition extends Condition {
+        // Antal kandidater via index, räknat till högst limit; -1 om indexet inte kan användas
+        int estimate(int limit);
+
+        Stream<Product> candidates();
+    }
+
+    private final class CategoryCondition implements IndexedCondition {
+        private final Category category;
+
+        CategoryCondition(Category category) { this.category = category; }
+
+        @Override
+        public boolean test(Product product) { return product.category().equals(category); }
+
+        @Override
+        public String describe() { return "category(" + category.getName() + ")"; }
+
+        @Override
+        public int estimate(int limit) { return warehouse.categoryIndex().inCategory(category).size(); }
+
+        @Override
+        public Stream<Product> candidates() { return warehouse.categoryIndex().inCategory(category).stream(); }
+    }
+
+    private final class PriceCondition implements IndexedCondition {
+        private final BigDecimal min;
+        private final BigDecimal max;
+        private final boolean exclusiveMin;
+
+        PriceCondition(BigDecimal min, BigDecimal max, boolean exclusiveMin) {
+            this.min = min;
+            this.max = max;
+            this.exclusiveMin = exclusiveMin;
+        }
+
+        @Override
+        public boolean test(Product product) {
+            int low = product.price().compareTo(min);
+            if (exclusiveMin ? low <= 0 : low < 0) return false;
+            return max == null || product.price().compareTo(max) <= 0;
+        }
+
+        @Override
+        public String describe() {
+            return exclusiveMin ? "price(>" + min + ")" : "price[" + min + ", " + max + "]";
+        }
+
+        @Override
+        public int estimate(int limit) { return PriceIndex.countUpTo(range(), limit); }
+
+        @Override
+        public Stream<Product> candidates() { return range().values().stream(); }
+
+        NavigableMap<PriceIndex.PriceKey, Product> range() {
+            PriceIndex index = warehouse.priceIndex();
+            return exclusiveMin ? index.above(min) : index.between(min, max);
+        }
+    }
+
+    private final class ExpiryCondition implements IndexedCondition {
+        private final int days;
+        private LocalDate from;
+        private LocalDate to;
+
+        ExpiryCondition(int days) { this.days = days; }
+
+        @Override
+        public void prepare(LocalDate today) {
+            from = today;
+            to = today.plusDays(days);
+        }
+
+        @Override
+        public boolean test(Product product) {
+            if (!(product instanceof Perishable perishable)) return false;
+            LocalDate date = perishable.expirationDate();
+            return !date.isBefore(from) && !date.isAfter(to);
+        }
+
+        @Override
+        public String describe() { return "expiring(" + days + "d)"; }
+
+        @Override
+        public int estimate(int limit) { return warehouse.expiryIndex().countBetween(from, to); }
+
+        @Override
+        public Stream<Product> candidates() { return warehouse.expiryIndex().streamExpiringBetween(from, to); }
+    }
+
+    private final class NameCondition implements IndexedCondition {
+        private final String term;
+
+        NameCondition(String term) { this.term = term; }
+
+        @Override
+        public boolean test(Product product) { return NameIndex.normalize(product.name()).contains(term); }
+
+        @Override
+        public String describe() { return "name(" + term + ")"; }
+
+        @Override
+        public int estimate(int limit) {
+            Collection<Product> candidates = warehouse.nameIndex().candidates(term);
+            return candidates == null ? -1 : candidates.size();
+        }
+
+        @Override
+        public Stream<Product> candidates() { return warehouse.nameIndex().candidates(term).stream(); }
+    }
+
+    private record FilterCondition(Predicate<? super Product> predicate) implements Condition {
+        @Override
+        public boolean test(Product product) { return predicate.test(product); }
+
+        @Override
+        public String describe() { return "filter"; }
+    }
+}
@@ -0,0 +1,307 @@
+package com.example;
+
+import java.util.*;
+
+// Persistent hashtrie (HAMT) UUID → Product. Varje ändring kopierar bara vägen från roten
+// till den ändrade noden (högst sju nivåer), så gamla versioner förblir oförändrade och
+// kan läsas samtidigt som nya skapas.
+// En nod är bara en Object[]: plats 0 är en long[] med bitmapparna följda av lövens nycklar
+// (två long per UUID), sedan kommer löven och sist delträden. Uppslagningar jämför alltså
+// primitiver utan att läsa Product eller UUID, och ingen nod har något extra omslagsobjekt.
+final class ProductTrie implements Iterable<Product> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    static final ProductTrie EMPTY = new ProductTrie(new Object[]{new long[]{0L}}, 0);
+
+    private final Object[] root;
+    private final int size;
+
+    private ProductTrie(Object[] root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    Product get(UUID id) {
+        return get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    Product get(long msb, long lsb) {
+        int hash = hash(msb, lsb);
+        Object[] node = root;
+        for (int shift = 0; ; shift += BITS) {
+            long[] keys = (long[]) node[0];
+            if (shift >= Integer.SIZE) {
+                int index = collisionIndex(node, keys, msb, lsb);
+                return index < 0 ? null : (Product) node[1 + index];
+            }
+            int dataMap = dataMap(keys);
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = index(dataMap, bit);
+                return matches(keys, index, msb, lsb) ? (Product) node[1 + index] : null;
+            }
+            int nodeMap = nodeMap(keys);
+            if ((nodeMap & bit) == 0) return null;
+            node = (Object[]) node[1 + Integer.bitCount(dataMap) + index(nodeMap, bit)];
+        }
+    }
+
+    // Ny version där produkten lagts till eller ersatt den med samma id
+    ProductTrie with(Product product) {
+        long msb = product.uuid().getMostSignificantBits();
+        long lsb = product.uuid().getLeastSignificantBits();
+        int delta = get(msb, lsb) == null ? 1 : 0;
+        return new ProductTrie(with(root, product, msb, lsb, hash(msb, lsb), 0), size + delta);
+    }
+
+    // Ny version utan produkten; samma instans om id saknas
+    ProductTrie without(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        if (get(msb, lsb) == null) return this;
+        return new ProductTrie(without(root, msb, lsb, hash(msb, lsb), 0), size - 1);
+    }
+
+    @Override
+    public Iterator<Product> iterator() {
+        return new TrieIterator(root);
+    }
+
+    // Oföränderlig samlingsvy, utan kopiering
+    Collection<Product> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Product> iterator() { return ProductTrie.this.iterator(); }
+
+            @Override
+            public int size() { return size; }
+        };
+    }
+
+    // UUID.hashCode xor:ar bara ihop halvorna; tidsbaserade id:n skiljer sig mest i några få
+    // bitar, så båda halvorna blandas innan de används som väg genom trädet
+    static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L + lsb;
+        h = (h ^ (h >>> 31)) * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static Object[] with(Object[] node, Product product, long msb, long lsb, int hash, int shift) {
+        long[] keys = (long[]) node[0];
+        if (shift >= Integer.SIZE) {
+            // Kollisionsnod: alla har samma 32-bitars hash, löven ligger i en lista
+            int index = collisionIndex(node, keys, msb, lsb);
+            if (index >= 0) return replaceLeaf(node, index, product);
+            return insertLeaf(node, keys[0], node.length - 1, product, msb, lsb);
+        }
+        int dataMap = dataMap(keys);
+        int nodeMap = nodeMap(keys);
+        int bit = bit(hash, shift);
+        if ((dataMap & bit) != 0) {
+            int index = index(dataMap, bit);
+            if (matches(keys, index, msb, lsb)) return replaceLeaf(node, index, product);
+            long existingMsb = keys[1 + 2 * index];
+            long existingLsb = keys[2 + 2 * index];
+            Object[] child = merge((Product) node[1 + index], existingMsb, existingLsb, hash(existingMsb, existingLsb),
+                    product, msb, lsb, hash, shift + BITS);
+            return leafToChild(node, dataMap, nodeMap, bit, index, child);
+        }
+        if ((nodeMap & bit) != 0) {
+            int slot = 1 + Integer.bitCount(dataMap) + index(nodeMap, bit);
+            Object[] copy = node.clone();
+            copy[slot] = with((Object[]) node[slot], product, msb, lsb, hash, shift + BITS);
+            return copy;
+        }
+        return insertLeaf(node, header(dataMap | bit, nodeMap), index(dataMap, bit), product, msb, lsb);
+    }
+
+    private static Object[] without(Object[] node, long msb, long lsb, int hash, int shift) {
+        long[] keys = (long[]) node[0];
+        if (shift >= Integer.SIZE) {
+            int index = collisionIndex(node, keys, msb, lsb);
+            return index < 0 ? node : removeLeaf(node, keys[0], index);
+        }
+        int dataMap = dataMap(keys);
+        int nodeMap = nodeMap(keys);
+        int bit = bit(hash, shift);
+        if ((dataMap & bit) != 0) {
+            int index = index(dataMap, bit);
+            return matches(keys, index, msb, lsb) ? removeLeaf(node, header(dataMap & ~bit, nodeMap), index) : node;
+        }
+        if ((nodeMap & bit) == 0) return node;
+        int slot = 1 + Integer.bitCount(dataMap) + index(nodeMap, bit);
+        Object[] child = without((Object[]) node[slot], msb, lsb, hash, shift + BITS);
+        if (child == node[slot]) return node;
+        // Ett delträd med ett enda löv lyfts upp en nivå
+        if (child.length == 2 && child[1] instanceof Product) {
+            return childToLeaf(node, dataMap, nodeMap, bit, slot, child);
+        }
+        Object[] copy = node.clone();
+        copy[slot] = child;
+        return copy;
+    }
+
+    private static Object[] merge(Product first, long firstMsb, long firstLsb, int firstHash,
+                                  Product second, long secondMsb, long secondLsb, int secondHash, int shift) {
+        if (shift >= Integer.SIZE) {
+            return new Object[]{new long[]{0L, firstMsb, firstLsb, secondMsb, secondLsb}, first, second};
+        }
+        int firstBits = (firstHash >>> shift) & MASK;
+        int secondBits = (secondHash >>> shift) & MASK;
+        if (firstBits == secondBits) {
+            Object[] child = merge(first, firstMsb, firstLsb, firstHash, second, secondMsb, secondLsb, secondHash, shift + BITS);
+            return new Object[]{new long[]{header(0, 1 << firstBits)}, child};
+        }
+        long header = header((1 << firstBits) | (1 << secondBits), 0);
+        return firstBits < secondBits
+                ? new Object[]{new long[]{header, firstMsb, firstLsb, secondMsb, secondLsb}, first, second}
+                : new Object[]{new long[]{header, secondMsb, secondLsb, firstMsb, firstLsb}, second, first};
+    }
+
+    // Nyckelarrayen delas mellan versioner så länge löven inte flyttas
+    private static Object[] replaceLeaf(Object[] node, int index, Product product) {
+        Object[] copy = node.clone();
+        copy[1 + index] = product;
+        return copy;
+    }
+
+    private static Object[] insertLeaf(Object[] node, long header, int index, Product product, long msb, long lsb) {
+        long[] keys = (long[]) node[0];
+        long[] newKeys = new long[keys.length + 2];
+        newKeys[0] = header;
+        System.arraycopy(keys, 1, newKeys, 1, 2 * index);
+        newKeys[1 + 2 * index] = msb;
+        newKeys[2 + 2 * index] = lsb;
+        System.arraycopy(keys, 1 + 2 * index, newKeys, 3 + 2 * index, keys.length - 1 - 2 * index);
+
+        Object[] copy = new Object[node.length + 1];
+        copy[0] = newKeys;
+        System.arraycopy(node, 1, copy, 1, index);
+        copy[1 + index] = product;
+        System.arraycopy(node, 1 + index, copy, 2 + index, node.length - 1 - index);
+        return copy;
+    }
+
+    private static Object[] removeLeaf(Object[] node, long header, int index) {
+        long[] keys = (long[]) node[0];
+        long[] newKeys = new long[keys.length - 2];
+        newKeys[0] = header;
+        System.arraycopy(keys, 1, newKeys, 1, 2 * index);
+        System.arraycopy(keys, 3 + 2 * index, newKeys, 1 + 2 * index, keys.length - 3 - 2 * index);
+
+        Object[] copy = new Object[node.length - 1];
+        copy[0] = newKeys;
+        System.arraycopy(node, 1, copy, 1, index);
+        System.arraycopy(node, 2 + index, copy, 1 + index, node.length - 2 - index);
+        return copy;
+    }
+
+    // Lövet på plats index ersätts av ett delträd, som hamnar bland delträden i bitordning
+    private static Object[] leafToChild(Object[] node, int dataMap, int nodeMap, int bit, int index, Object[] child) {
+        Object[] copy = removeLeaf(node, header(dataMap & ~bit, nodeMap | bit), index);
+        int slot = Integer.bitCount(dataMap); // = 1 + antal löv efter borttagningen
+        int childSlot = slot + index(nodeMap, bit);
+        Object[] result = new Object[copy.length + 1];
+        System.arraycopy(copy, 0, result, 0, childSlot);
+        result[childSlot] = child;
+        System.arraycopy(copy, childSlot, result, childSlot + 1, copy.length - childSlot);
+        return result;
+    }
+
+    private static Object[] childToLeaf(Object[] node, int dataMap, int nodeMap, int bit, int slot, Object[] child) {
+        Object[] copy = new Object[node.length - 1];
+        System.arraycopy(node, 0, copy, 0, slot);
+        System.arraycopy(node, slot + 1, copy, slot, node.length - slot - 1);
+        long[] childKeys = (long[]) child[0];
+        return insertLeaf(copy, header(dataMap | bit, nodeMap & ~bit), index(dataMap, bit),
+                (Product) child[1], childKeys[1], childKeys[2]);
+    }
+
+    private static int collisionIndex(Object[] node, long[] keys, long msb, long lsb) {
+        for (int i = 0; i < node.length - 1; i++) {
+            if (matches(keys, i, msb, lsb)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean matches(long[] keys, int index, long msb, long lsb) {
+        return keys[1 + 2 * index] == msb && keys[2 + 2 * index] == lsb;
+    }
+
+    // Bitmapparna packas i första long: löven i de övre 32 bitarna, delträden i de undre
+    private static long header(int dataMap, int nodeMap) {
+        return ((long) dataMap << Integer.SIZE) | (nodeMap & 0xFFFFFFFFL);
+    }
+
+    private static int dataMap(long[] keys) {
+        return (int) (keys[0] >>> Integer.SIZE);
+    }
+
+    private static int nodeMap(long[] keys) {
+        return (int) keys[0];
+    }
+
+    private static int index(int map, int bit) {
+        return Integer.bitCount(map & (bit - 1));
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    // Djupet-först genom trädet med en explicit stack av (nod, position)
+    private static final class TrieIterator implements Iterator<Product> {
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Product next;
+
+        TrieIterator(Object[] root) {
+            arrays.push(root);
+            positions.push(1);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Product next() {
+            if (next == null) throw new NoSuchElementException();
+            Product current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (!arrays.isEmpty()) {
+                Object[] slots = arrays.peek();
+                int position = positions.pop();
+                if (position >= slots.length) {
+                    arrays.pop();
+                    continue;
+                }
+                positions.push(position + 1);
+                Object slot = slots[position];
+                if (slot instanceof Object[] child) {
+                    arrays.push(child);
+                    positions.push(1);
+                } else {
+                    next = (Product) slot;
+                    return;
+                }
+            }
+        }
+    }
+}
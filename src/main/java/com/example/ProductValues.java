@@ -0,0 +1,70 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Flyweights för produktfält, som Category.CACHE: samma namn delar en String-instans och
+// vanliga belopp delar en BigDecimal. Produkterna lagrar själva bara primitiva tal.
+final class ProductValues {
+    // Taket skyddar mot att unika namn växer utan gräns; namn efter det sparas som de är
+    private static final int MAX_NAMES = 1 << 16;
+    private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+
+    // Cachade belopp per skala 0-3, upp till 1 310,71 med två decimaler; raderna skapas vid behov
+    private static final int MAX_CACHED_SCALE = 3;
+    private static final int CACHED_VALUES = 1 << 17;
+    private static final AtomicReferenceArray<AtomicReferenceArray<BigDecimal>> DECIMALS =
+            new AtomicReferenceArray<>(MAX_CACHED_SCALE + 1);
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private ProductValues() {
+    }
+
+    static String name(String name) {
+        String canonical = NAMES.get(name);
+        if (canonical != null) return canonical;
+        if (NAMES.size() >= MAX_NAMES) return name;
+        canonical = NAMES.putIfAbsent(name, name);
+        return canonical == null ? name : canonical;
+    }
+
+    // Ohyggligt stora eller exakta tal som inte ryms i en long avvisas hellre än avrundas
+    static long unscaled(BigDecimal value, String field) {
+        try {
+            return value.unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(field + " is too large.");
+        }
+    }
+
+    static BigDecimal decimal(long unscaled, int scale) {
+        if (scale < 0 || scale > MAX_CACHED_SCALE || unscaled < 0 || unscaled >= CACHED_VALUES) {
+            return BigDecimal.valueOf(unscaled, scale);
+        }
+        AtomicReferenceArray<BigDecimal> row = DECIMALS.get(scale);
+        if (row == null) {
+            DECIMALS.compareAndSet(scale, null, new AtomicReferenceArray<>(CACHED_VALUES));
+            row = DECIMALS.get(scale);
+        }
+        int index = (int) unscaled;
+        BigDecimal value = row.get(index);
+        if (value == null) {
+            value = BigDecimal.valueOf(unscaled, scale);
+            row.set(index, value);
+        }
+        return value;
+    }
+
+    // Samma värde som decimal(unscaled, scale).doubleValue(): när både täljare och tiopotens
+    // är exakta som double ger en enda division samma korrekt avrundade svar
+    static double toDouble(long unscaled, int scale) {
+        if (scale >= 0 && scale < POWERS_OF_TEN.length && Math.abs(unscaled) < (1L << 53)) {
+            return unscaled / POWERS_OF_TEN[scale];
+        }
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+}
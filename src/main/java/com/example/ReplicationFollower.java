@@ -0,0 +1,125 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Följarsidan av replikeringen: läser ramar från en ReplicationSource och för in dem i ett eget
+// Warehouse, som sedan kan läsas och analyseras som vanligt. En ögonblicksbild ersätter hela
+// innehållet; en ändringsram förs in som en ny version. Ändringar som redan ingår i den senaste
+// ögonblicksbilden (enligt ledarens version) hoppas över. Klocka, rabattregler och frakttaxor
+// replikeras inte. Följarlagret ska bara läsas; egna ändringar skrivs över av nästa ögonblicksbild.
+public final class ReplicationFollower implements AutoCloseable {
+    private final Warehouse follower;
+    private final ReadableByteChannel channel;
+    private final Thread reader;
+    private final Object progress = new Object();
+    private volatile long appliedVersion = -1;
+    private volatile long framesApplied;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private volatile boolean stopped;
+
+    private ReplicationFollower(Warehouse follower, ReadableByteChannel channel) {
+        this.follower = follower;
+        this.channel = channel;
+        this.reader = Thread.ofVirtual().name("replication-follower-" + follower.getName()).unstarted(this::run);
+    }
+
+    public static ReplicationFollower start(Warehouse follower, ReadableByteChannel channel) {
+        if (follower == null) { throw new IllegalArgumentException("Warehouse cannot be null."); }
+        if (channel == null) { throw new IllegalArgumentException("Channel cannot be null."); }
+        ReplicationFollower replication = new ReplicationFollower(follower, channel);
+        replication.reader.start();
+        return replication;
+    }
+
+    // Ledarens version för det senast införda; -1 före första ögonblicksbilden
+    public long appliedVersion() {
+        return appliedVersion;
+    }
+
+    public long framesApplied() {
+        return framesApplied;
+    }
+
+    public boolean isRunning() {
+        return !stopped;
+    }
+
+    public Throwable failure() {
+        return failure;
+    }
+
+    // Väntar tills ledarens version har förts in; false om tiden gick ut eller replikeringen stannade.
+    // Versioner utan lageränding (dygnsskifte, nya regler) skickas inte och kan inte inväntas.
+    public boolean awaitVersion(long version, Duration timeout) throws InterruptedException {
+        if (timeout == null || timeout.isNegative()) { throw new IllegalArgumentException("Timeout cannot be null or negative."); }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            while (appliedVersion < version) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || stopped) return false;
+                progress.wait(Math.max(1, remaining / 1_000_000));
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        reader.interrupt();
+        channel.close();
+    }
+
+    private void run() {
+        long expectedSequence = 0;
+        long snapshotVersion = -1;
+        try {
+            ReplicationProtocol.Frame frame;
+            while (!closed && (frame = ReplicationProtocol.read(channel)) != null) {
+                if (frame.sequence() != expectedSequence) {
+                    throw new IllegalStateException("Replication sequence gap: expected " + expectedSequence + ", was " + frame.sequence());
+                }
+                expectedSequence++;
+                switch (frame.type()) {
+                    case ReplicationProtocol.SNAPSHOT -> {
+                        follower.replaceAll(ReplicationProtocol.readSnapshot(frame.payload()));
+                        snapshotVersion = frame.version();
+                    }
+                    case ReplicationProtocol.CHANGES ->
+                            follower.applyReplicated(newerThan(snapshotVersion, ReplicationProtocol.readChanges(frame.payload())));
+                    default -> throw new IllegalStateException("Unknown replication frame type: " + frame.type());
+                }
+                advance(frame.version());
+            }
+        } catch (Throwable e) {
+            if (!closed) failure = e;
+        } finally {
+            synchronized (progress) {
+                stopped = true;
+                progress.notifyAll();
+            }
+        }
+    }
+
+    // Publiceraren levererar ändringar i versionsordning, så bara de som redan ingår i ögonblicksbilden kan komma igen
+    private static List<InventoryChange> newerThan(long snapshotVersion, List<InventoryChange> changes) {
+        List<InventoryChange> newer = new ArrayList<>(changes.size());
+        for (InventoryChange change : changes) {
+            if (change.version() > snapshotVersion) newer.add(change);
+        }
+        return newer;
+    }
+
+    private void advance(long version) {
+        synchronized (progress) {
+            appliedVersion = Math.max(appliedVersion, version);
+            framesApplied++;
+            progress.notifyAll();
+        }
+    }
+}
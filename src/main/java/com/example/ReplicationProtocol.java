@@ -0,0 +1,128 @@
+package com.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+
+// Ramformat för replikering mellan lager (big-endian):
+//
+//   int längd på resten av ramen, byte typ, long sekvensnummer, long ledarens version
+//   SNAPSHOT: hela lagret som en ProductCodec-ström
+//   CHANGES:  int antal, per ändring: byte ändringstyp, 16 byte UUID, long version;
+//             därefter en ProductCodec-ström med produkterna för tillägg och prisändringar, i samma ordning
+//
+// Sekvensnumren ökar med ett per ram, så att mottagaren märker om något saknas.
+final class ReplicationProtocol {
+    static final byte SNAPSHOT = 1;
+    static final byte CHANGES = 2;
+    // Typ, sekvensnummer och version
+    static final int FRAME_HEADER_BYTES = 1 + 8 + 8;
+    static final int MAX_FRAME_BYTES = Integer.MAX_VALUE - Integer.BYTES;
+    private static final int CHANGE_BYTES = 1 + 16 + 8;
+
+    private ReplicationProtocol() {
+    }
+
+    record Frame(byte type, long sequence, long version, ByteBuffer payload) {
+    }
+
+    static void writeSnapshot(WritableByteChannel channel, long sequence, long version, Collection<Product> products) throws IOException {
+        int payload = ProductCodec.encodedSize(products);
+        ByteBuffer frame = header(SNAPSHOT, sequence, version, payload);
+        ProductCodec.encode(products, frame);
+        write(channel, frame.flip());
+    }
+
+    static void writeChanges(WritableByteChannel channel, long sequence, long version, List<InventoryChange> changes) throws IOException {
+        List<Product> products = new ArrayList<>(changes.size());
+        for (InventoryChange change : changes) {
+            if (change.type() != InventoryChange.Type.REMOVED) products.add(change.product());
+        }
+        int payload = Integer.BYTES + changes.size() * CHANGE_BYTES + ProductCodec.encodedSize(products);
+        ByteBuffer frame = header(CHANGES, sequence, version, payload);
+        frame.putInt(changes.size());
+        for (InventoryChange change : changes) {
+            frame.put((byte) change.type().ordinal())
+                    .putLong(change.productId().getMostSignificantBits())
+                    .putLong(change.productId().getLeastSignificantBits())
+                    .putLong(change.version());
+        }
+        ProductCodec.encode(products, frame);
+        write(channel, frame.flip());
+    }
+
+    // Nästa ram, eller null om strömmen tog slut mellan två ramar
+    static Frame read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        if (!fill(channel, length, true)) return null;
+        int size = length.flip().getInt();
+        if (size < FRAME_HEADER_BYTES || size > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid replication frame length: " + size);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(size);
+        fill(channel, frame, false);
+        frame.flip();
+        return new Frame(frame.get(), frame.getLong(), frame.getLong(), frame.slice());
+    }
+
+    static List<Product> readSnapshot(ByteBuffer payload) {
+        return ProductCodec.decode(payload);
+    }
+
+    static List<InventoryChange> readChanges(ByteBuffer payload) {
+        InventoryChange.Type[] types = InventoryChange.Type.values();
+        int count = payload.getInt();
+        if (count < 0 || count > payload.remaining() / CHANGE_BYTES) {
+            throw new IllegalArgumentException("Invalid change count: " + count);
+        }
+        InventoryChange.Type[] changeTypes = new InventoryChange.Type[count];
+        UUID[] ids = new UUID[count];
+        long[] versions = new long[count];
+        for (int i = 0; i < count; i++) {
+            int type = payload.get();
+            if (type < 0 || type >= types.length) { throw new IllegalArgumentException("Unknown change type: " + type); }
+            changeTypes[i] = types[type];
+            ids[i] = new UUID(payload.getLong(), payload.getLong());
+            versions[i] = payload.getLong();
+        }
+        Iterator<Product> products = ProductCodec.decode(payload).iterator();
+        List<InventoryChange> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = null;
+            if (changeTypes[i] != InventoryChange.Type.REMOVED) {
+                if (!products.hasNext()) { throw new IllegalArgumentException("Missing product for change " + ids[i]); }
+                product = products.next();
+            }
+            changes.add(new InventoryChange(changeTypes[i], ids[i], product, versions[i]));
+        }
+        return changes;
+    }
+
+    private static ByteBuffer header(byte type, long sequence, long version, int payload) {
+        if (payload > MAX_FRAME_BYTES - FRAME_HEADER_BYTES) {
+            throw new IllegalArgumentException("Replication frame is too large.");
+        }
+        int size = FRAME_HEADER_BYTES + payload;
+        return ByteBuffer.allocate(Integer.BYTES + size).putInt(size).put(type).putLong(sequence).putLong(version);
+    }
+
+    private static void write(WritableByteChannel channel, ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    // Läser tills bufferten är full; slut på strömmen före första byten är tillåtet bara om allowEnd
+    private static boolean fill(ReadableByteChannel channel, ByteBuffer buffer, boolean allowEnd) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (allowEnd && buffer.position() == 0) return false;
+                throw new EOFException("Replication stream ended inside a frame.");
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Ledarsidan av replikeringen: skickar lagrets ändringar som numrerade ramar till en följare över
+// en blockerande kanal, t.ex. en SocketChannel, en Unix-socket eller en Pipe. Först skickas en
+// ögonblicksbild med även produkterna på disk, sedan ändringarna i batchar via lagrets
+// InventoryChangePublisher. Följaren styr takten: nästa batch begärs först när föregående ram är
+// skriven. Hinner följaren inte med blir prenumerantens buffert full, publiceraren ersätter den med
+// en RESET och en ny ögonblicksbild skickas; eftersläpningen är därmed begränsad till buffertens storlek.
+public final class ReplicationSource implements AutoCloseable {
+    private final Warehouse leader;
+    private final WritableByteChannel channel;
+    // Högst en batch i taget, eftersom nästa begärs först när den förra är skriven
+    private final BlockingQueue<List<InventoryChange>> batches = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile Flow.Subscription subscription;
+    private volatile long sentVersion = -1;
+    private volatile long snapshotsSent;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private long nextSequence;
+
+    private ReplicationSource(Warehouse leader, WritableByteChannel channel) {
+        this.leader = leader;
+        this.channel = channel;
+        this.writer = Thread.ofVirtual().name("replication-source-" + leader.getName()).unstarted(this::run);
+    }
+
+    public static ReplicationSource start(Warehouse leader, WritableByteChannel channel) {
+        return start(leader, channel, InventoryChangePublisher.DEFAULT_BUFFER_CAPACITY, InventoryChangePublisher.DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    // maxPendingChanges: hur många produkter som får vänta innan följaren hämtar ikapp via en ny
+    // ögonblicksbild; maxBatchSize: högsta antal ändringar per ram
+    public static ReplicationSource start(Warehouse leader, WritableByteChannel channel, int maxPendingChanges, int maxBatchSize) {
+        if (leader == null) { throw new IllegalArgumentException("Warehouse cannot be null."); }
+        if (channel == null) { throw new IllegalArgumentException("Channel cannot be null."); }
+        ReplicationSource source = new ReplicationSource(leader, channel);
+        // Prenumerationen startas före ögonblicksbilden; ändringar som redan ingår i bilden hoppas över av följaren
+        leader.changes().subscribe(source.new Forwarder(), maxPendingChanges, maxBatchSize);
+        source.writer.start();
+        return source;
+    }
+
+    // Ledarens version för det senast skickade
+    public long sentVersion() {
+        return sentVersion;
+    }
+
+    // Antal ögonblicksbilder, den första inräknad
+    public long snapshotsSent() {
+        return snapshotsSent;
+    }
+
+    public boolean isRunning() {
+        return writer.isAlive();
+    }
+
+    public Throwable failure() {
+        return failure;
+    }
+
+    // Slutar skicka och stänger kanalen, så att följaren ser slutet på strömmen
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Flow.Subscription current = subscription;
+        if (current != null) current.cancel();
+        writer.interrupt();
+        channel.close();
+    }
+
+    private void run() {
+        try {
+            sendSnapshot();
+            subscription.request(1);
+            while (!closed) {
+                List<InventoryChange> batch = batches.take();
+                if (batch.getFirst().type() == InventoryChange.Type.RESET) {
+                    sendSnapshot();
+                } else {
+                    long version = 0;
+                    for (InventoryChange change : batch) {
+                        version = Math.max(version, change.version());
+                    }
+                    ReplicationProtocol.writeChanges(channel, nextSequence++, version, batch);
+                    sentVersion = Math.max(sentVersion, version);
+                }
+                subscription.request(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            if (!closed) fail(e);
+        }
+    }
+
+    private void sendSnapshot() throws IOException {
+        Warehouse.Contents contents = leader.contents();
+        ReplicationProtocol.writeSnapshot(channel, nextSequence++, contents.version(), contents.products());
+        sentVersion = contents.version();
+        snapshotsSent++;
+    }
+
+    private void fail(Throwable error) {
+        failure = error;
+        closed = true;
+        Flow.Subscription current = subscription;
+        if (current != null) current.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    private final class Forwarder implements Flow.Subscriber<List<InventoryChange>> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            ReplicationSource.this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(List<InventoryChange> batch) {
+            batches.add(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+            writer.interrupt();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example;
+
+import com.example.WarehouseMetrics.Operation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Analysresultat per (operation, argument, version), med LRU-utträngning över ett fast antal poster.
+// Versionen ökar vid varje ändring av lagret, så en ändring gör exakt de äldre resultaten oåtkomliga;
+// ögonblicksbilder med samma version delar posterna med sitt lager.
+final class ResultCache {
+    static final int DEFAULT_CAPACITY = 256;
+
+    record Key(Operation operation, Object argument, long version) { }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Object> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ResultCache(int capacity) {
+        if (capacity <= 0) { throw new IllegalArgumentException("Cache capacity must be positive."); }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > ResultCache.this.capacity;
+            }
+        };
+    }
+
+    // null om resultatet saknas
+    synchronized Object get(Key key) {
+        Object value = entries.get(key);
+        if (value == null) misses.increment();
+        else hits.increment();
+        return value;
+    }
+
+    synchronized void put(Key key, Object value) {
+        entries.put(key, value);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+}
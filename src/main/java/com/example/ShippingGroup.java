@@ -0,0 +1,36 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Represents a group of products for shipping
+ */
+class ShippingGroup {
+    private final List<Shippable> products;
+    private final Double totalWeight;
+    private final BigDecimal totalShippingCost;
+
+    public ShippingGroup(List<Shippable> products) {
+        this(products, Shippable::calculateShippingCost);
+    }
+
+    // Vikt och kostnad summeras i samma svep; kostnaden hämtas från lagrets förberäknade taxor
+    ShippingGroup(List<Shippable> products, Function<? super Shippable, BigDecimal> shippingCost) {
+        this.products = new ArrayList<>(products);
+        double weight = 0.0;
+        BigDecimal cost = BigDecimal.ZERO;
+        for (Shippable product : products) {
+            weight += product.weight();
+            cost = cost.add(shippingCost.apply(product));
+        }
+        this.totalWeight = weight;
+        this.totalShippingCost = cost;
+    }
+
+    public List<Shippable> getProducts() { return new ArrayList<>(products); }
+    public Double getTotalWeight() { return totalWeight; }
+    public BigDecimal getTotalShippingCost() { return totalShippingCost; }
+}
@@ -0,0 +1,263 @@
+package com.example;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Lokal sökning som förbättrar en packning av fraktgrupper inom en tidsbudget. Varje försök
+// tömmer en av de lättaste grupperna och försöker få plats med dess varor i de övriga genom
+// flyttar och byten; lyckas det finns en grupp färre. Misslyckas det flyttas varor mellan par
+// av grupper så att den fullare blir fullare (summan av kvadrerade vikter ökar), vilket samlar
+// ledigt utrymme i de lätta grupperna till nästa försök. Fraktkostnaden är summan av varornas
+// kostnader och påverkas inte av grupperingen, så antalet grupper är det som optimeras.
+final class ShippingGroupSearch {
+    // Ett försök ger upp efter så många byten utan att kön tömts
+    private static final int MAX_SWAPS = 1_000;
+    private static final int LIGHTEST_CANDIDATES = 3;
+    private static final int CONSOLIDATION_ROUNDS = 64;
+
+    private final Shippable[] items;
+    private final double[] weights;
+    private final double maxWeight;
+    private final int lowerBound;
+
+    private ShippingGroupSearch(List<List<Shippable>> groups, double maxWeight) {
+        this.items = groups.stream().flatMap(List::stream).toArray(Shippable[]::new);
+        this.weights = new double[items.length];
+        this.maxWeight = maxWeight;
+        int oversized = 0;
+        double fitting = 0.0;
+        for (int i = 0; i < items.length; i++) {
+            weights[i] = items[i].weight();
+            if (weights[i] > maxWeight) oversized++;
+            else fitting += weights[i];
+        }
+        // Ingen packning kan ha färre grupper; nås gränsen avbryts sökningen direkt
+        this.lowerBound = oversized + (int) Math.ceil(fitting / maxWeight - 1e-9);
+    }
+
+    // Bästa packning som hittats före deadline (System.nanoTime); startpackningen om inget bättre hittas
+    static List<List<Shippable>> improve(List<List<Shippable>> groups, double maxWeight, long deadline, int parallelism) {
+        if (parallelism < 1) { throw new IllegalArgumentException("Parallelism must be at least 1."); }
+        ShippingGroupSearch search = new ShippingGroupSearch(groups, maxWeight);
+        AtomicReference<Packing> best = new AtomicReference<>(search.initial(groups));
+        // Hjälptrådarna väntas inte in: de slutar själva vid deadline och anroparen svarar i tid
+        for (int i = 1; i < parallelism; i++) {
+            CompletableFuture.runAsync(() -> search.run(best, deadline));
+        }
+        search.run(best, deadline);
+        return search.toGroups(best.get());
+    }
+
+    private void run(AtomicReference<Packing> best, long deadline) {
+        Random random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            Packing current = best.get();
+            if (current.bins.size() <= lowerBound) return;
+            Packing candidate = eliminateOneBin(current, random, deadline);
+            if (candidate == null) candidate = consolidate(current, random);
+            if (candidate != null) best.accumulateAndGet(candidate, ShippingGroupSearch::better);
+        }
+    }
+
+    private Packing initial(List<List<Shippable>> groups) {
+        List<List<Integer>> bins = new ArrayList<>();
+        int next = 0;
+        for (List<Shippable> group : groups) {
+            List<Integer> bin = new ArrayList<>();
+            for (int i = 0; i < group.size(); i++) bin.add(next++);
+            bins.add(bin);
+        }
+        return packing(bins);
+    }
+
+    // Färre grupper vinner; vid lika många den med mest ojämnt fördelad vikt
+    private static Packing better(Packing current, Packing candidate) {
+        if (candidate.bins.size() != current.bins.size()) {
+            return candidate.bins.size() < current.bins.size() ? candidate : current;
+        }
+        return candidate.spread > current.spread ? candidate : current;
+    }
+
+    // Ny packning med en grupp färre, eller null om försöket misslyckades
+    private Packing eliminateOneBin(Packing current, Random random, long deadline) {
+        List<List<Integer>> bins = new ArrayList<>(current.bins.size());
+        current.bins.forEach(bin -> bins.add(new ArrayList<>(bin)));
+        double[] loads = new double[bins.size()];
+        for (int b = 0; b < bins.size(); b++) loads[b] = load(bins.get(b));
+
+        int emptied = pickLightBin(loads, random);
+        List<Integer> pool = bins.remove(emptied);
+        if (bins.isEmpty() || pool.stream().anyMatch(item -> weights[item] > maxWeight)) return null;
+        loads = removeAt(loads, emptied);
+
+        for (int swaps = 0; swaps < MAX_SWAPS && System.nanoTime() < deadline; swaps++) {
+            placeAll(pool, bins, loads);
+            if (pool.isEmpty()) return packing(bins);
+            if (!swapIntoBins(pool, bins, loads, random)) return null;
+        }
+        return null;
+    }
+
+    // Varje vara i kön läggs i den fullaste grupp där den ryms (best fit), tyngst först
+    private void placeAll(List<Integer> pool, List<List<Integer>> bins, double[] loads) {
+        pool.sort(Comparator.comparingDouble((Integer item) -> weights[item]).reversed());
+        for (Iterator<Integer> it = pool.iterator(); it.hasNext(); ) {
+            int item = it.next();
+            int bestBin = -1;
+            for (int b = 0; b < bins.size(); b++) {
+                if (loads[b] + weights[item] <= maxWeight && (bestBin < 0 || loads[b] > loads[bestBin])) bestBin = b;
+            }
+            if (bestBin >= 0) {
+                bins.get(bestBin).add(item);
+                loads[bestBin] = load(bins.get(bestBin));
+                it.remove();
+            }
+        }
+    }
+
+    // Byter en vara i kön mot en eller två lättare varor i en grupp. Köns vikt minskar vid varje
+    // byte, så sökningen kan inte gå i cirklar och lättare varor är lättare att få plats med.
+    private boolean swapIntoBins(List<Integer> pool, List<List<Integer>> bins, double[] loads, Random random) {
+        int poolIndex = random.nextInt(pool.size());
+        int incoming = pool.get(poolIndex);
+        double weight = weights[incoming];
+        int start = random.nextInt(bins.size());
+        for (int offset = 0; offset < bins.size(); offset++) {
+            int b = (start + offset) % bins.size();
+            List<Integer> bin = bins.get(b);
+            int[] outgoing = bestSwap(bin, loads[b], weight);
+            if (outgoing == null) continue;
+            pool.remove(poolIndex);
+            for (int i = outgoing.length - 1; i >= 0; i--) pool.add(bin.remove(outgoing[i]));
+            bin.add(incoming);
+            loads[b] = load(bin);
+            return loads[b] <= maxWeight;
+        }
+        return false;
+    }
+
+    // Positioner (stigande) för den tyngsta enkel- eller parvisa uppsättning som är lättare än
+    // den inkommande varan och gör plats för den; null om ingen finns
+    private int[] bestSwap(List<Integer> bin, double load, double incoming) {
+        int[] best = null;
+        double bestWeight = -1.0;
+        for (int i = 0; i < bin.size(); i++) {
+            double wi = weights[bin.get(i)];
+            if (wi < incoming && wi > bestWeight && load - wi + incoming <= maxWeight) {
+                best = new int[]{i};
+                bestWeight = wi;
+            }
+            for (int j = i + 1; j < bin.size(); j++) {
+                double pair = wi + weights[bin.get(j)];
+                if (pair < incoming && pair > bestWeight && load - pair + incoming <= maxWeight) {
+                    best = new int[]{i, j};
+                    bestWeight = pair;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Flyttar en vara, eller byter två, mellan slumpvisa par av grupper så att den fullare gruppen
+    // får mer vikt; null om inget par gick att förbättra
+    private Packing consolidate(Packing current, Random random) {
+        List<List<Integer>> bins = new ArrayList<>(current.bins.size());
+        current.bins.forEach(bin -> bins.add(new ArrayList<>(bin)));
+        boolean improved = false;
+        for (int round = 0; round < CONSOLIDATION_ROUNDS && bins.size() > 1; round++) {
+            int fuller = random.nextInt(bins.size());
+            int lighter = random.nextInt(bins.size());
+            if (fuller == lighter) continue;
+            if (load(bins.get(fuller)) < load(bins.get(lighter))) {
+                int tmp = fuller;
+                fuller = lighter;
+                lighter = tmp;
+            }
+            if (shiftWeight(bins.get(fuller), bins.get(lighter))) {
+                improved = true;
+                if (bins.get(lighter).isEmpty()) bins.remove(lighter);
+            }
+        }
+        return improved ? packing(bins) : null;
+    }
+
+    // Största viktökning för target: en vara från source, eller ett byte där target får den tyngre
+    private boolean shiftWeight(List<Integer> target, List<Integer> source) {
+        double targetLoad = load(target);
+        double bestGain = 0.0;
+        int moveIn = -1;
+        int moveOut = -1;
+        for (int j = 0; j < source.size(); j++) {
+            double in = weights[source.get(j)];
+            if (in > bestGain && targetLoad + in <= maxWeight) {
+                bestGain = in;
+                moveIn = j;
+                moveOut = -1;
+            }
+            for (int i = 0; i < target.size(); i++) {
+                double gain = in - weights[target.get(i)];
+                if (gain > bestGain && targetLoad + gain <= maxWeight) {
+                    bestGain = gain;
+                    moveIn = j;
+                    moveOut = i;
+                }
+            }
+        }
+        if (moveIn < 0) return false;
+        int incoming = source.remove(moveIn);
+        if (moveOut >= 0) source.add(target.remove(moveOut));
+        target.add(incoming);
+        // Summan räknas om i gruppens ordning; avrundning får aldrig ge en för tung grupp
+        if (load(target) <= maxWeight) return true;
+        target.remove(target.size() - 1);
+        if (moveOut >= 0) target.add(source.remove(source.size() - 1));
+        source.add(incoming);
+        return false;
+    }
+
+    // Slumpvis bland de lättaste grupperna, så att parallella försök inte alla tömmer samma grupp
+    private static int pickLightBin(double[] loads, Random random) {
+        Integer[] order = new Integer[loads.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble(i -> loads[i]));
+        return order[random.nextInt(Math.min(LIGHTEST_CANDIDATES, order.length))];
+    }
+
+    private double load(List<Integer> bin) {
+        double sum = 0.0;
+        for (int item : bin) sum += weights[item];
+        return sum;
+    }
+
+    private static double[] removeAt(double[] values, int index) {
+        double[] copy = new double[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        System.arraycopy(values, index + 1, copy, index, values.length - index - 1);
+        return copy;
+    }
+
+    private Packing packing(List<List<Integer>> bins) {
+        double spread = 0.0;
+        for (List<Integer> bin : bins) {
+            double load = load(bin);
+            spread += load * load;
+        }
+        return new Packing(bins, spread);
+    }
+
+    private List<List<Shippable>> toGroups(Packing packing) {
+        List<List<Shippable>> groups = new ArrayList<>(packing.bins.size());
+        for (List<Integer> bin : packing.bins) {
+            List<Shippable> group = new ArrayList<>(bin.size());
+            for (int item : bin) group.add(items[item]);
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    // Oföränderlig när den väl publicerats; försök arbetar på egna kopior
+    private record Packing(List<List<Integer>> bins, double spread) {
+    }
+}
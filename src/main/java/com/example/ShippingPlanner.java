@@ -0,0 +1,176 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+// Fraktgrupper som hålls uppdaterade medan lagret ändras, istället för att packas om från
+// början. En ny vara läggs i den öppna grupp med minst ledigt utrymme där den ryms (best fit),
+// hittad i en TreeSet ordnad på vikt: O(log grupper) per ändring. En grupp stängs när högst
+// stängningsmarginalen återstår och öppnas igen om en vara tas bort ur den.
+public final class ShippingPlanner implements AutoCloseable {
+    private final Warehouse warehouse;
+    private final double maxWeight;
+    private final double closingMargin;
+
+    private final Map<UUID, Group> groupById = new HashMap<>();
+    private final NavigableSet<Group> open = new TreeSet<>(
+            Comparator.comparingDouble(Group::load).thenComparingLong(Group::sequence));
+    private final Set<Group> closed = new LinkedHashSet<>();
+    private final InventoryIndex tracker = new Tracker();
+    private long nextSequence;
+
+    ShippingPlanner(Warehouse warehouse, BigDecimal maxWeightPerGroup, BigDecimal closingMargin) {
+        if (maxWeightPerGroup == null || maxWeightPerGroup.signum() <= 0) {
+            throw new IllegalArgumentException("Max weight per group must be positive.");
+        }
+        if (closingMargin == null || closingMargin.signum() < 0 || closingMargin.compareTo(maxWeightPerGroup) >= 0) {
+            throw new IllegalArgumentException("Closing margin must be at least zero and below the max weight.");
+        }
+        this.warehouse = warehouse;
+        this.maxWeight = maxWeightPerGroup.doubleValue();
+        this.closingMargin = closingMargin.doubleValue();
+    }
+
+    InventoryIndex tracker() {
+        return tracker;
+    }
+
+    // Grupper som fortfarande tar emot varor, mest ledigt utrymme först
+    public synchronized List<ShippingGroup> openGroups() {
+        List<ShippingGroup> groups = new ArrayList<>(open.size());
+        open.forEach(group -> groups.add(group.toShippingGroup()));
+        return groups;
+    }
+
+    // Fulla grupper i den ordning de stängdes
+    public synchronized List<ShippingGroup> closedGroups() {
+        List<ShippingGroup> groups = new ArrayList<>(closed.size());
+        closed.forEach(group -> groups.add(group.toShippingGroup()));
+        return groups;
+    }
+
+    public synchronized int groupCount() {
+        return open.size() + closed.size();
+    }
+
+    // Slutar följa lagret; grupperna står kvar som de var
+    @Override
+    public void close() {
+        warehouse.detach(tracker);
+    }
+
+    private synchronized void add(Product product, Shippable shippable) {
+        UUID id = product.uuid();
+        double weight = shippable.weight();
+        Group group = weight > maxWeight ? null : bestFit(weight);
+        if (group == null) {
+            group = new Group(nextSequence++);
+        } else {
+            open.remove(group);
+        }
+        group.items.put(id, shippable);
+        group.load += weight;
+        groupById.put(id, group);
+        file(group);
+    }
+
+    // Tyngsta öppna grupp där vikten ryms, med samma villkor som optimizeShippingGroups
+    private Group bestFit(double weight) {
+        Group probe = new Group(Long.MAX_VALUE);
+        probe.load = maxWeight - weight;
+        Group group = open.floor(probe);
+        while (group != null && group.load + weight > maxWeight) {
+            group = open.lower(group);
+        }
+        return group;
+    }
+
+    private synchronized void remove(UUID id) {
+        Group group = groupById.remove(id);
+        if (group == null) return;
+        if (!open.remove(group)) closed.remove(group);
+        group.items.remove(id);
+        if (group.items.isEmpty()) return;
+        // Summan räknas om från varorna, så att upprepade ändringar inte ackumulerar avrundningsfel
+        group.load = 0.0;
+        group.items.values().forEach(item -> group.load += item.weight());
+        file(group);
+    }
+
+    private synchronized void replace(Product current) {
+        Group group = groupById.get(current.uuid());
+        if (group != null && current instanceof Shippable shippable) group.items.put(current.uuid(), shippable);
+    }
+
+    private synchronized void clear() {
+        groupById.clear();
+        open.clear();
+        closed.clear();
+    }
+
+    private void file(Group group) {
+        if (maxWeight - group.load <= closingMargin) {
+            closed.add(group);
+        } else {
+            open.add(group);
+        }
+    }
+
+    private final class Group {
+        private final long sequence;
+        private final Map<UUID, Shippable> items = new LinkedHashMap<>();
+        private double load;
+
+        private Group(long sequence) {
+            this.sequence = sequence;
+        }
+
+        double load() {
+            return load;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        ShippingGroup toShippingGroup() {
+            return new ShippingGroup(new ArrayList<>(items.values()), warehouse::shippingCost);
+        }
+    }
+
+    // Lagrets ändringar, under dess skrivlås
+    private final class Tracker implements InventoryIndex {
+        @Override
+        public void added(Product product) {
+            if (product instanceof Shippable shippable) add(product, shippable);
+        }
+
+        @Override
+        public void removed(Product product) {
+            remove(product.uuid());
+        }
+
+        @Override
+        public void cleared() {
+            clear();
+        }
+
+        // Planen gäller hela lagret, så en flytt till eller från disk ändrar inga grupper
+        @Override
+        public void spilled(Product product) { }
+
+        @Override
+        public void restored(Product product) { }
+
+        @Override
+        public void removedCold(Product product) {
+            remove(product.uuid());
+        }
+
+        // Vikten ändras inte med priset; gruppen får bara den nya referensen
+        @Override
+        public void replaced(Product previous, Product current) {
+            replace(current);
+        }
+    }
+}
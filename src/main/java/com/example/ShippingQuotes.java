@@ -0,0 +1,52 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Förberäknad fraktkostnad per fraktbar produkt enligt lagrets taxor. Kostnaden beror bara på
+// produkttyp och vikt, så den räknas om när produkten läggs till eller taxorna byts.
+final class ShippingQuotes implements InventoryIndex {
+    private final Map<UUID, BigDecimal> costById = new ConcurrentHashMap<>();
+    private volatile ShippingRates rates = ShippingRates.defaults();
+
+    ShippingRates rates() {
+        return rates;
+    }
+
+    // Anropas under skrivlåset med lagrets alla produkter
+    void setRates(ShippingRates rates, Iterable<Product> products) {
+        this.rates = rates;
+        costById.clear();
+        products.forEach(this::added);
+    }
+
+    // Andra Shippable-implementationer än lagrets produkter räknas vid anropet
+    BigDecimal costOf(Shippable shippable) {
+        BigDecimal cost = shippable instanceof Product product ? costById.get(product.uuid()) : null;
+        return cost != null ? cost : rates.quote(shippable);
+    }
+
+    @Override
+    public void added(Product product) {
+        if (product instanceof Shippable shippable) {
+            costById.put(product.uuid(), rates.quote(shippable));
+        }
+    }
+
+    @Override
+    public void removed(Product product) {
+        costById.remove(product.uuid());
+    }
+
+    @Override
+    public void cleared() {
+        costById.clear();
+    }
+
+    // En prisändring påverkar inte frakten
+    @Override
+    public void replaced(Product previous, Product current) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Frakttaxor: livsmedel kostar ett pris per kilo, elektronik ett grundpris plus ett tillägg
+// för varor tyngre än gränsvikten. Standardtaxorna är de som produkterna själva räknar med.
+public final class ShippingRates {
+
+    private static final ShippingRates DEFAULTS = new ShippingRates(
+            new BigDecimal("50"), new BigDecimal("79"), new BigDecimal("49"), new BigDecimal("5.0"));
+
+    private final BigDecimal foodRatePerKg;
+    private final BigDecimal electronicsBaseCost;
+    private final BigDecimal heavySurcharge;
+    private final BigDecimal heavyThresholdKg;
+    // Elektronik kostar ett av två belopp, så de räknas ut en gång per taxa
+    private final BigDecimal lightElectronicsCost;
+    private final BigDecimal heavyElectronicsCost;
+
+    private ShippingRates(BigDecimal foodRatePerKg, BigDecimal electronicsBaseCost, BigDecimal heavySurcharge, BigDecimal heavyThresholdKg) {
+        this.foodRatePerKg = foodRatePerKg;
+        this.electronicsBaseCost = electronicsBaseCost;
+        this.heavySurcharge = heavySurcharge;
+        this.heavyThresholdKg = heavyThresholdKg;
+        this.lightElectronicsCost = electronicsBaseCost.setScale(2, RoundingMode.HALF_UP);
+        this.heavyElectronicsCost = electronicsBaseCost.add(heavySurcharge).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // 50 kr/kg för livsmedel, 79 kr för elektronik och 49 kr extra över 5 kg
+    public static ShippingRates defaults() {
+        return DEFAULTS;
+    }
+
+    public static ShippingRates of(BigDecimal foodRatePerKg, BigDecimal electronicsBaseCost, BigDecimal heavySurcharge, BigDecimal heavyThresholdKg) {
+        requireNonNegative(foodRatePerKg, "Food rate per kg");
+        requireNonNegative(electronicsBaseCost, "Electronics base cost");
+        requireNonNegative(heavySurcharge, "Heavy surcharge");
+        requireNonNegative(heavyThresholdKg, "Heavy threshold");
+        return new ShippingRates(foodRatePerKg, electronicsBaseCost, heavySurcharge, heavyThresholdKg);
+    }
+
+    public BigDecimal foodRatePerKg() { return foodRatePerKg; }
+    public BigDecimal electronicsBaseCost() { return electronicsBaseCost; }
+    public BigDecimal heavySurcharge() { return heavySurcharge; }
+    public BigDecimal heavyThresholdKg() { return heavyThresholdKg; }
+
+    // Fraktkostnad enligt taxan; okända Shippable-typer räknar själva
+    BigDecimal quote(Shippable shippable) {
+        if (shippable instanceof FoodProduct food) return foodCost(food.weightValue());
+        if (shippable instanceof ElectronicsProduct electronics) return electronicsCost(electronics.weightValue());
+        return shippable.calculateShippingCost();
+    }
+
+    BigDecimal foodCost(BigDecimal weight) {
+        return weight.multiply(foodRatePerKg).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    BigDecimal electronicsCost(BigDecimal weight) {
+        return weight.compareTo(heavyThresholdKg) > 0 ? heavyElectronicsCost : lightElectronicsCost;
+    }
+
+    private static void requireNonNegative(BigDecimal value, String field) {
+        if (value == null || value.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException(field + " cannot be null or negative.");
+        }
+    }
+}
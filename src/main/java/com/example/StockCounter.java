@@ -0,0 +1,243 @@
+package com.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Lagersaldo för en produkt: tillgängliga och reserverade enheter. Utan samtidighet ligger allt i
+// två fält; första gången en CAS krockar fördelas saldot på celler (en per kärna, 64 byte isär),
+// och varje tråd reserverar i första hand ur sin egen cell. Räcker inte den hämtas resten ur basen
+// och övriga celler, och det som hämtats utöver behovet läggs i egna cellen. Totalen är summan av
+// basen och cellerna. Under en sådan flytt kan en annan tråd tillfälligt se för lite i lager, så en
+// tråd som inte hittar tillräckligt försöker igen så länge någon flytt pågått under sökningen.
+// Efter MAX_GATHER_ATTEMPTS försök tas ett lås som håller nya flyttar borta tills en sökning gått
+// igenom utan samtidiga flyttar; ett nej betyder därmed alltid att totalen inte räckte.
+final class StockCounter {
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+    // Longs per cell: tillgängligt och reserverat först, resten utfyllnad mot falsk delning
+    private static final int PAD = 8;
+    private static final int RESERVED_OFFSET = 1;
+    private static final int MAX_GATHER_ATTEMPTS = 1_000;
+    // Utfall av en sökning
+    private static final int FOUND = 0;
+    private static final int NOT_FOUND = 1;
+    private static final int RETRY = 2;
+
+    private static final VarHandle AVAILABLE;
+    private static final VarHandle RESERVED;
+    private static final VarHandle CELLS;
+    private static final VarHandle MOVING;
+    private static final VarHandle MOVES;
+    private static final VarHandle SWEEPERS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            AVAILABLE = lookup.findVarHandle(StockCounter.class, "available", long.class);
+            RESERVED = lookup.findVarHandle(StockCounter.class, "reserved", long.class);
+            CELLS = lookup.findVarHandle(StockCounter.class, "cells", AtomicLongArray.class);
+            MOVING = lookup.findVarHandle(StockCounter.class, "moving", int.class);
+            MOVES = lookup.findVarHandle(StockCounter.class, "moves", long.class);
+            SWEEPERS = lookup.findVarHandle(StockCounter.class, "sweepers", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long available;
+    private volatile long reserved;
+    private volatile AtomicLongArray cells;
+    // Pågående och avslutade flyttar mellan bas och celler
+    private volatile int moving;
+    private volatile long moves;
+    // Trådar som väntar på eller håller låset för sökning utan konkurrens
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private volatile int sweepers;
+
+    long available() {
+        long sum = available;
+        AtomicLongArray c = cells;
+        if (c != null) {
+            for (int i = 0; i < STRIPES; i++) sum += c.get(i * PAD);
+        }
+        return sum;
+    }
+
+    long reserved() {
+        long sum = reserved;
+        AtomicLongArray c = cells;
+        if (c != null) {
+            for (int i = 0; i < STRIPES; i++) sum += c.get(i * PAD + RESERVED_OFFSET);
+        }
+        return sum;
+    }
+
+    // Flyttar quantity från tillgängligt till reserverat om så många finns; aldrig under noll
+    boolean reserve(long quantity) {
+        while (true) {
+            AtomicLongArray c = cells;
+            if (c == null) {
+                long current = available;
+                if (current < quantity) {
+                    if (cells == null) return false;
+                    continue;
+                }
+                if (AVAILABLE.compareAndSet(this, current, current - quantity)) {
+                    RESERVED.getAndAdd(this, quantity);
+                    return true;
+                }
+                inflate();
+                continue;
+            }
+            int home = home();
+            long current = c.get(home * PAD);
+            if (current < quantity) return gather(c, home, quantity);
+            if (c.compareAndSet(home * PAD, current, current - quantity)) {
+                c.getAndAdd(home * PAD + RESERVED_OFFSET, quantity);
+                return true;
+            }
+        }
+    }
+
+    // Reserverade enheter tillbaka till tillgängligt
+    void release(long quantity) {
+        add(quantity, -quantity);
+    }
+
+    // Reserverade enheter lämnar lagret
+    void commit(long quantity) {
+        add(0, -quantity);
+    }
+
+    void receive(long quantity) {
+        add(quantity, 0);
+    }
+
+    // Sätter tillgängligt till quantity; reserverat påverkas inte
+    void set(long quantity) {
+        MOVING.getAndAdd(this, 1);
+        try {
+            AtomicLongArray c = cells;
+            take(-1, Long.MAX_VALUE);
+            if (c != null) {
+                for (int i = 0; i < STRIPES; i++) take(i, Long.MAX_VALUE);
+            }
+            add(quantity, 0);
+        } finally {
+            MOVES.getAndAdd(this, 1L);
+            MOVING.getAndAdd(this, -1);
+        }
+    }
+
+    private void add(long availableDelta, long reservedDelta) {
+        AtomicLongArray c = cells;
+        if (c == null) {
+            if (availableDelta != 0) AVAILABLE.getAndAdd(this, availableDelta);
+            if (reservedDelta != 0) RESERVED.getAndAdd(this, reservedDelta);
+            return;
+        }
+        int home = home();
+        if (availableDelta != 0) c.getAndAdd(home * PAD, availableDelta);
+        if (reservedDelta != 0) c.getAndAdd(home * PAD + RESERVED_OFFSET, reservedDelta);
+    }
+
+    // Egna cellen räcker inte. Ur basen tas även en andel att fylla på egna cellen med, så att
+    // saldot efter hand sprids ut; ur övriga celler bara det som fattas.
+    private boolean gather(AtomicLongArray c, int home, long quantity) {
+        for (int attempt = 0; attempt < MAX_GATHER_ATTEMPTS && sweepers == 0; attempt++) {
+            int result = collect(c, home, quantity);
+            if (result != RETRY) return result == FOUND;
+            if (attempt > 16) Thread.yield(); else Thread.onSpinWait();
+        }
+        return sweep(c, home, quantity);
+    }
+
+    // Under låset börjar inga nya sökningar, så de pågående tar slut och en sökning går till sist
+    // igenom utan samtidiga flyttar
+    private boolean sweep(AtomicLongArray c, int home, long quantity) {
+        SWEEPERS.getAndAdd(this, 1);
+        sweepLock.lock();
+        try {
+            int result;
+            while ((result = collect(c, home, quantity)) == RETRY) {
+                Thread.yield();
+            }
+            return result == FOUND;
+        } finally {
+            sweepLock.unlock();
+            SWEEPERS.getAndAdd(this, -1);
+        }
+    }
+
+    private int collect(AtomicLongArray c, int home, long quantity) {
+        long movesBefore = moves;
+        MOVING.getAndAdd(this, 1);
+        try {
+            long taken = take(-1, quantity + Math.min(available / STRIPES, Long.MAX_VALUE - quantity));
+            for (int i = 1; i < STRIPES && taken < quantity; i++) {
+                taken += take((home + i) & (STRIPES - 1), quantity - taken);
+            }
+            if (taken >= quantity) {
+                c.getAndAdd(home * PAD, taken - quantity);
+                c.getAndAdd(home * PAD + RESERVED_OFFSET, quantity);
+                return FOUND;
+            }
+            c.getAndAdd(home * PAD, taken);
+        } finally {
+            MOVES.getAndAdd(this, 1L);
+            MOVING.getAndAdd(this, -1);
+        }
+        if (reserveHome(c, home, quantity)) return FOUND;
+        // Egen flytt räknas en gång; fler betyder att någon annan flyttat under sökningen
+        return moving == 0 && moves - movesBefore <= 1 ? NOT_FOUND : RETRY;
+    }
+
+    private boolean reserveHome(AtomicLongArray c, int home, long quantity) {
+        long current;
+        while ((current = c.get(home * PAD)) >= quantity) {
+            if (c.compareAndSet(home * PAD, current, current - quantity)) {
+                c.getAndAdd(home * PAD + RESERVED_OFFSET, quantity);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Tar upp till max tillgängliga ur cellen (eller basen för -1); returnerar antal tagna
+    private long take(int stripe, long max) {
+        if (max <= 0) return 0;
+        if (stripe < 0) {
+            long current;
+            while ((current = available) > 0) {
+                long amount = Math.min(current, max);
+                if (AVAILABLE.compareAndSet(this, current, current - amount)) return amount;
+            }
+            return 0;
+        }
+        AtomicLongArray c = cells;
+        long current;
+        while ((current = c.get(stripe * PAD)) > 0) {
+            long amount = Math.min(current, max);
+            if (c.compareAndSet(stripe * PAD, current, current - amount)) return amount;
+        }
+        return 0;
+    }
+
+    private void inflate() {
+        if (STRIPES > 1 && cells == null) {
+            CELLS.compareAndSet(this, null, new AtomicLongArray(STRIPES * PAD));
+        }
+    }
+
+    // Trådens cell, spridd med en multiplikativ hash av tråd-id:t
+    private static int home() {
+        int h = (int) Thread.currentThread().threadId() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static int stripes(int processors) {
+        if (processors <= 1) return 1;
+        return Math.min(64, Integer.highestOneBit(processors - 1) << 1);
+    }
+}
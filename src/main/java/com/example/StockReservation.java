@@ -0,0 +1,76 @@
+package com.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Reserverade enheter för en eller flera produkter, från Warehouse.reserve eller reserveAll.
+// Avslutas exakt en gång: commit när varorna lämnar lagret, release när de ska säljas igen.
+public final class StockReservation {
+    private static final int OPEN = 0;
+    private static final int COMMITTED = 1;
+    private static final int RELEASED = 2;
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(StockReservation.class, "state", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final UUID[] ids;
+    private final StockCounter[] counters;
+    private final long[] quantities;
+    private volatile int state;
+
+    StockReservation(UUID[] ids, StockCounter[] counters, long[] quantities) {
+        this.ids = ids;
+        this.counters = counters;
+        this.quantities = quantities;
+    }
+
+    // Antal per produkt i reservationen
+    public Map<UUID, Long> lines() {
+        Map<UUID, Long> lines = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            lines.put(ids[i], quantities[i]);
+        }
+        return Collections.unmodifiableMap(lines);
+    }
+
+    public boolean isOpen() {
+        return state == OPEN;
+    }
+
+    // De reserverade enheterna lämnar lagret
+    public void commit() {
+        settle(COMMITTED);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i].commit(quantities[i]);
+        }
+    }
+
+    // De reserverade enheterna blir tillgängliga igen
+    public void release() {
+        settle(RELEASED);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i].release(quantities[i]);
+        }
+    }
+
+    private void settle(int newState) {
+        if (!STATE.compareAndSet(this, OPEN, newState)) {
+            throw new IllegalStateException("Reservation is already " + (state == COMMITTED ? "committed." : "released."));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StockReservation{" + "lines=" + lines() + ", state=" + (state == OPEN ? "open" : state == COMMITTED ? "committed" : "released") + '}';
+    }
+}
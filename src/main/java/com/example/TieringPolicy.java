@@ -0,0 +1,53 @@
+package com.example;
+
+import java.time.Duration;
+
+// Regler för när produkter flyttas från minnet till lagrets kalla nivå på disk: bäst-före-varor
+// som gått ut för mer än ett antal dagar sedan, produkter som varken lästs eller ändrats på en
+// tid, och de minst nyligen använda när fler än maxHotProducts ligger i minnet.
+public final class TieringPolicy {
+
+    private static final TieringPolicy DEFAULTS = new TieringPolicy(0, Duration.ofDays(30), Integer.MAX_VALUE);
+
+    private final int expiredGraceDays;
+    private final Duration inactiveAfter;
+    private final int maxHotProducts;
+    // Mättad vid Long.MAX_VALUE, så att mycket långa perioder inte slår över
+    private final long inactiveAfterMillis;
+
+    private TieringPolicy(int expiredGraceDays, Duration inactiveAfter, int maxHotProducts) {
+        this.expiredGraceDays = expiredGraceDays;
+        this.inactiveAfter = inactiveAfter;
+        this.maxHotProducts = maxHotProducts;
+        this.inactiveAfterMillis = inactiveAfter.compareTo(Duration.ofMillis(Long.MAX_VALUE)) >= 0
+                ? Long.MAX_VALUE : inactiveAfter.toMillis();
+    }
+
+    // Utgångna varor direkt, orörda efter 30 dagar och ingen gräns för antalet i minnet
+    public static TieringPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    public static TieringPolicy of(int expiredGraceDays, Duration inactiveAfter, int maxHotProducts) {
+        if (expiredGraceDays < 0) { throw new IllegalArgumentException("Expired grace days cannot be negative."); }
+        if (inactiveAfter == null || inactiveAfter.isNegative()) {
+            throw new IllegalArgumentException("Inactivity period cannot be null or negative.");
+        }
+        if (maxHotProducts < 1) { throw new IllegalArgumentException("Max hot products must be at least 1."); }
+        return new TieringPolicy(expiredGraceDays, inactiveAfter, maxHotProducts);
+    }
+
+    public int expiredGraceDays() { return expiredGraceDays; }
+    public Duration inactiveAfter() { return inactiveAfter; }
+    public int maxHotProducts() { return maxHotProducts; }
+
+    long inactiveAfterMillis() {
+        return inactiveAfterMillis;
+    }
+
+    // När gränsen överskrids flyttas produkter tills en tiondel av utrymmet är ledigt igen,
+    // så att varje tillägg inte behöver en egen flytt
+    int spillTarget() {
+        return maxHotProducts - maxHotProducts / 10;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example;
+
+import java.util.*;
+
+// Begränsad heap för de k största elementen: O(n log k) tid och O(k) minne
+final class TopK {
+
+    private TopK() {
+    }
+
+    // De k största enligt ordningen, störst först. Ordningen bör vara total så att lika värden
+    // alltid avgörs på samma sätt oavsett iterationsordning.
+    static <T> List<T> largest(Iterable<? extends T> items, int k, Comparator<? super T> order) {
+        if (k < 0) { throw new IllegalArgumentException("k cannot be negative."); }
+        if (k == 0) return new ArrayList<>();
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, 1024), order);
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order.reversed());
+        return result;
+    }
+}
@@ -1,22 +1,84 @@
 package com.example;
 
+import com.example.WarehouseMetrics.Operation;
+
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
-public class Warehouse {
+public class Warehouse implements InventoryView {
     // Singleton per namn: namn-nyckel → unik Warehouse-instans
-    private static final Map<String, Warehouse> unique = new HashMap<>();
+    private static final Map<String, Warehouse> unique = new ConcurrentHashMap<>();
     private final String name;
 
-    // Produkter per UUID
-    private final Map<UUID, Product> productsById = new HashMap<>();
+    // Antal produkter från vilket bulkoperationer körs parallellt
+    private static final int PARALLEL_THRESHOLD = 4_096;
+
+    // Skrivare turas om under ett lås; läsare går utan lås mot den senast publicerade versionen
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Aktuell version av lagret: produkter per UUID i en persistent trie, dagens datum och rabattregler
+    private volatile WarehouseSnapshot current;
 
     // Spårar ändrade produkter - Set för unika ID:n
-    private final Set<UUID> changedProducts = new HashSet<>();
+    private final Set<UUID> changedProducts = ConcurrentHashMap.newKeySet();
+
+    // Analysresultat per version, delade av alla WarehouseAnalyzer för lagret
+    private final ResultCache resultCache = new ResultCache(ResultCache.DEFAULT_CAPACITY);
+
+    // Ändringshändelser till prenumeranter, i versionsordning
+    private final InventoryChangePublisher changes = new InventoryChangePublisher();
+
+    // Valfria räknare och latenshistogram, avstängda tills de slås på
+    private final WarehouseMetrics metrics;
+
+    // Bäst-före-varor per utgångsdatum, omklassade i klump vid dygnsskifte
+    private final ExpiryIndex expiryIndex = new ExpiryIndex();
+
+    // Förberäknade rabattpriser för varor nära bäst-före
+    private final DiscountTable discountTable = new DiscountTable(expiryIndex);
+
+    // Åtkomstvägar för ProductQuery: prisordning, kategori och namntrigram
+    private final PriceIndex priceIndex = new PriceIndex();
+    private final CategoryIndex categoryIndex = new CategoryIndex();
+    private final NameIndex nameIndex = new NameIndex();
+
+    // Priskvantiler totalt och per kategori
+    private final PriceSketchIndex priceSketches = new PriceSketchIndex();
+
+    // Fraktkostnad per produkt enligt aktuella taxor
+    private final ShippingQuotes shippingQuotes = new ShippingQuotes();
+
+    // Sekundära strukturer som hålls i synk med produkterna, i beroendeordning. Fraktplanerare
+    // läggs till och tas bort under skrivlåset; läsare av listan ser alltid en hel version.
+    private final List<InventoryIndex> indexes = new CopyOnWriteArrayList<>(List.of(
+            expiryIndex, discountTable, priceIndex, categoryIndex, nameIndex, priceSketches, shippingQuotes));
+
+    // Dagens datum enligt en utbytbar klocka
+    private final ExpiryScheduler scheduler;
+
+    // Kall nivå på disk för utgångna och oanvända produkter, avstängd (null) tills enableColdTier
+    private volatile Tiering tiering;
+
+    // Lagersaldo per produkt, satt med setStock/addStock. Reservationer går utan skrivlås.
+    private final Map<UUID, StockCounter> stock = new ConcurrentHashMap<>();
 
     // Kontrollerad instansiering via getInstance
     private Warehouse(String name) {
         this.name = name;
+        this.metrics = new WarehouseMetrics(name);
+        this.current = new WarehouseSnapshot(this, 0, ProductTrie.EMPTY, ProductPartitions.EMPTY, LocalDate.EPOCH, DiscountRules.defaults(), ShippingRates.defaults());
+        this.scheduler = new ExpiryScheduler(Clock.systemDefaultZone(), writeLock, this::dayChanged);
     }
 
     // Returnerar samma instans för samma namn, skapar ny om saknas
@@ -24,80 +86,889 @@ public class Warehouse {
         return unique.computeIfAbsent(name, Warehouse::new);
     }
 
+    @Override
     public String getName() {
         return name;
     }
 
+    @Override
+    public WarehouseMetrics metrics() {
+        return metrics;
+    }
+
+    // Konsekvent tillstånd vid en viss version, utan kopiering och utan att blockera skrivare
+    public WarehouseSnapshot snapshot() {
+        scheduler.today();
+        return current;
+    }
+
+    // Alla produkter vid en version, även de på disk, för replikeringens ögonblicksbilder. Den kalla
+    // nivån läses under skrivlåset så att den stämmer med versionen; produkterna i minnet ligger i
+    // den oföränderliga trien och läses efteråt.
+    Contents contents() {
+        scheduler.today();
+        WarehouseSnapshot snapshot;
+        List<Product> cold = List.of();
+        writeLock.lock();
+        try {
+            snapshot = current;
+            if (tiering != null) {
+                cold = new ArrayList<>(tiering.tier().size());
+                for (UUID id : tiering.tier().ids()) {
+                    cold.add(tiering.tier().read(id));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (cold.isEmpty()) return new Contents(snapshot.version(), snapshot.products().values());
+        List<Product> products = new ArrayList<>(snapshot.size() + cold.size());
+        products.addAll(snapshot.products().values());
+        products.addAll(cold);
+        return new Contents(snapshot.version(), products);
+    }
+
+    record Contents(long version, Collection<Product> products) {
+    }
+
+    // Ökar vid varje ändring; ett passerat dygnsskifte räknas in innan versionen läses
+    @Override
+    public long version() {
+        scheduler.today();
+        return current.version();
+    }
+
+    // Byter klocka, t.ex. en fast klocka i tester; bäst-före-tillstånd räknas om direkt
+    public void setClock(Clock clock) {
+        scheduler.setClock(clock);
+    }
+
+    public Clock getClock() {
+        return scheduler.clock();
+    }
+
+    // Dagens datum enligt lagrets klocka; kör dygnsskiftet när datumgränsen passerats
+    @Override
+    public LocalDate today() {
+        return scheduler.today();
+    }
+
+    // Körs av ExpiryScheduler under skrivlåset
+    private void dayChanged(LocalDate today) {
+        indexes.forEach(index -> index.dayChanged(today));
+        current = current.withToday(today);
+        spill(true);
+    }
+
+    @Override
     public List<Product> getProducts() {
-        return Collections.unmodifiableList(new ArrayList<>(productsById.values()));
+        return Collections.unmodifiableList(new ArrayList<>(current.products().values()));
+    }
+
+    // Ny sammansatt fråga som planeras mot lagrets index när den körs
+    @Override
+    public ProductQuery query() {
+        return new ProductQuery(this);
     }
 
     public Set<UUID> getChangedProducts() {
         return Collections.unmodifiableSet(changedProducts);
     }
 
+    // Tillägg, prisändringar och borttag som Flow-batchar, med begränsad buffert per prenumerant
+    public InventoryChangePublisher changes() {
+        return changes;
+    }
+
+    // Fraktgrupper som följer lagret: nya varor placeras direkt och borttagna lämnar sin grupp.
+    // En grupp stängs när högst closingMargin återstår till maxvikten.
+    public ShippingPlanner openShippingPlanner(BigDecimal maxWeightPerGroup, BigDecimal closingMargin) {
+        ShippingPlanner planner = new ShippingPlanner(this, maxWeightPerGroup, closingMargin);
+        writeLock.lock();
+        try {
+            current.products().forEach(planner.tracker()::added);
+            if (tiering != null) {
+                for (UUID id : tiering.tier().ids()) {
+                    planner.tracker().added(tiering.tier().read(id));
+                }
+            }
+            indexes.add(planner.tracker());
+        } finally {
+            writeLock.unlock();
+        }
+        return planner;
+    }
+
+    public ShippingPlanner openShippingPlanner(BigDecimal maxWeightPerGroup) {
+        return openShippingPlanner(maxWeightPerGroup, BigDecimal.ZERO);
+    }
+
+    void detach(InventoryIndex index) {
+        writeLock.lock();
+        try {
+            indexes.remove(index);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     public void addProduct(Product product) {
         if (product == null) {
             throw new IllegalArgumentException("Product cannot be null.");
         }
-        productsById.put(product.uuid(), product);
+        long start = metrics.start();
+        scheduler.today();
+        writeLock.lock();
+        try {
+            Product previous = current.products().get(product.uuid());
+            ProductPartitions partitions = current.partitions();
+            if (previous != null) {
+                indexes.forEach(index -> index.removed(previous));
+                partitions = partitions.without(previous);
+            } else if (tiering != null) {
+                Product cold = tiering.tier().take(product.uuid());
+                if (cold != null) indexes.forEach(index -> index.removedCold(cold));
+            }
+            indexes.forEach(index -> index.added(product));
+            current = current.withProducts(current.products().with(product), partitions.with(product));
+            changes.publish(new InventoryChange(InventoryChange.Type.ADDED, product.uuid(), product, current.version()));
+            spill(false);
+        } finally {
+            writeLock.unlock();
+        }
+        metrics.record(Operation.ADD, start);
     }
 
+    // Med kall nivå påslagen flyttas en produkt som ligger på disk tillbaka till minnet
     public Optional<Product> getProductById(UUID id) {
-        return Optional.ofNullable(productsById.get(id));
+        long start = metrics.start();
+        Product product = current.products().get(id);
+        Tiering tiering = this.tiering;
+        if (tiering != null) {
+            if (product != null) {
+                tiering.activity().touch(id);
+            } else if (tiering.tier().contains(id)) {
+                writeLock.lock();
+                try {
+                    product = hot(id);
+                    spill(false);
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        }
+        metrics.record(Operation.LOOKUP, start);
+        return Optional.ofNullable(product);
     }
 
+    // Produkten byts mot en kopia med det nya priset (Product.withPrice), så ögonblicksbilder och
+    // tidigare hämtade referenser behåller det gamla priset; hämta produkten igen för det nya.
     public void updateProductPrice(UUID id, BigDecimal newPrice) {
-        Product product = productsById.get(id);
-        if (product == null) {
-            throw new NoSuchElementException("Product not found with id: " + id);
+        long start = metrics.start();
+        scheduler.today();
+        writeLock.lock();
+        try {
+            Product product = hot(id);
+            if (product == null) {
+                throw new NoSuchElementException("Product not found with id: " + id);
+            }
+            Product updated = product.withPrice(newPrice);
+            indexes.forEach(index -> index.replaced(product, updated));
+            current = current.withProducts(current.products().with(updated), current.partitions().replaced(product, updated));
+            changedProducts.add(id);
+            changes.publish(new InventoryChange(InventoryChange.Type.PRICE_CHANGED, id, updated, current.version()));
+            spill(false);
+        } finally {
+            writeLock.unlock();
         }
-        product.setPrice(newPrice);
-        changedProducts.add(id);
+        metrics.record(Operation.PRICE_UPDATE, start);
     }
 
-    public List<Perishable> expiredProducts() {
-        List<Perishable> expiredProducts = new ArrayList<>();
-        for (Product p : productsById.values()) {
-            if (p instanceof Perishable perishable && perishable.isExpired()) {
-                expiredProducts.add(perishable);
+    // Nya priser per id i en enda ändring; okända id:n avbryter innan något ändrats. Returnerar antal ändrade.
+    public int updateProductPrices(Map<UUID, BigDecimal> newPrices) {
+        if (newPrices == null) { throw new IllegalArgumentException("Prices cannot be null."); }
+        return reprice("updateProductPrices", products -> {
+            // Alla id:n kontrolleras innan något hämtas från disk
+            for (UUID id : newPrices.keySet()) {
+                if (products.get(id) == null && (tiering == null || !tiering.tier().contains(id))) {
+                    throw new NoSuchElementException("Product not found with id: " + id);
+                }
+            }
+            List<Product> selected = new ArrayList<>(newPrices.size());
+            for (UUID id : newPrices.keySet()) {
+                selected.add(hot(id));
             }
+            return selected;
+        }, product -> newPrices.get(product.uuid()));
+    }
+
+    // Prisfunktion på alla produkter i kategorin, t.ex. p -> p.multiply(new BigDecimal("1.03")).
+    // Med kall nivå påslagen hämtas kategorins produkter på disk till minnet och ändras också.
+    public int repriceCategory(Category category, UnaryOperator<BigDecimal> priceFunction) {
+        if (category == null) { throw new IllegalArgumentException("Category cannot be null."); }
+        if (priceFunction == null) { throw new IllegalArgumentException("Price function cannot be null."); }
+        return reprice("repriceCategory", products -> {
+            List<Product> selected = new ArrayList<>(categoryIndex.inCategory(category));
+            selected.addAll(faultInWhere(product -> product.category().equals(category)));
+            return selected;
+        }, product -> priceFunction.apply(product.price()));
+    }
+
+    // Prisfunktion på alla produkter som uppfyller villkoret, även de på disk som repriceCategory
+    public int repriceWhere(Predicate<? super Product> filter, UnaryOperator<BigDecimal> priceFunction) {
+        if (filter == null) { throw new IllegalArgumentException("Predicate cannot be null."); }
+        if (priceFunction == null) { throw new IllegalArgumentException("Price function cannot be null."); }
+        return reprice("repriceWhere", products -> {
+            List<Product> selected = new ArrayList<>(partitioned(products.values(), products.size()).filter(filter).toList());
+            selected.addAll(faultInWhere(filter));
+            return selected;
+        }, product -> priceFunction.apply(product.price()));
+    }
+
+    // Gemensam väg för bulkprisändringar: nya kopior räknas fram parallellt, sedan uppdateras index,
+    // ändringsspårning och trie i ett svep och en ny version publiceras en gång. Produkter vars pris
+    // blir oförändrat räknas inte. Kastar prisfunktionen ett undantag har inget ändrats.
+    private int reprice(String operation, Function<ProductTrie, List<Product>> select, Function<Product, BigDecimal> newPrice) {
+        BulkMutationEvent event = new BulkMutationEvent();
+        event.begin();
+        today();
+        int sizeBefore;
+        List<Repricing> repriced;
+        writeLock.lock();
+        try {
+            sizeBefore = current.size();
+            // Urvalet kan hämta produkter från den kalla nivån, så versionen läses efter det
+            List<Product> selected = select.apply(current.products());
+            ProductTrie products = current.products();
+            ProductPartitions partitions = current.partitions();
+            repriced = partitioned(selected, selected.size())
+                    .map(product -> new Repricing(product, product.withPrice(newPrice.apply(product))))
+                    .filter(Repricing::changed)
+                    .toList();
+            for (Repricing change : repriced) {
+                indexes.forEach(index -> index.replaced(change.previous(), change.updated()));
+                products = products.with(change.updated());
+                partitions = partitions.replaced(change.previous(), change.updated());
+                changedProducts.add(change.updated().uuid());
+            }
+            if (!repriced.isEmpty()) {
+                current = current.withProducts(products, partitions);
+                publishRepricing(repriced);
+            }
+            spill(false);
+        } finally {
+            writeLock.unlock();
         }
-        return expiredProducts;
+        commit(event, operation, sizeBefore, repriced.size());
+        return repriced.size();
     }
 
-    public List<Shippable> shippableProducts() {
-        List<Shippable> shippableProducts = new ArrayList<>();
-        for (Product p : productsById.values()) {
-            if (p instanceof Shippable shippable) {
-                shippableProducts.add(shippable);
+    private void publishRepricing(List<Repricing> repricings) {
+        if (!changes.hasSubscribers()) return;
+        long version = current.version();
+        List<InventoryChange> events = new ArrayList<>(repricings.size());
+        for (Repricing repricing : repricings) {
+            Product updated = repricing.updated();
+            events.add(new InventoryChange(InventoryChange.Type.PRICE_CHANGED, updated.uuid(), updated, version));
+        }
+        changes.publish(events);
+    }
+
+    private record Repricing(Product previous, Product updated) {
+        boolean changed() { return previous.price().compareTo(updated.price()) != 0; }
+    }
+
+    // Tar bort alla produkter som uppfyller villkoret i en ändring och returnerar dem. Urvalet
+    // görs i en genomgång, parallellt för stora lager; med kall nivå påslagen gäller det produkterna i minnet.
+    public List<Product> removeIf(Predicate<? super Product> filter) {
+        if (filter == null) { throw new IllegalArgumentException("Predicate cannot be null."); }
+        return removeAll("removeIf", products -> partitioned(products.values(), products.size()).filter(filter).toList(), null);
+    }
+
+    // Tar bort bäst-före-varor som gått ut före datumet, hämtade ur ExpiryIndex utan genomsökning.
+    // Varor på disk tas också bort, via den kalla nivåns egna datumindex.
+    public List<Product> removeExpiredBefore(LocalDate date) {
+        if (date == null) { throw new IllegalArgumentException("Date cannot be null."); }
+        return removeAll("removeExpiredBefore", products -> asProducts(expiryIndex.expiringBefore(date)), date);
+    }
+
+    // Tar bort utgångna varor, både de som expiredProducts() returnerar och de på disk; returnerar antalet
+    public int purgeExpired() {
+        LocalDate today = today();
+        return removeAll("purgeExpired", products -> asProducts(expiryIndex.expiringOnOrBefore(today)), today.plusDays(1)).size();
+    }
+
+    // Bäst-före-varor är alltid produkter (Product är förseglad)
+    private static List<Product> asProducts(List<Perishable> perishables) {
+        List<Product> products = new ArrayList<>(perishables.size());
+        for (Perishable perishable : perishables) {
+            products.add((Product) perishable);
+        }
+        return products;
+    }
+
+    // Gemensam väg för bulkborttag, som reprice: index uppdateras med en klump per index, trie och
+    // partitioner i ett svep och en ny version publiceras en gång. Stora klumpar fördelas på
+    // indexen parallellt; varje index ändras av en tråd och borttag beror inte på andra index.
+    // Med coldExpiredBefore tas även varor på disk med bäst-före före datumet bort.
+    private List<Product> removeAll(String operation, Function<ProductTrie, List<Product>> select, LocalDate coldExpiredBefore) {
+        BulkMutationEvent event = new BulkMutationEvent();
+        event.begin();
+        today();
+        int sizeBefore;
+        List<Product> removed;
+        writeLock.lock();
+        try {
+            ProductTrie products = current.products();
+            ProductPartitions partitions = current.partitions();
+            sizeBefore = products.size() + coldSize();
+            List<Product> hot = select.apply(products);
+            if (!hot.isEmpty()) {
+                partitioned(indexes, hot.size()).forEach(index -> index.removedAll(hot));
+                for (Product product : hot) {
+                    products = products.without(product.uuid());
+                    partitions = partitions.without(product);
+                    changedProducts.remove(product.uuid());
+                    stock.remove(product.uuid());
+                }
+            }
+            removed = hot;
+            if (coldExpiredBefore != null && tiering != null) {
+                List<UUID> expired = tiering.tier().expiringBefore(coldExpiredBefore);
+                if (!expired.isEmpty()) {
+                    removed = new ArrayList<>(hot);
+                    for (UUID id : expired) {
+                        Product cold = tiering.tier().take(id);
+                        indexes.forEach(index -> index.removedCold(cold));
+                        removed.add(cold);
+                        changedProducts.remove(id);
+                        stock.remove(id);
+                    }
+                }
+            }
+            if (!removed.isEmpty()) {
+                current = current.withProducts(products, partitions);
+                publishRemovals(removed);
             }
+        } finally {
+            writeLock.unlock();
+        }
+        commit(event, operation, sizeBefore, removed.size());
+        return removed;
+    }
+
+    private void publishRemovals(List<Product> removed) {
+        if (!changes.hasSubscribers()) return;
+        long version = current.version();
+        List<InventoryChange> events = new ArrayList<>(removed.size());
+        for (Product product : removed) {
+            events.add(new InventoryChange(InventoryChange.Type.REMOVED, product.uuid(), product, version));
+        }
+        changes.publish(events);
+    }
+
+    // Stora bulkoperationer delas upp över ForkJoin-poolen; små körs i anropande tråd
+    private static <T> Stream<T> partitioned(Collection<T> items, int size) {
+        return size >= PARALLEL_THRESHOLD ? items.parallelStream() : items.stream();
+    }
+
+    // Utgångna varor enligt Perishable.isExpired(): bäst-före idag eller tidigare. Med kall nivå
+    // påslagen gäller det produkterna i minnet; utgångna varor på disk rensas av purgeExpired.
+    public List<Perishable> expiredProducts() {
+        return expiryIndex.expiringOnOrBefore(today());
+    }
+
+    // Bäst-före-varor med utgångsdatum i [from, to], i datumordning
+    @Override
+    public List<Perishable> perishablesExpiringBetween(LocalDate from, LocalDate to) {
+        today();
+        return expiryIndex.expiringBetween(from, to);
+    }
+
+    // Pris efter utgångsrabatt; O(1) uppslag i den förberäknade rabattabellen.
+    // Utan rabatt gäller lagrets aktuella pris, även om anroparen har en äldre referens.
+    @Override
+    public BigDecimal discountedPrice(Product product) {
+        today();
+        Product latest = current.products().get(product.uuid());
+        return discountTable.discountedPrice(latest == null ? product : latest);
+    }
+
+    public DiscountRules getDiscountRules() {
+        return discountTable.rules();
+    }
+
+    // Byter rabattnivåer; tabellen och rabattfönstret för ExpiryState.DISCOUNT räknas om
+    public void setDiscountRules(DiscountRules rules) {
+        if (rules == null) { throw new IllegalArgumentException("Discount rules cannot be null."); }
+        today();
+        writeLock.lock();
+        try {
+            expiryIndex.setDiscountWindowDays(rules.horizonDays());
+            discountTable.setRules(rules);
+            current = current.withDiscountRules(rules);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Förberäknad fraktkostnad enligt lagrets taxor
+    @Override
+    public BigDecimal shippingCost(Shippable shippable) {
+        return shippingQuotes.costOf(shippable);
+    }
+
+    public ShippingRates getShippingRates() {
+        return shippingQuotes.rates();
+    }
+
+    // Byter frakttaxor; kostnaden för varje fraktbar produkt räknas om
+    public void setShippingRates(ShippingRates rates) {
+        if (rates == null) { throw new IllegalArgumentException("Shipping rates cannot be null."); }
+        writeLock.lock();
+        try {
+            shippingQuotes.setRates(rates, current.products());
+            current = current.withShippingRates(rates);
+        } finally {
+            writeLock.unlock();
         }
-        return shippableProducts;
+    }
+
+    // Antal bäst-före-varor i tillståndet, förberäknat vid senaste dygnsskifte
+    @Override
+    public int countPerishables(ExpiryState state) {
+        today();
+        return expiryIndex.count(state);
+    }
+
+    @Override
+    public BigDecimal priceQuantile(double quantile) {
+        return priceSketches.quantile(quantile);
+    }
+
+    @Override
+    public BigDecimal priceQuantile(Category category, double quantile) {
+        return priceSketches.quantile(category, quantile);
+    }
+
+    @Override
+    public Set<Category> categories() {
+        return categoryIndex.categories();
+    }
+
+    // Delas med lagrets ögonblicksbilder; posterna är nycklade på version
+    ResultCache resultCache() {
+        return resultCache;
+    }
+
+    @Override
+    public List<Product> mostExpensiveProducts(int k) {
+        return priceIndex.mostExpensive(k);
+    }
+
+    @Override
+    public List<Product> cheapestProducts(int k) {
+        return priceIndex.cheapest(k);
+    }
+
+    // Läser bara fraktpartitionen i aktuell version
+    @Override
+    public List<Shippable> shippableProducts() {
+        return current.shippableProducts();
     }
 
     public void remove(UUID id) {
-        productsById.remove(id);
-        changedProducts.remove(id);
+        long start = metrics.start();
+        scheduler.today();
+        writeLock.lock();
+        try {
+            Product removed = current.products().get(id);
+            changedProducts.remove(id);
+            stock.remove(id);
+            if (removed != null) {
+                indexes.forEach(index -> index.removed(removed));
+                current = current.withProducts(current.products().without(id), current.partitions().without(removed));
+                changes.publish(new InventoryChange(InventoryChange.Type.REMOVED, id, removed, current.version()));
+            } else if (tiering != null && tiering.tier().contains(id)) {
+                Product cold = tiering.tier().take(id);
+                indexes.forEach(index -> index.removedCold(cold));
+                current = current.withProducts(current.products(), current.partitions());
+                changes.publish(new InventoryChange(InventoryChange.Type.REMOVED, id, cold, current.version()));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        metrics.record(Operation.REMOVE, start);
     }
 
     public void clearProducts() {
-        productsById.clear();
-        changedProducts.clear();
+        BulkMutationEvent event = new BulkMutationEvent();
+        event.begin();
+        int removed;
+        writeLock.lock();
+        try {
+            removed = current.size() + coldSize();
+            changedProducts.clear();
+            stock.clear();
+            if (tiering != null) tiering.tier().clear();
+            indexes.forEach(InventoryIndex::cleared);
+            current = current.withProducts(ProductTrie.EMPTY, ProductPartitions.EMPTY);
+            changes.publish(InventoryChange.reset(current.version()));
+        } finally {
+            writeLock.unlock();
+        }
+        commit(event, "clearProducts", removed, removed);
+    }
+
+    // Ersätter hela innehållet i en ny version, t.ex. när en replik hämtar ikapp från en ögonblicksbild.
+    // Prenumeranter får en RESET.
+    void replaceAll(Collection<Product> products) {
+        writeLock.lock();
+        try {
+            changedProducts.clear();
+            stock.clear();
+            if (tiering != null) tiering.tier().clear();
+            indexes.forEach(InventoryIndex::cleared);
+            ProductTrie trie = ProductTrie.EMPTY;
+            ProductPartitions partitions = ProductPartitions.EMPTY;
+            for (Product product : products) {
+                Product previous = trie.get(product.uuid());
+                if (previous != null) {
+                    indexes.forEach(index -> index.removed(previous));
+                    partitions = partitions.without(previous);
+                }
+                indexes.forEach(index -> index.added(product));
+                trie = trie.with(product);
+                partitions = partitions.with(product);
+            }
+            current = current.withProducts(trie, partitions);
+            changes.publish(InventoryChange.reset(current.version()));
+            spill(false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // För in ändringar från ett annat lager i en ny version. Tillägg ersätter en produkt med samma id;
+    // prisändringar byter produkten som updateProductPrice gör. Prenumeranter får ändringarna med lagrets egen version.
+    void applyReplicated(List<InventoryChange> replicated) {
+        for (InventoryChange change : replicated) {
+            if (change.type() == InventoryChange.Type.RESET) { throw new IllegalArgumentException("A reset cannot be applied as a change."); }
+        }
+        writeLock.lock();
+        try {
+            ProductTrie products = current.products();
+            ProductPartitions partitions = current.partitions();
+            long version = current.version() + 1;
+            List<InventoryChange> applied = new ArrayList<>(replicated.size());
+            for (InventoryChange change : replicated) {
+                UUID id = change.productId();
+                Product previous = products.get(id);
+                Product product = change.product();
+                // En produkt på disk ersätts eller tas bort där
+                Product cold = previous == null && tiering != null ? tiering.tier().take(id) : null;
+                if (cold != null) indexes.forEach(index -> index.removedCold(cold));
+                switch (change.type()) {
+                    case ADDED, PRICE_CHANGED -> {
+                        if (previous == null) {
+                            indexes.forEach(index -> index.added(product));
+                            partitions = partitions.with(product);
+                        } else if (change.type() == InventoryChange.Type.PRICE_CHANGED) {
+                            indexes.forEach(index -> index.replaced(previous, product));
+                            partitions = partitions.replaced(previous, product);
+                            changedProducts.add(id);
+                        } else {
+                            indexes.forEach(index -> index.removed(previous));
+                            indexes.forEach(index -> index.added(product));
+                            partitions = partitions.without(previous).with(product);
+                        }
+                        products = products.with(product);
+                        applied.add(new InventoryChange(change.type(), id, product, version));
+                    }
+                    case REMOVED -> {
+                        stock.remove(id);
+                        if (previous == null) {
+                            if (cold != null) applied.add(new InventoryChange(InventoryChange.Type.REMOVED, id, cold, version));
+                            continue;
+                        }
+                        indexes.forEach(index -> index.removed(previous));
+                        products = products.without(id);
+                        partitions = partitions.without(previous);
+                        changedProducts.remove(id);
+                        applied.add(new InventoryChange(InventoryChange.Type.REMOVED, id, previous, version));
+                    }
+                }
+            }
+            if (applied.isEmpty()) return;
+            current = current.withProducts(products, partitions);
+            changes.publish(applied);
+            spill(false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Sätter tillgängligt saldo; redan reserverade enheter påverkas inte
+    public void setStock(UUID id, long quantity) {
+        if (quantity < 0) { throw new IllegalArgumentException("Quantity cannot be negative."); }
+        writeLock.lock();
+        try {
+            stockOf(id).set(quantity);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Inleverans: ökar tillgängligt saldo
+    public void addStock(UUID id, long quantity) {
+        if (quantity < 0) { throw new IllegalArgumentException("Quantity cannot be negative."); }
+        writeLock.lock();
+        try {
+            stockOf(id).receive(quantity);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 0 för produkter utan saldo
+    public long availableStock(UUID id) {
+        StockCounter counter = stock.get(id);
+        return counter == null ? 0 : counter.available();
+    }
+
+    public long reservedStock(UUID id) {
+        StockCounter counter = stock.get(id);
+        return counter == null ? 0 : counter.reserved();
+    }
+
+    // Reserverar quantity enheter om så många finns tillgängliga, annars tomt. Går utan lås,
+    // så många trådar kan reservera samma produkt samtidigt utan att sälja mer än saldot.
+    public Optional<StockReservation> reserve(UUID id, long quantity) {
+        if (id == null) { throw new IllegalArgumentException("Product id cannot be null."); }
+        return reserveAll(Map.of(id, quantity));
+    }
+
+    // Reserverar en hel order: alla rader eller ingen. Raderna reserveras i tur och ordning och de
+    // redan reserverade släpps om någon rad inte räcker. Under tiden kan en annan order se de
+    // släppta enheterna som upptagna och själv få avslag.
+    public Optional<StockReservation> reserveAll(Map<UUID, Long> order) {
+        if (order == null) { throw new IllegalArgumentException("Order cannot be null."); }
+        if (order.isEmpty()) { throw new IllegalArgumentException("Order cannot be empty."); }
+        int lines = order.size();
+        UUID[] ids = new UUID[lines];
+        StockCounter[] counters = new StockCounter[lines];
+        long[] quantities = new long[lines];
+        int i = 0;
+        for (Map.Entry<UUID, Long> line : order.entrySet()) {
+            if (line.getKey() == null) { throw new IllegalArgumentException("Product id cannot be null."); }
+            if (line.getValue() == null || line.getValue() <= 0) { throw new IllegalArgumentException("Quantity must be positive."); }
+            ids[i] = line.getKey();
+            counters[i] = stock.get(line.getKey());
+            quantities[i] = line.getValue();
+            if (counters[i] == null) return Optional.empty();
+            i++;
+        }
+        for (i = 0; i < lines; i++) {
+            if (!counters[i].reserve(quantities[i])) {
+                while (--i >= 0) counters[i].release(quantities[i]);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new StockReservation(ids, counters, quantities));
+    }
+
+    // Saldot hör till produkten, varm eller kall, och försvinner när den tas bort
+    private StockCounter stockOf(UUID id) {
+        if (current.products().get(id) == null && (tiering == null || !tiering.tier().contains(id))) {
+            throw new NoSuchElementException("Product not found with id: " + id);
+        }
+        return stock.computeIfAbsent(id, key -> new StockCounter());
     }
 
     public boolean isEmpty() {
-        return productsById.isEmpty();
+        return current.isEmpty();
+    }
+
+    // Slår på den kalla nivån med filen som lagring; filen töms först. Därefter gäller size(),
+    // getProducts(), frågor och analyser produkterna i minnet, medan getProductById, prisändringar
+    // och remove även når produkter på disk.
+    public void enableColdTier(Path file, TieringPolicy policy) throws IOException {
+        if (file == null) { throw new IllegalArgumentException("Cold tier file cannot be null."); }
+        if (policy == null) { throw new IllegalArgumentException("Tiering policy cannot be null."); }
+        writeLock.lock();
+        try {
+            if (tiering != null) { throw new IllegalStateException("Cold tier is already enabled."); }
+            ColdTier tier = new ColdTier(file);
+            ActivityIndex activity = new ActivityIndex(() -> scheduler.clock().millis());
+            current.products().forEach(activity::added);
+            indexes.add(activity);
+            tiering = new Tiering(tier, policy, activity);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Flyttar tillbaka allt från disk till minnet, stänger av nivån och tar bort filen
+    public void disableColdTier() throws IOException {
+        writeLock.lock();
+        try {
+            Tiering disabled = tiering;
+            if (disabled == null) return;
+            for (UUID id : disabled.tier().ids()) {
+                restore(disabled.tier().read(id));
+            }
+            tiering = null;
+            indexes.remove(disabled.activity());
+            disabled.tier().close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public TieringPolicy getTieringPolicy() {
+        Tiering tiering = this.tiering;
+        return tiering == null ? null : tiering.policy();
+    }
+
+    // Antal produkter på disk
+    public int coldSize() {
+        Tiering tiering = this.tiering;
+        return tiering == null ? 0 : tiering.tier().size();
+    }
+
+    // Tillämpar policyn direkt istället för vid nästa dygnsskifte; returnerar antal flyttade
+    public int spillColdProducts() {
+        BulkMutationEvent event = new BulkMutationEvent();
+        event.begin();
+        today();
+        int sizeBefore;
+        int spilled;
+        writeLock.lock();
+        try {
+            sizeBefore = current.size();
+            spilled = spill(true);
+        } finally {
+            writeLock.unlock();
+        }
+        commit(event, "spillColdProducts", sizeBefore, spilled);
+        return spilled;
+    }
+
+    // Flyttar produkter till disk enligt policyn, under skrivlåset: med byAge utgångna och oanvända,
+    // och alltid de minst nyligen använda om fler än maxHotProducts ligger i minnet.
+    // Flytten är ingen lageränding, så inga ändringshändelser publiceras och index som följer hela
+    // lagret, som fraktplanerare, behåller produkten (InventoryIndex.spilled).
+    private int spill(boolean byAge) {
+        Tiering tiering = this.tiering;
+        if (tiering == null) return 0;
+        TieringPolicy policy = tiering.policy();
+        ProductTrie products = current.products();
+        Map<UUID, Product> selected = new LinkedHashMap<>();
+        if (byAge) {
+            LocalDate expiredBefore = current.today().minusDays(policy.expiredGraceDays());
+            for (Perishable perishable : expiryIndex.expiringOnOrBefore(expiredBefore.minusDays(1))) {
+                Product product = (Product) perishable;
+                selected.put(product.uuid(), product);
+            }
+            long inactiveSince = tiering.activity().now() - policy.inactiveAfterMillis();
+            for (UUID id : tiering.activity().inactiveSince(inactiveSince)) {
+                selected.putIfAbsent(id, products.get(id));
+            }
+        }
+        if (products.size() - selected.size() > policy.maxHotProducts()) {
+            int wanted = products.size() - policy.spillTarget();
+            for (UUID id : tiering.activity().leastRecentlyActive(wanted)) {
+                if (selected.size() >= wanted) break;
+                selected.putIfAbsent(id, products.get(id));
+            }
+        }
+        if (selected.isEmpty()) return 0;
+
+        tiering.tier().write(selected.values());
+        ProductPartitions partitions = current.partitions();
+        for (Product product : selected.values()) {
+            indexes.forEach(index -> index.spilled(product));
+            products = products.without(product.uuid());
+            partitions = partitions.without(product);
+        }
+        current = current.withProducts(products, partitions);
+        return selected.size();
+    }
+
+    // Produkten i minnet, eller hämtad från disk; null om den inte finns. Under skrivlåset.
+    private Product hot(UUID id) {
+        Product product = current.products().get(id);
+        return product != null ? product : faultIn(id);
+    }
+
+    // Gränsen för antal i minnet kontrolleras av anroparen efter hela operationen, så att en
+    // hämtning inte flyttar ut produkter som operationen redan valt
+    private Product faultIn(UUID id) {
+        if (tiering == null) return null;
+        Product product = tiering.tier().take(id);
+        if (product == null) return null;
+        restore(product);
+        return product;
+    }
+
+    // Produkter på disk som uppfyller villkoret, hämtade till minnet. Hela den kalla nivån läses och
+    // villkoret prövas på alla innan något flyttas, så ett undantag från villkoret lämnar nivåerna orörda.
+    private List<Product> faultInWhere(Predicate<? super Product> filter) {
+        if (tiering == null) return List.of();
+        List<Product> matched = new ArrayList<>();
+        for (UUID id : tiering.tier().ids()) {
+            Product product = tiering.tier().read(id);
+            if (filter.test(product)) matched.add(product);
+        }
+        for (Product product : matched) {
+            tiering.tier().discard(product.uuid());
+            restore(product);
+        }
+        return matched;
+    }
+
+    private void restore(Product product) {
+        indexes.forEach(index -> index.restored(product));
+        current = current.withProducts(current.products().with(product), current.partitions().with(product));
+    }
+
+    private record Tiering(ColdTier tier, TieringPolicy policy, ActivityIndex activity) {
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    // Fyller i och skickar en JFR-händelse för en bulkoperation, bara om JFR spelar in den
+    private void commit(BulkMutationEvent event, String operation, int sizeBefore, int affected) {
+        if (event.shouldCommit()) {
+            event.warehouse = name;
+            event.operation = operation;
+            event.inventorySize = sizeBefore;
+            event.resultSize = affected;
+            event.commit();
+        }
     }
 
     public Map<Category, List<Product>> getProductsGroupedByCategories() {
         Map<Category, List<Product>> grouped = new HashMap<>();
-        for (Product p : productsById.values()) {
-            grouped.computeIfAbsent(p.category(), k -> new ArrayList<>()).add(p);
+        for (Category category : categoryIndex.categories()) {
+            grouped.put(category, new ArrayList<>(categoryIndex.inCategory(category)));
         }
         return grouped;
     }
 
+    // Skrivskyddad vy utan kopiering, för interna genomsökningar
+    Collection<Product> productValues() {
+        return current.products().values();
+    }
+
+    ExpiryIndex expiryIndex() { return expiryIndex; }
+    PriceIndex priceIndex() { return priceIndex; }
+    CategoryIndex categoryIndex() { return categoryIndex; }
+    NameIndex nameIndex() { return nameIndex; }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
@@ -112,6 +983,6 @@ public class Warehouse {
 
     @Override
     public String toString() {
-        return "Warehouse{" + "name='" + name + '\'' + ", productsById=" + productsById + ", changedProducts=" + changedProducts + '}';
+        return "Warehouse{" + "name='" + name + '\'' + ", products=" + getProducts() + ", changedProducts=" + changedProducts + '}';
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,88 @@
 package com.example;
 
+import com.example.WarehouseMetrics.Operation;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Analyzer class that provides advanced warehouse operations.
  * Students must implement these methods for the advanced tests to pass.
  */
 class WarehouseAnalyzer {
-    private final Warehouse warehouse;
+    private final InventoryView warehouse;
+    private final WarehouseMetrics metrics;
+    private final ResultCache cache;
 
     public WarehouseAnalyzer(Warehouse warehouse) {
+        this(warehouse, warehouse.metrics(), warehouse.resultCache());
+    }
+
+    /**
+     * Analyzes a fixed {@link WarehouseSnapshot}. Every method sees the same products, prices and date
+     * regardless of concurrent writers; queries scan the snapshot instead of using the warehouse indexes.
+     */
+    public WarehouseAnalyzer(WarehouseSnapshot snapshot) {
+        this(snapshot, snapshot.metrics(), snapshot.resultCache());
+    }
+
+    private WarehouseAnalyzer(InventoryView warehouse, WarehouseMetrics metrics, ResultCache cache) {
         this.warehouse = warehouse;
+        this.metrics = metrics;
+        this.cache = cache;
+    }
+
+    /**
+     * Runs an analyzer method body, records its latency in the warehouse metrics when enabled and
+     * emits an {@link AnalyzerRunEvent} when JFR is recording it. Event fields are only computed
+     * once the event is known to be committed, so a disabled event costs nothing after JIT.
+     */
+    private <T> T measure(Operation operation, Supplier<T> body) {
+        AnalyzerRunEvent event = new AnalyzerRunEvent();
+        event.begin();
+        long start = metrics.start();
+        T result = body.get();
+        metrics.record(operation, start);
+        if (event.shouldCommit()) {
+            event.warehouse = warehouse.getName();
+            event.operation = operation.name();
+            event.inventorySize = warehouse.size();
+            event.resultSize = sizeOf(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #measure}, but returns the cached result when the inventory is at the same version as
+     * when the result was computed. A result is only cached if no mutation happened while it was computed,
+     * so a cached value always describes exactly one version. Cached collections are unmodifiable; the
+     * public methods return a copy, so callers may sort or modify what they get.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(Operation operation, Object argument, Supplier<T> body) {
+        return measure(operation, () -> {
+            long version = warehouse.version();
+            ResultCache.Key key = new ResultCache.Key(operation, argument, version);
+            Object hit = cache.get(key);
+            if (hit != null) return (T) hit;
+            T result = body.get();
+            if (warehouse.version() == version) cache.put(key, result);
+            return result;
+        });
+    }
+
+    private static int sizeOf(Object result) {
+        if (result instanceof Collection<?> collection) return collection.size();
+        if (result instanceof Page<?> page) return page.items().size();
+        if (result instanceof Map<?, ?> map) return map.size();
+        return result == null ? 0 : 1;
     }
 
     // Search and Filter Methods
@@ -24,17 +92,10 @@ class WarehouseAnalyzer {
      *
      * @param minPrice the lower bound (inclusive); must not be null
      * @param maxPrice the upper bound (inclusive); must not be null and should be >= minPrice
-     * @return a list of products with minPrice <= price <= maxPrice, in the warehouse's iteration order
+     * @return a list of products with minPrice <= price <= maxPrice, in ascending price order
      */
     public List<Product> findProductsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        List<Product> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            BigDecimal price = p.price();
-            if (price.compareTo(minPrice) >= 0 && price.compareTo(maxPrice) <= 0) {
-                result.add(p);
-            }
-        }
-        return result;
+        return measure(Operation.FIND_IN_PRICE_RANGE, () -> warehouse.query().priceBetween(minPrice, maxPrice).list());
     }
 
     /**
@@ -42,41 +103,29 @@ class WarehouseAnalyzer {
      * including items that expire today, and excluding items already expired. Non-perishables are ignored.
      * Test expectation: when days = 3, items expiring Today/Tomorrow/In3Days are included; older or non-perishable are not.
      *
+     * Reads the warehouse's expiry index, so only the date buckets inside the window are visited.
+     *
      * @param days number of days ahead to include (e.g., 3 includes today, 1, 2, and 3 days ahead)
-     * @return list of Perishable items expiring within the window
+     * @return list of Perishable items expiring within the window, ordered by expiration date
      */
     public List<Perishable> findProductsExpiringWithinDays(int days) {
-        LocalDate today = LocalDate.now();
-        LocalDate end = today.plusDays(days);
-        List<Perishable> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            if (p instanceof Perishable per) {
-                LocalDate exp = per.expirationDate();
-                if (!exp.isBefore(today) && !exp.isAfter(end)) {
-                    result.add(per);
-                }
-            }
-        }
-        return result;
+        return measure(Operation.FIND_EXPIRING_WITHIN_DAYS, () -> {
+            LocalDate today = warehouse.today();
+            return warehouse.perishablesExpiringBetween(today, today.plusDays(days));
+        });
     }
 
     /**
      * Performs a case-insensitive partial name search.
      * Test expectation: searching for "milk" returns all products whose name contains that substring,
      * regardless of letter casing or presence of symbols/spaces around it.
+     * Terms of three or more characters are answered from the warehouse's trigram name index.
      *
      * @param searchTerm substring to search for (case-insensitive)
      * @return list of matching products
      */
     public List<Product> searchProductsByName(String searchTerm) {
-        String term = searchTerm.toLowerCase(Locale.ROOT);
-        List<Product> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            if (p.name().toLowerCase(Locale.ROOT).contains(term)) {
-                result.add(p);
-            }
-        }
-        return result;
+        return measure(Operation.SEARCH_BY_NAME, () -> warehouse.query().nameContains(searchTerm).list());
     }
 
     /**
@@ -84,16 +133,156 @@ class WarehouseAnalyzer {
      * While not asserted directly by tests, this helper is consistent with price-based filtering.
      *
      * @param price threshold (exclusive)
-     * @return list of products with price > threshold
+     * @return list of products with price > threshold, in ascending price order
      */
     public List<Product> findProductsAbovePrice(BigDecimal price) {
-        List<Product> result = new ArrayList<>();
-        for (Product p : warehouse.getProducts()) {
-            if (p.price().compareTo(price) > 0) {
-                result.add(p);
-            }
-        }
-        return result;
+        return measure(Operation.FIND_ABOVE_PRICE, () -> warehouse.query().priceAbove(price).list());
+    }
+
+    // Lazy and Paged Search Methods
+    /**
+     * Lazy variant of {@link #findProductsInPriceRange}: walks the price index and stops as soon as the
+     * consumer stops pulling. On a live warehouse the stream sees concurrent changes weakly consistently;
+     * analyze a {@link WarehouseSnapshot} for an exact state. Not recorded in the metrics, since its cost depends on the consumer.
+     *
+     * @param minPrice the lower bound (inclusive)
+     * @param maxPrice the upper bound (inclusive)
+     * @return a stream of products in ascending price order
+     */
+    public Stream<Product> streamProductsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return warehouse.query().priceBetween(minPrice, maxPrice).stream();
+    }
+
+    /**
+     * Lazy variant of {@link #findProductsExpiringWithinDays}, reading one date bucket at a time.
+     *
+     * @param days number of days ahead to include
+     * @return a stream of perishables ordered by expiration date
+     */
+    public Stream<Perishable> streamProductsExpiringWithinDays(int days) {
+        return warehouse.query().expiringWithinDays(days).stream().map(Perishable.class::cast);
+    }
+
+    /**
+     * Lazy variant of {@link #searchProductsByName}.
+     *
+     * @param searchTerm substring to search for (case-insensitive)
+     * @return a stream of matching products
+     */
+    public Stream<Product> streamProductsByName(String searchTerm) {
+        return warehouse.query().nameContains(searchTerm).stream();
+    }
+
+    /**
+     * Lazy variant of {@link #findProductsAbovePrice}.
+     *
+     * @param price threshold (exclusive)
+     * @return a stream of products in ascending price order
+     */
+    public Stream<Product> streamProductsAbovePrice(BigDecimal price) {
+        return warehouse.query().priceAbove(price).stream();
+    }
+
+    /**
+     * One page of {@link #findProductsInPriceRange}, ordered by price and then id. Pass the previous
+     * page's {@link Page#next()} as {@code after}, or null for the first page. The cost is proportional
+     * to the page size, not to the number of products in the range.
+     *
+     * @param minPrice the lower bound (inclusive)
+     * @param maxPrice the upper bound (inclusive)
+     * @param after cursor from the previous page, or null
+     * @param pageSize maximum number of products on the page
+     * @return the page and the cursor for the next one
+     */
+    public Page<Product> findProductsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice, PageCursor after, int pageSize) {
+        return measure(Operation.FIND_IN_PRICE_RANGE, () -> warehouse.query().priceBetween(minPrice, maxPrice).page(after, pageSize));
+    }
+
+    /**
+     * One page of {@link #findProductsExpiringWithinDays}, ordered by price and then id.
+     *
+     * @param days number of days ahead to include
+     * @param after cursor from the previous page, or null
+     * @param pageSize maximum number of products on the page
+     * @return the page and the cursor for the next one
+     */
+    public Page<Product> findProductsExpiringWithinDays(int days, PageCursor after, int pageSize) {
+        return measure(Operation.FIND_EXPIRING_WITHIN_DAYS, () -> warehouse.query().expiringWithinDays(days).page(after, pageSize));
+    }
+
+    /**
+     * One page of {@link #searchProductsByName}, ordered by price and then id.
+     *
+     * @param searchTerm substring to search for (case-insensitive)
+     * @param after cursor from the previous page, or null
+     * @param pageSize maximum number of products on the page
+     * @return the page and the cursor for the next one
+     */
+    public Page<Product> searchProductsByName(String searchTerm, PageCursor after, int pageSize) {
+        return measure(Operation.SEARCH_BY_NAME, () -> warehouse.query().nameContains(searchTerm).page(after, pageSize));
+    }
+
+    /**
+     * One page of {@link #findProductsAbovePrice}, ordered by price and then id.
+     *
+     * @param price threshold (exclusive)
+     * @param after cursor from the previous page, or null
+     * @param pageSize maximum number of products on the page
+     * @return the page and the cursor for the next one
+     */
+    public Page<Product> findProductsAbovePrice(BigDecimal price, PageCursor after, int pageSize) {
+        return measure(Operation.FIND_ABOVE_PRICE, () -> warehouse.query().priceAbove(price).page(after, pageSize));
+    }
+
+    // Top-K Methods
+    /**
+     * Returns the {@code k} most expensive products, most expensive first. Read straight from the end of
+     * the warehouse's price index, so the cost is O(k). Equal prices are ordered by descending product id.
+     *
+     * @param k number of products to return; must not be negative
+     * @return up to k products in descending price order
+     */
+    public List<Product> findMostExpensiveProducts(int k) {
+        return measure(Operation.TOP_K_BY_PRICE, () -> warehouse.mostExpensiveProducts(k));
+    }
+
+    /**
+     * Returns the {@code k} cheapest products, cheapest first, from the start of the price index.
+     * Equal prices are ordered by ascending product id.
+     *
+     * @param k number of products to return; must not be negative
+     * @return up to k products in ascending price order
+     */
+    public List<Product> findCheapestProducts(int k) {
+        return measure(Operation.TOP_K_BY_PRICE, () -> warehouse.cheapestProducts(k));
+    }
+
+    /**
+     * Returns the {@code k} heaviest shippable products, heaviest first, using a bounded heap in
+     * O(n log k). Equal weights are ordered by descending product id.
+     *
+     * @param k number of products to return; must not be negative
+     * @return up to k shippables in descending weight order
+     */
+    public List<Shippable> findHeaviestProducts(int k) {
+        return measure(Operation.TOP_K_BY_WEIGHT, () -> TopK.largest(warehouse.shippableProducts(), k,
+                Comparator.comparingDouble(Shippable::weight).thenComparing(WarehouseAnalyzer::idOf)));
+    }
+
+    /**
+     * Returns the {@code k} shippable products with the highest shipping cost, most costly first, using a
+     * bounded heap in O(n log k). Equal costs are ordered by descending product id.
+     *
+     * @param k number of products to return; must not be negative
+     * @return up to k shippables in descending shipping cost order
+     */
+    public List<Shippable> findHighestShippingCostProducts(int k) {
+        return measure(Operation.TOP_K_BY_SHIPPING_COST, () -> TopK.largest(warehouse.shippableProducts(), k,
+                Comparator.comparing(warehouse::shippingCost).thenComparing(WarehouseAnalyzer::idOf)));
+    }
+
+    private static UUID idOf(Shippable shippable) {
+        return ((Product) shippable).uuid();
     }
 
     // Analytics Methods
@@ -106,34 +295,36 @@ class WarehouseAnalyzer {
      * @return a map from Category to weighted average price
      */
     public Map<Category, BigDecimal> calculateWeightedAveragePriceByCategory() {
-        Map<Category, List<Product>> byCat = warehouse.getProducts().stream()
-                .collect(Collectors.groupingBy(Product::category));
-        Map<Category, BigDecimal> result = new HashMap<>();
-        for (Map.Entry<Category, List<Product>> e : byCat.entrySet()) {
-            Category cat = e.getKey();
-            List<Product> items = e.getValue();
-            BigDecimal weightedSum = BigDecimal.ZERO;
-            double weightSum = 0.0;
-            for (Product p : items) {
-                if (p instanceof Shippable s) {
-                    double w = Optional.ofNullable(s.weight()).orElse(0.0);
-                    if (w > 0) {
-                        BigDecimal wBD = BigDecimal.valueOf(w);
-                        weightedSum = weightedSum.add(p.price().multiply(wBD));
-                        weightSum += w;
+        return new HashMap<>(cached(Operation.WEIGHTED_AVERAGE_BY_CATEGORY, null, () -> {
+            Map<Category, List<Product>> byCat = warehouse.getProducts().stream()
+                    .collect(Collectors.groupingBy(Product::category));
+            Map<Category, BigDecimal> result = new HashMap<>();
+            for (Map.Entry<Category, List<Product>> e : byCat.entrySet()) {
+                Category cat = e.getKey();
+                List<Product> items = e.getValue();
+                BigDecimal weightedSum = BigDecimal.ZERO;
+                double weightSum = 0.0;
+                for (Product p : items) {
+                    if (p instanceof Shippable s) {
+                        double w = Optional.ofNullable(s.weight()).orElse(0.0);
+                        if (w > 0) {
+                            BigDecimal wBD = BigDecimal.valueOf(w);
+                            weightedSum = weightedSum.add(p.price().multiply(wBD));
+                            weightSum += w;
+                        }
                     }
                 }
+                BigDecimal avg;
+                if (weightSum > 0) {
+                    avg = weightedSum.divide(BigDecimal.valueOf(weightSum), 2, RoundingMode.HALF_UP);
+                } else {
+                    BigDecimal sum = items.stream().map(Product::price).reduce(BigDecimal.ZERO, BigDecimal::add);
+                    avg = sum.divide(BigDecimal.valueOf(items.size()), 2, RoundingMode.HALF_UP);
+                }
+                result.put(cat, avg);
             }
-            BigDecimal avg;
-            if (weightSum > 0) {
-                avg = weightedSum.divide(BigDecimal.valueOf(weightSum), 2, RoundingMode.HALF_UP);
-            } else {
-                BigDecimal sum = items.stream().map(Product::price).reduce(BigDecimal.ZERO, BigDecimal::add);
-                avg = sum.divide(BigDecimal.valueOf(items.size()), 2, RoundingMode.HALF_UP);
-            }
-            result.put(cat, avg);
-        }
-        return result;
+            return Collections.unmodifiableMap(result);
+        }));
     }
 
     /**
@@ -145,38 +336,67 @@ class WarehouseAnalyzer {
      * @return list of products considered outliers
      */
     public List<Product> findPriceOutliers(double standardDeviations) {
-        List<Product> products = warehouse.getProducts();
-        int n = products.size();
-        if (n == 0) return List.of();
-        double sum = products.stream().map(Product::price).mapToDouble(bd -> bd.doubleValue()).sum();
-        double mean = sum / n;
-        double variance = products.stream()
-                .map(Product::price)
-                .mapToDouble(bd -> Math.pow(bd.doubleValue() - mean, 2))
-                .sum() / n;
-        double std = Math.sqrt(variance);
-        double threshold = standardDeviations * std;
-        List<Product> outliers = new ArrayList<>();
-        for (Product p : products) {
-            double diff = Math.abs(p.price().doubleValue() - mean);
-            if (diff > threshold) outliers.add(p);
-        }
-
-            Product cheap = products.get(0);
-            Product expensive = products.get(0);
+        return new ArrayList<>(cached(Operation.PRICE_OUTLIERS, standardDeviations, () -> {
+            List<Product> products = warehouse.getProducts();
+            int n = products.size();
+            if (n == 0) return List.of();
+            double sum = products.stream().map(Product::price).mapToDouble(bd -> bd.doubleValue()).sum();
+            double mean = sum / n;
+            double variance = products.stream()
+                    .map(Product::price)
+                    .mapToDouble(bd -> Math.pow(bd.doubleValue() - mean, 2))
+                    .sum() / n;
+            double std = Math.sqrt(variance);
+            double threshold = standardDeviations * std;
+            List<Product> outliers = new ArrayList<>();
             for (Product p : products) {
-                if (p.price().doubleValue() < cheap.price().doubleValue()) {
-                    cheap = p;
-                }
-                if (p.price().doubleValue() > expensive.price().doubleValue()) {
-                    expensive = p;
-                }
+                double diff = Math.abs(p.price().doubleValue() - mean);
+                if (diff > threshold) outliers.add(p);
             }
 
-            if (!outliers.contains(cheap)) outliers.add(cheap);
-            if (!outliers.contains(expensive)) outliers.add(expensive);
+                Product cheap = products.get(0);
+                Product expensive = products.get(0);
+                for (Product p : products) {
+                    if (p.price().doubleValue() < cheap.price().doubleValue()) {
+                        cheap = p;
+                    }
+                    if (p.price().doubleValue() > expensive.price().doubleValue()) {
+                        expensive = p;
+                    }
+                }
+
+                if (!outliers.contains(cheap)) outliers.add(cheap);
+                if (!outliers.contains(expensive)) outliers.add(expensive);
+
+            return Collections.unmodifiableList(outliers);
+        }));
+    }
+
+    /**
+     * Returns the approximate median, 90th and 99th percentile price over all products.
+     * Read from a price sketch the warehouse maintains on every change, so no prices are sorted;
+     * each value is within about 1.6% of the exact percentile price.
+     *
+     * @return the price quantiles, all zero for an empty inventory
+     */
+    public PriceQuantiles getPriceQuantiles() {
+        return measure(Operation.PRICE_QUANTILES, () -> PriceQuantiles.of(warehouse::priceQuantile));
+    }
 
-        return outliers;
+    /**
+     * Returns the approximate median, 90th and 99th percentile price per category, with the same
+     * error bound as {@link #getPriceQuantiles()}.
+     *
+     * @return a map from Category to its price quantiles
+     */
+    public Map<Category, PriceQuantiles> getPriceQuantilesByCategory() {
+        return measure(Operation.PRICE_QUANTILES, () -> {
+            Map<Category, PriceQuantiles> result = new HashMap<>();
+            for (Category category : warehouse.categories()) {
+                result.put(category, PriceQuantiles.of(q -> warehouse.priceQuantile(category, q)));
+            }
+            return result;
+        });
     }
 
     /**
@@ -189,31 +409,72 @@ class WarehouseAnalyzer {
      * @return list of ShippingGroup objects covering all shippable products
      */
     public List<ShippingGroup> optimizeShippingGroups(BigDecimal maxWeightPerGroup) {
-        double maxW = maxWeightPerGroup.doubleValue();
-        List<Shippable> items = warehouse.shippableProducts();
-        // Sort by descending weight (First-Fit Decreasing)
-        items.sort((a, b) -> Double.compare(Objects.requireNonNullElse(b.weight(), 0.0), Objects.requireNonNullElse(a.weight(), 0.0)));
-        List<List<Shippable>> bins = new ArrayList<>();
-        for (Shippable item : items) {
-            double w = Objects.requireNonNullElse(item.weight(), 0.0);
-            boolean placed = false;
-            for (List<Shippable> bin : bins) {
-                double binWeight = bin.stream().map(Shippable::weight).reduce(0.0, Double::sum);
-                if (binWeight + w <= maxW) {
-                    bin.add(item);
-                    placed = true;
-                    break;
+        return new ArrayList<>(cached(Operation.OPTIMIZE_SHIPPING_GROUPS, maxWeightPerGroup.stripTrailingZeros(), () -> {
+            double maxW = maxWeightPerGroup.doubleValue();
+            List<Shippable> items = warehouse.shippableProducts();
+            // Sort by descending weight (First-Fit Decreasing)
+            items.sort((a, b) -> Double.compare(Objects.requireNonNullElse(b.weight(), 0.0), Objects.requireNonNullElse(a.weight(), 0.0)));
+            List<List<Shippable>> bins = new ArrayList<>();
+            for (Shippable item : items) {
+                double w = Objects.requireNonNullElse(item.weight(), 0.0);
+                boolean placed = false;
+                for (List<Shippable> bin : bins) {
+                    double binWeight = bin.stream().map(Shippable::weight).reduce(0.0, Double::sum);
+                    if (binWeight + w <= maxW) {
+                        bin.add(item);
+                        placed = true;
+                        break;
+                    }
+                }
+                if (!placed) {
+                    List<Shippable> newBin = new ArrayList<>();
+                    newBin.add(item);
+                    bins.add(newBin);
                 }
             }
-            if (!placed) {
-                List<Shippable> newBin = new ArrayList<>();
-                newBin.add(item);
-                bins.add(newBin);
+            List<ShippingGroup> groups = new ArrayList<>();
+            for (List<Shippable> bin : bins) groups.add(new ShippingGroup(bin, warehouse::shippingCost));
+            return Collections.unmodifiableList(groups);
+        }));
+    }
+
+    /**
+     * Packs shippable products like {@link #optimizeShippingGroups(BigDecimal)} and then spends up to
+     * {@code budget} improving the first-fit-decreasing packing with a local search that moves and swaps
+     * products between groups to empty whole groups. Searches run on every available core.
+     * The total shipping cost is the sum of the products' costs whatever the grouping, so the search
+     * minimizes the number of groups. The best feasible packing found is returned when the budget expires,
+     * or earlier once the packing reaches the lower bound {@code ceil(total weight / max weight)}.
+     *
+     * @param maxWeightPerGroup maximum total weight per group (inclusive)
+     * @param budget maximum time to spend, including the initial packing
+     * @return list of ShippingGroup objects covering all shippable products
+     */
+    public List<ShippingGroup> optimizeShippingGroups(BigDecimal maxWeightPerGroup, Duration budget) {
+        return optimizeShippingGroups(maxWeightPerGroup, budget, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Same as {@link #optimizeShippingGroups(BigDecimal, Duration)} with an explicit number of concurrent
+     * searches; {@code 1} searches on the calling thread only.
+     *
+     * @param maxWeightPerGroup maximum total weight per group (inclusive)
+     * @param budget maximum time to spend, including the initial packing
+     * @param parallelism number of concurrent searches; must be at least 1
+     * @return list of ShippingGroup objects covering all shippable products
+     */
+    public List<ShippingGroup> optimizeShippingGroups(BigDecimal maxWeightPerGroup, Duration budget, int parallelism) {
+        if (budget == null || budget.isNegative()) { throw new IllegalArgumentException("Time budget cannot be null or negative."); }
+        long deadline = System.nanoTime() + budget.toNanos();
+        List<ShippingGroup> initial = optimizeShippingGroups(maxWeightPerGroup);
+        return measure(Operation.IMPROVE_SHIPPING_GROUPS, () -> {
+            List<List<Shippable>> packing = initial.stream().map(ShippingGroup::getProducts).toList();
+            List<ShippingGroup> groups = new ArrayList<>();
+            for (List<Shippable> group : ShippingGroupSearch.improve(packing, maxWeightPerGroup.doubleValue(), deadline, parallelism)) {
+                groups.add(new ShippingGroup(group, warehouse::shippingCost));
             }
-        }
-        List<ShippingGroup> groups = new ArrayList<>();
-        for (List<Shippable> bin : bins) groups.add(new ShippingGroup(bin));
-        return groups;
+            return groups;
+        });
     }
 
     // Business Rules Methods
@@ -225,31 +486,19 @@ class WarehouseAnalyzer {
      *  - Expires within 3 days: 15% discount (price * 0.85)
      *  - Otherwise (including >3 days ahead): no discount
      * Non-perishable products should retain their original price.
+     * The tiers come from the warehouse's {@link DiscountRules}; prices are read from its maintained
+     * discount table, so no date arithmetic or BigDecimal multiplication happens per call.
      *
      * @return a map from Product to its discounted price
      */
     public Map<Product, BigDecimal> calculateExpirationBasedDiscounts() {
-        Map<Product, BigDecimal> result = new HashMap<>();
-        LocalDate today = LocalDate.now();
-        for (Product p : warehouse.getProducts()) {
-            BigDecimal discounted = p.price();
-            if (p instanceof Perishable per) {
-                LocalDate exp = per.expirationDate();
-                long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(today, exp);
-                if (daysBetween == 0) {
-                    discounted = p.price().multiply(new BigDecimal("0.50"));
-                } else if (daysBetween == 1) {
-                    discounted = p.price().multiply(new BigDecimal("0.70"));
-                } else if (daysBetween > 1 && daysBetween <= 3) {
-                    discounted = p.price().multiply(new BigDecimal("0.85"));
-                } else {
-                    discounted = p.price();
-                }
-                discounted = discounted.setScale(2, RoundingMode.HALF_UP);
+        return new HashMap<>(cached(Operation.EXPIRATION_DISCOUNTS, null, () -> {
+            Map<Product, BigDecimal> result = new HashMap<>();
+            for (Product p : warehouse.getProducts()) {
+                result.put(p, warehouse.discountedPrice(p));
             }
-            result.put(p, discounted);
-        }
-        return result;
+            return Collections.unmodifiableMap(result);
+        }));
     }
 
     /**
@@ -267,13 +516,15 @@ class WarehouseAnalyzer {
      * @return InventoryValidation summary with computed metrics
      */
     public InventoryValidation validateInventoryConstraints() {
-        List<Product> items = warehouse.getProducts();
-        if (items.isEmpty()) return new InventoryValidation(0.0, 0);
-        BigDecimal highValueThreshold = new BigDecimal("1000");
-        long highValueCount = items.stream().filter(p -> p.price().compareTo(highValueThreshold) >= 0).count();
-        double percentage = (highValueCount * 100.0) / items.size();
-        int diversity = (int) items.stream().map(Product::category).distinct().count();
-        return new InventoryValidation(percentage, diversity);
+        return cached(Operation.VALIDATE_INVENTORY, null, () -> {
+            List<Product> items = warehouse.getProducts();
+            if (items.isEmpty()) return new InventoryValidation(0.0, 0);
+            BigDecimal highValueThreshold = new BigDecimal("1000");
+            long highValueCount = items.stream().filter(p -> p.price().compareTo(highValueThreshold) >= 0).count();
+            double percentage = (highValueCount * 100.0) / items.size();
+            int diversity = (int) items.stream().map(Product::category).distinct().count();
+            return new InventoryValidation(percentage, diversity);
+        });
     }
 
     /**
@@ -282,104 +533,24 @@ class WarehouseAnalyzer {
      *  - totalProducts: number of products (4)
      *  - totalValue: sum of prices (1590.50)
      *  - averagePrice: totalValue / totalProducts rounded to two decimals (397.63)
-     *  - expiredCount: number of perishable items whose expiration date is before today (1)
+     *  - expiredCount: number of perishable items whose expiration date is before today (1),
+     *    read from the expiry state counts the warehouse recomputes at each day rollover
      *  - categoryCount: number of distinct categories across all products (2)
-     *  - mostExpensiveProduct / cheapestProduct: extremes by price
+     *  - mostExpensiveProduct / cheapestProduct: extremes by price, read from the ends of the price index
      *
      * @return InventoryStatistics snapshot containing aggregated metrics
      */
     public InventoryStatistics getInventoryStatistics() {
-        List<Product> items = warehouse.getProducts();
-        int totalProducts = items.size();
-        BigDecimal totalValue = items.stream().map(Product::price).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal averagePrice = totalProducts == 0 ? BigDecimal.ZERO : totalValue.divide(BigDecimal.valueOf(totalProducts), 2, RoundingMode.HALF_UP);
-        int expiredCount = 0;
-        for (Product p : items) {
-            if (p instanceof Perishable per && per.expirationDate().isBefore(LocalDate.now())) {
-                expiredCount++;
-            }
-        }
-        int categoryCount = (int) items.stream().map(Product::category).distinct().count();
-        Product mostExpensive = items.stream().max(Comparator.comparing(Product::price)).orElse(null);
-        Product cheapest = items.stream().min(Comparator.comparing(Product::price)).orElse(null);
-        return new InventoryStatistics(totalProducts, totalValue, averagePrice, expiredCount, categoryCount, mostExpensive, cheapest);
+        return cached(Operation.INVENTORY_STATISTICS, null, () -> {
+            List<Product> items = warehouse.getProducts();
+            int totalProducts = items.size();
+            BigDecimal totalValue = items.stream().map(Product::price).reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal averagePrice = totalProducts == 0 ? BigDecimal.ZERO : totalValue.divide(BigDecimal.valueOf(totalProducts), 2, RoundingMode.HALF_UP);
+            int expiredCount = warehouse.countPerishables(ExpiryState.EXPIRED);
+            int categoryCount = (int) items.stream().map(Product::category).distinct().count();
+            Product mostExpensive = warehouse.mostExpensiveProducts(1).stream().findFirst().orElse(null);
+            Product cheapest = warehouse.cheapestProducts(1).stream().findFirst().orElse(null);
+            return new InventoryStatistics(totalProducts, totalValue, averagePrice, expiredCount, categoryCount, mostExpensive, cheapest);
+        });
     }
 }
-
-/**
- * Represents a group of products for shipping
- */
-class ShippingGroup {
-    private final List<Shippable> products;
-    private final Double totalWeight;
-    private final BigDecimal totalShippingCost;
-
-    public ShippingGroup(List<Shippable> products) {
-        this.products = new ArrayList<>(products);
-        this.totalWeight = products.stream()
-                .map(Shippable::weight)
-                .reduce(0.0, Double::sum);
-        this.totalShippingCost = products.stream()
-                .map(Shippable::calculateShippingCost)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    public List<Shippable> getProducts() { return new ArrayList<>(products); }
-    public Double getTotalWeight() { return totalWeight; }
-    public BigDecimal getTotalShippingCost() { return totalShippingCost; }
-}
-
-/**
- * Validation result for inventory constraints
- */
-class InventoryValidation {
-    private final double highValuePercentage;
-    private final int categoryDiversity;
-    private final boolean highValueWarning;
-    private final boolean minimumDiversity;
-
-    public InventoryValidation(double highValuePercentage, int categoryDiversity) {
-        this.highValuePercentage = highValuePercentage;
-        this.categoryDiversity = categoryDiversity;
-        this.highValueWarning = highValuePercentage > 70.0;
-        this.minimumDiversity = categoryDiversity >= 2;
-    }
-
-    public double getHighValuePercentage() { return highValuePercentage; }
-    public int getCategoryDiversity() { return categoryDiversity; }
-    public boolean isHighValueWarning() { return highValueWarning; }
-    public boolean hasMinimumDiversity() { return minimumDiversity; }
-}
-
-/**
- * Comprehensive inventory statistics
- */
-class InventoryStatistics {
-    private final int totalProducts;
-    private final BigDecimal totalValue;
-    private final BigDecimal averagePrice;
-    private final int expiredCount;
-    private final int categoryCount;
-    private final Product mostExpensiveProduct;
-    private final Product cheapestProduct;
-
-    public InventoryStatistics(int totalProducts, BigDecimal totalValue, BigDecimal averagePrice,
-                               int expiredCount, int categoryCount,
-                               Product mostExpensiveProduct, Product cheapestProduct) {
-        this.totalProducts = totalProducts;
-        this.totalValue = totalValue;
-        this.averagePrice = averagePrice;
-        this.expiredCount = expiredCount;
-        this.categoryCount = categoryCount;
-        this.mostExpensiveProduct = mostExpensiveProduct;
-        this.cheapestProduct = cheapestProduct;
-    }
-
-    public int getTotalProducts() { return totalProducts; }
-    public BigDecimal getTotalValue() { return totalValue; }
-    public BigDecimal getAveragePrice() { return averagePrice; }
-    public int getExpiredCount() { return expiredCount; }
-    public int getCategoryCount() { return categoryCount; }
-    public Product getMostExpensiveProduct() { return mostExpensiveProduct; }
-    public Product getCheapestProduct() { return cheapestProduct; }
-}
\ No newline at end of file
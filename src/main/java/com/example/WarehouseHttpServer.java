@@ -0,0 +1,427 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Inbyggt HTTP-gränssnitt mot ett Warehouse, byggt på JDK:ns com.sun.net.httpserver med en virtuell
+// tråd per förfrågan. Sökningar går mot lagrets index och är sidindelade; rapporterna räknas på en
+// ögonblicksbild så att varje svar är konsekvent. Minnet hålls begränsat genom ett tak för samtidiga
+// förfrågningar (överskott får 503), ett tak för förfrågans kropp och ett tak för sidstorlek och k.
+// Rapporter som listar hela lagret byggs i minnet och har ett eget, mycket lägre tak.
+public final class WarehouseHttpServer implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 50_000;
+    public static final int DEFAULT_MAX_CONCURRENT_REPORTS = 4;
+    private static final Set<String> INVENTORY_REPORTS = Set.of("outliers", "discounts", "shipping-groups");
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1_000;
+    static final int MAX_DAYS = 36_500;
+    private static final int MAX_BODY_BYTES = 4_096;
+    private static final Pattern PRICE_FIELD = Pattern.compile("\"price\"\\s*:\\s*\"?(-?[0-9]+(?:\\.[0-9]+)?)\"?");
+
+    private final Warehouse warehouse;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    final Semaphore reportPermits;
+
+    private WarehouseHttpServer(Warehouse warehouse, HttpServer server, int maxConcurrentRequests, int maxConcurrentReports) {
+        this.warehouse = warehouse;
+        this.server = server;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.reportPermits = new Semaphore(maxConcurrentReports);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    // Startar på adressen; port 0 väljer en ledig port (se port())
+    public static WarehouseHttpServer start(Warehouse warehouse, InetSocketAddress address) throws IOException {
+        return start(warehouse, address, DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_MAX_CONCURRENT_REPORTS);
+    }
+
+    public static WarehouseHttpServer start(Warehouse warehouse, InetSocketAddress address, int maxConcurrentRequests) throws IOException {
+        return start(warehouse, address, maxConcurrentRequests, DEFAULT_MAX_CONCURRENT_REPORTS);
+    }
+
+    public static WarehouseHttpServer start(Warehouse warehouse, InetSocketAddress address, int maxConcurrentRequests,
+                                            int maxConcurrentReports) throws IOException {
+        if (warehouse == null) { throw new IllegalArgumentException("Warehouse cannot be null."); }
+        if (maxConcurrentRequests <= 0) { throw new IllegalArgumentException("Max concurrent requests must be positive."); }
+        if (maxConcurrentReports <= 0) { throw new IllegalArgumentException("Max concurrent reports must be positive."); }
+        WarehouseHttpServer httpServer = new WarehouseHttpServer(warehouse, HttpServer.create(address, 0), maxConcurrentRequests,
+                maxConcurrentReports);
+        httpServer.server.start();
+        return httpServer;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!permits.tryAcquire()) {
+            respond(exchange, 503, error("Server is busy."));
+            return;
+        }
+        // Rapportens tillstånd hålls tills svaret är skrivet, så högst så många hela lager ligger i minnet
+        boolean inventoryReport = isInventoryReport(exchange);
+        if (inventoryReport && !reportPermits.tryAcquire()) {
+            permits.release();
+            respond(exchange, 503, error("Server is busy."));
+            return;
+        }
+        try {
+            Response response;
+            try {
+                response = route(exchange);
+            } catch (NoSuchElementException e) {
+                response = new Response(404, error(e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                response = new Response(400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                response = new Response(500, error("Internal error."));
+            }
+            respond(exchange, response.status(), response.body());
+        } finally {
+            if (inventoryReport) reportPermits.release();
+            permits.release();
+        }
+    }
+
+    private static boolean isInventoryReport(HttpExchange exchange) {
+        List<String> path = segments(exchange.getRequestURI().getRawPath());
+        return path.size() == 2 && path.get(0).equals("reports") && INVENTORY_REPORTS.contains(path.get(1));
+    }
+
+    private record Response(int status, String body) {
+        static Response ok(JsonWriter json) { return new Response(200, json.toString()); }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        List<String> path = segments(exchange.getRequestURI().getRawPath());
+        Map<String, String> params = parameters(exchange.getRequestURI().getRawQuery());
+
+        if (path.size() == 2 && path.get(0).equals("products")) {
+            if (!method.equals("GET")) return methodNotAllowed();
+            Product product = warehouse.getProductById(parseId(path.get(1)))
+                    .orElseThrow(() -> new NoSuchElementException("Product not found with id: " + path.get(1)));
+            return Response.ok(product(new JsonWriter(), warehouse, product));
+        }
+        if (path.size() == 3 && path.get(0).equals("products") && path.get(2).equals("price")) {
+            if (!method.equals("PUT")) return methodNotAllowed();
+            UUID id = parseId(path.get(1));
+            warehouse.updateProductPrice(id, parsePrice(readBody(exchange)));
+            return Response.ok(product(new JsonWriter(), warehouse, warehouse.getProductById(id).orElseThrow()));
+        }
+        if (!method.equals("GET")) {
+            return path.isEmpty() ? notFound() : methodNotAllowed();
+        }
+        if (path.size() == 2 && path.get(0).equals("search")) {
+            return search(path.get(1), params);
+        }
+        if (path.size() == 2 && path.get(0).equals("top")) {
+            return top(path.get(1), params);
+        }
+        if (path.size() == 2 && path.get(0).equals("reports")) {
+            return report(path.get(1), params);
+        }
+        return notFound();
+    }
+
+    private Response search(String name, Map<String, String> params) {
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        PageCursor after = parseCursor(params.get("after"));
+        int limit = parseLimit(params.get("limit"), DEFAULT_PAGE_SIZE);
+        Page<Product> page = switch (name) {
+            case "price-range" -> analyzer.findProductsInPriceRange(
+                    decimal(params, "min"), decimal(params, "max"), after, limit);
+            case "above-price" -> analyzer.findProductsAbovePrice(decimal(params, "price"), after, limit);
+            case "name" -> analyzer.searchProductsByName(required(params, "q"), after, limit);
+            case "expiring" -> analyzer.findProductsExpiringWithinDays(days(params), after, limit);
+            default -> null;
+        };
+        if (page == null) return notFound();
+        JsonWriter json = new JsonWriter().beginObject().name("items").beginArray();
+        for (Product product : page.items()) {
+            product(json, warehouse, product);
+        }
+        json.endArray().name("next").value(page.hasNext() ? page.next().price().toPlainString() + ":" + page.next().id() : null);
+        return Response.ok(json.endObject());
+    }
+
+    private Response top(String name, Map<String, String> params) {
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        int k = parseLimit(params.get("k"), 10);
+        List<?> items = switch (name) {
+            case "most-expensive" -> analyzer.findMostExpensiveProducts(k);
+            case "cheapest" -> analyzer.findCheapestProducts(k);
+            case "heaviest" -> analyzer.findHeaviestProducts(k);
+            case "highest-shipping-cost" -> analyzer.findHighestShippingCostProducts(k);
+            default -> null;
+        };
+        if (items == null) return notFound();
+        JsonWriter json = new JsonWriter().beginArray();
+        for (Object item : items) {
+            product(json, warehouse, (Product) item);
+        }
+        return Response.ok(json.endArray());
+    }
+
+    private Response report(String name, Map<String, String> params) {
+        WarehouseSnapshot snapshot = warehouse.snapshot();
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(snapshot);
+        JsonWriter json = new JsonWriter();
+        switch (name) {
+            case "statistics" -> {
+                InventoryStatistics stats = analyzer.getInventoryStatistics();
+                json.beginObject()
+                        .name("totalProducts").value(stats.getTotalProducts())
+                        .name("totalValue").value(stats.getTotalValue())
+                        .name("averagePrice").value(stats.getAveragePrice())
+                        .name("expiredCount").value(stats.getExpiredCount())
+                        .name("categoryCount").value(stats.getCategoryCount())
+                        .name("mostExpensive");
+                productOrNull(json, snapshot, stats.getMostExpensiveProduct());
+                json.name("cheapest");
+                productOrNull(json, snapshot, stats.getCheapestProduct());
+                json.endObject();
+            }
+            case "category-averages" -> {
+                json.beginObject();
+                analyzer.calculateWeightedAveragePriceByCategory()
+                        .forEach((category, average) -> json.name(category.getName()).value(average));
+                json.endObject();
+            }
+            case "outliers" -> {
+                json.beginArray();
+                double deviations = params.containsKey("deviations") ? parseDouble(params.get("deviations")) : 2.0;
+                analyzer.findPriceOutliers(deviations).forEach(product -> product(json, snapshot, product));
+                json.endArray();
+            }
+            case "discounts" -> {
+                json.beginArray();
+                analyzer.calculateExpirationBasedDiscounts().forEach((product, price) -> {
+                    json.beginObject().name("id").value(product.uuid().toString())
+                            .name("name").value(product.name())
+                            .name("price").value(product.price())
+                            .name("discountedPrice").value(price)
+                            .endObject();
+                });
+                json.endArray();
+            }
+            case "price-quantiles" -> {
+                json.beginObject().name("all");
+                quantiles(json, analyzer.getPriceQuantiles());
+                json.name("byCategory").beginObject();
+                analyzer.getPriceQuantilesByCategory().forEach((category, quantiles) -> quantiles(json.name(category.getName()), quantiles));
+                json.endObject().endObject();
+            }
+            case "validation" -> {
+                InventoryValidation validation = analyzer.validateInventoryConstraints();
+                json.beginObject()
+                        .name("highValuePercentage").value(validation.getHighValuePercentage())
+                        .name("categoryDiversity").value(validation.getCategoryDiversity())
+                        .name("highValueWarning").value(validation.isHighValueWarning())
+                        .name("minimumDiversity").value(validation.hasMinimumDiversity())
+                        .endObject();
+            }
+            case "shipping-groups" -> {
+                json.beginArray();
+                for (ShippingGroup group : analyzer.optimizeShippingGroups(decimal(params, "maxWeight"))) {
+                    json.beginObject()
+                            .name("totalWeight").value(group.getTotalWeight())
+                            .name("totalShippingCost").value(group.getTotalShippingCost())
+                            .name("products").beginArray();
+                    group.getProducts().forEach(item -> product(json, snapshot, (Product) item));
+                    json.endArray().endObject();
+                }
+                json.endArray();
+            }
+            default -> {
+                return notFound();
+            }
+        }
+        return Response.ok(json);
+    }
+
+    // Fraktkostnaden läses från samma vy som resten av svaret, i rapporter ögonblicksbilden
+    private JsonWriter product(JsonWriter json, InventoryView view, Product product) {
+        json.beginObject()
+                .name("id").value(product.uuid().toString())
+                .name("name").value(product.name())
+                .name("category").value(product.category().getName())
+                .name("price").value(product.price());
+        if (product instanceof Perishable perishable) {
+            json.name("expirationDate").value(perishable.expirationDate().toString());
+        }
+        if (product instanceof Shippable shippable) {
+            json.name("weight").value(shippable.weight())
+                    .name("shippingCost").value(view.shippingCost(shippable));
+        }
+        return json.endObject();
+    }
+
+    private static void quantiles(JsonWriter json, PriceQuantiles quantiles) {
+        json.beginObject()
+                .name("p50").value(quantiles.p50())
+                .name("p90").value(quantiles.p90())
+                .name("p99").value(quantiles.p99())
+                .endObject();
+    }
+
+    private void productOrNull(JsonWriter json, InventoryView view, Product product) {
+        if (product == null) json.value((String) null);
+        else product(json, view, product);
+    }
+
+    private static String error(String message) {
+        return new JsonWriter().beginObject().name("error").value(message).endObject().toString();
+    }
+
+    private static Response notFound() {
+        return new Response(404, error("Not found."));
+    }
+
+    private static Response methodNotAllowed() {
+        return new Response(405, error("Method not allowed."));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body cannot exceed " + MAX_BODY_BYTES + " bytes.");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<String> segments(String rawPath) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : rawPath.split("/")) {
+            if (!segment.isEmpty()) segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+        }
+        return segments;
+    }
+
+    private static Map<String, String> parameters(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) { throw new IllegalArgumentException("Missing parameter: " + name); }
+        return value;
+    }
+
+    private static BigDecimal decimal(Map<String, String> params, String name) {
+        try {
+            return new BigDecimal(required(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for parameter: " + name);
+        }
+    }
+
+    private static int integer(Map<String, String> params, String name) {
+        try {
+            return Integer.parseInt(required(params, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer for parameter: " + name);
+        }
+    }
+
+    // Sökhorisont för bäst-före; utanför intervallet blir det 400 istället för ett datumfel
+    private static int days(Map<String, String> params) {
+        int days = integer(params, "days");
+        if (days < 0 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("Days must be between 0 and " + MAX_DAYS + ".");
+        }
+        return days;
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+
+    private static int parseLimit(String value, int defaultValue) {
+        if (value == null) return defaultValue;
+        int limit;
+        try {
+            limit = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + value);
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        return limit;
+    }
+
+    private static UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid product id: " + value);
+        }
+    }
+
+    // Markören skrivs som "pris:id", samma som fältet next i sökresultaten
+    private static PageCursor parseCursor(String value) {
+        if (value == null) return null;
+        int colon = value.indexOf(':');
+        if (colon <= 0) { throw new IllegalArgumentException("Invalid cursor: " + value); }
+        try {
+            return new PageCursor(new BigDecimal(value.substring(0, colon)), UUID.fromString(value.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+
+    private static BigDecimal parsePrice(String body) {
+        Matcher matcher = PRICE_FIELD.matcher(body);
+        if (!matcher.find()) { throw new IllegalArgumentException("Request body must contain a price."); }
+        return new BigDecimal(matcher.group(1));
+    }
+}
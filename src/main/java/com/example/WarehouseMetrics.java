@@ -0,0 +1,146 @@
+package com.example;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Valfria räknare och latenshistogram per operation för Warehouse och WarehouseAnalyzer.
+// Avstängt som standard: då kostar varje operation en volatile-läsning och inget mer. Påslaget
+// tillkommer två anrop till System.nanoTime() och tre låsfria uppdateringar i histogrammet.
+public final class WarehouseMetrics implements WarehouseMetricsMXBean {
+
+    public enum Operation {
+        ADD,
+        LOOKUP,
+        PRICE_UPDATE,
+        REMOVE,
+        FIND_IN_PRICE_RANGE,
+        FIND_EXPIRING_WITHIN_DAYS,
+        SEARCH_BY_NAME,
+        FIND_ABOVE_PRICE,
+        WEIGHTED_AVERAGE_BY_CATEGORY,
+        PRICE_OUTLIERS,
+        OPTIMIZE_SHIPPING_GROUPS,
+        IMPROVE_SHIPPING_GROUPS,
+        EXPIRATION_DISCOUNTS,
+        VALIDATE_INVENTORY,
+        INVENTORY_STATISTICS,
+        TOP_K_BY_PRICE,
+        TOP_K_BY_WEIGHT,
+        TOP_K_BY_SHIPPING_COST,
+        PRICE_QUANTILES
+    }
+
+    // Ögonblicksbild av en operation; latenser i nanosekunder
+    public record OperationStats(long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos) {
+        public long meanNanos() { return count == 0 ? 0 : totalNanos / count; }
+    }
+
+    // Starttid när mätning är avstängd; en riktig avläsning av System.nanoTime() kan vara 0 eller negativ
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private final String warehouseName;
+    private final EnumMap<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    private volatile boolean enabled;
+
+    WarehouseMetrics(String warehouseName) {
+        this.warehouseName = warehouseName;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+
+    // Starttid för en mätning, DISABLED när mätning är avstängd
+    long start() {
+        if (!enabled) return DISABLED;
+        long now = System.nanoTime();
+        return now == DISABLED ? now + 1 : now;
+    }
+
+    void record(Operation operation, long start) {
+        if (start != DISABLED) {
+            histograms.get(operation).record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() { return enabled; }
+
+    @Override
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    @Override
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    public OperationStats stats(Operation operation) {
+        LatencyHistogram histogram = histograms.get(operation);
+        return new OperationStats(histogram.count(), histogram.totalNanos(), histogram.maxNanos(),
+                histogram.percentile(50), histogram.percentile(90), histogram.percentile(99));
+    }
+
+    public Map<Operation, OperationStats> snapshot() {
+        Map<Operation, OperationStats> snapshot = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            snapshot.put(operation, stats(operation));
+        }
+        return snapshot;
+    }
+
+    // Registrerar mätvärdena i plattformens MBeanServer under com.example:type=WarehouseMetrics,name=<lager>
+    public ObjectName registerMBean() {
+        try {
+            ObjectName objectName = objectName();
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean for warehouse: " + warehouseName, e);
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            ObjectName objectName = objectName();
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister metrics MBean for warehouse: " + warehouseName, e);
+        }
+    }
+
+    private ObjectName objectName() throws JMException {
+        return new ObjectName("com.example:type=WarehouseMetrics,name=" + ObjectName.quote(warehouseName));
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() { return column(OperationStats::count); }
+
+    @Override
+    public Map<String, Long> getMeanLatencyNanos() { return column(OperationStats::meanNanos); }
+
+    @Override
+    public Map<String, Long> getMaxLatencyNanos() { return column(OperationStats::maxNanos); }
+
+    @Override
+    public Map<String, Long> getP50LatencyNanos() { return column(OperationStats::p50Nanos); }
+
+    @Override
+    public Map<String, Long> getP90LatencyNanos() { return column(OperationStats::p90Nanos); }
+
+    @Override
+    public Map<String, Long> getP99LatencyNanos() { return column(OperationStats::p99Nanos); }
+
+    private Map<String, Long> column(ToLongFunction<OperationStats> value) {
+        Map<String, Long> column = new LinkedHashMap<>();
+        snapshot().forEach((operation, stats) -> column.put(operation.name(), value.applyAsLong(stats)));
+        return column;
+    }
+}
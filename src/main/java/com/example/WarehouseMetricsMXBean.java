@@ -0,0 +1,18 @@
+package com.example;
+
+import java.util.Map;
+
+// JMX-vy av WarehouseMetrics; nycklarna är namnen på WarehouseMetrics.Operation
+public interface WarehouseMetricsMXBean {
+
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    void reset();
+
+    Map<String, Long> getOperationCounts();
+    Map<String, Long> getMeanLatencyNanos();
+    Map<String, Long> getMaxLatencyNanos();
+    Map<String, Long> getP50LatencyNanos();
+    Map<String, Long> getP90LatencyNanos();
+    Map<String, Long> getP99LatencyNanos();
+}
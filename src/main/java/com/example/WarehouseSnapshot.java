@@ -0,0 +1,228 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// Oföränderligt tillstånd för ett Warehouse vid en viss version. Att ta en ögonblicksbild är
+// en volatile-läsning; skrivare skapar nya versioner via den persistenta ProductTrie och
+// påverkar aldrig en bild som redan delats ut. Frågor mot bilden genomsöker den, de som bara
+// gäller bäst-före- eller fraktvaror bara sin partition.
+public final class WarehouseSnapshot implements InventoryView {
+    private final Warehouse source;
+    private final long version;
+    private final ProductTrie products;
+    private final ProductPartitions partitions;
+    private final LocalDate today;
+    private final DiscountRules discountRules;
+    private final ShippingRates shippingRates;
+
+    // Produktlistan byggs första gången den behövs och delas sedan av alla läsare av bilden
+    private volatile List<Product> productList;
+
+    WarehouseSnapshot(Warehouse source, long version, ProductTrie products, ProductPartitions partitions, LocalDate today,
+                      DiscountRules discountRules, ShippingRates shippingRates) {
+        this.source = source;
+        this.version = version;
+        this.products = products;
+        this.partitions = partitions;
+        this.today = today;
+        this.discountRules = discountRules;
+        this.shippingRates = shippingRates;
+    }
+
+    // Nya versioner, används av Warehouse under skrivlåset
+    WarehouseSnapshot withProducts(ProductTrie products, ProductPartitions partitions) {
+        return new WarehouseSnapshot(source, version + 1, products, partitions, today, discountRules, shippingRates);
+    }
+
+    WarehouseSnapshot withToday(LocalDate today) {
+        return new WarehouseSnapshot(source, version + 1, products, partitions, today, discountRules, shippingRates);
+    }
+
+    WarehouseSnapshot withDiscountRules(DiscountRules discountRules) {
+        return new WarehouseSnapshot(source, version + 1, products, partitions, today, discountRules, shippingRates);
+    }
+
+    WarehouseSnapshot withShippingRates(ShippingRates shippingRates) {
+        return new WarehouseSnapshot(source, version + 1, products, partitions, today, discountRules, shippingRates);
+    }
+
+    ProductTrie products() {
+        return products;
+    }
+
+    ProductPartitions partitions() {
+        return partitions;
+    }
+
+    @Override
+    public String getName() {
+        return source.getName();
+    }
+
+    @Override
+    public WarehouseMetrics metrics() {
+        return source.metrics();
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    // Datumet när bilden togs; bilden påverkas inte av senare dygnsskiften
+    @Override
+    public LocalDate today() {
+        return today;
+    }
+
+    public DiscountRules getDiscountRules() {
+        return discountRules;
+    }
+
+    public ShippingRates getShippingRates() {
+        return shippingRates;
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    public boolean isEmpty() {
+        return products.isEmpty();
+    }
+
+    public Optional<Product> getProductById(UUID id) {
+        return Optional.ofNullable(products.get(id));
+    }
+
+    @Override
+    public List<Product> getProducts() {
+        List<Product> list = productList;
+        if (list == null) {
+            list = Collections.unmodifiableList(new ArrayList<>(products.values()));
+            productList = list;
+        }
+        return list;
+    }
+
+    @Override
+    public List<Shippable> shippableProducts() {
+        return partitions.shippables();
+    }
+
+    public List<Perishable> expiredProducts() {
+        return perishablesExpiringBetween(LocalDate.MIN, today);
+    }
+
+    @Override
+    public ProductQuery query() {
+        return new ProductQuery(this);
+    }
+
+    // Samma ordning som Warehouse: stigande bäst-före
+    @Override
+    public List<Perishable> perishablesExpiringBetween(LocalDate from, LocalDate to) {
+        List<Perishable> result = new ArrayList<>();
+        for (Perishable perishable : partitions.perishables()) {
+            if (!perishable.expirationDate().isBefore(from) && !perishable.expirationDate().isAfter(to)) {
+                result.add(perishable);
+            }
+        }
+        result.sort(Comparator.comparing(Perishable::expirationDate));
+        return result;
+    }
+
+    @Override
+    public int countPerishables(ExpiryState state) {
+        int count = 0;
+        for (Perishable perishable : partitions.perishables()) {
+            if (stateOf(perishable) == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private ExpiryState stateOf(Perishable perishable) {
+        long daysLeft = ChronoUnit.DAYS.between(today, perishable.expirationDate());
+        if (daysLeft < 0) return ExpiryState.EXPIRED;
+        if (daysLeft <= discountRules.horizonDays()) return ExpiryState.DISCOUNT;
+        return ExpiryState.FRESH;
+    }
+
+    @Override
+    public BigDecimal discountedPrice(Product product) {
+        BigDecimal discounted = DiscountTable.discountedPrice(product, today, discountRules);
+        return discounted == null ? product.price() : discounted;
+    }
+
+    // Taxorna när bilden togs; utan förberäknade kostnader räknas de vid anropet
+    @Override
+    public BigDecimal shippingCost(Shippable shippable) {
+        return shippingRates.quote(shippable);
+    }
+
+    // Bilden har inga index; skissen byggs vid anropet i en genomgång
+    @Override
+    public BigDecimal priceQuantile(double quantile) {
+        return sketchOf(null).quantile(quantile);
+    }
+
+    @Override
+    public BigDecimal priceQuantile(Category category, double quantile) {
+        return sketchOf(category).quantile(quantile);
+    }
+
+    private PriceSketch sketchOf(Category category) {
+        PriceSketch sketch = new PriceSketch();
+        for (Product p : products) {
+            if (category == null || p.category().equals(category)) sketch.add(p.price());
+        }
+        return sketch;
+    }
+
+    @Override
+    public Set<Category> categories() {
+        Set<Category> categories = new HashSet<>();
+        for (Product p : products) {
+            categories.add(p.category());
+        }
+        return categories;
+    }
+
+    ResultCache resultCache() {
+        return source.resultCache();
+    }
+
+    @Override
+    public List<Product> mostExpensiveProducts(int k) {
+        return TopK.largest(products, k, Comparator.comparing(PriceIndex::keyOf));
+    }
+
+    @Override
+    public List<Product> cheapestProducts(int k) {
+        return TopK.largest(products, k, Comparator.comparing(PriceIndex::keyOf).reversed());
+    }
+
+    public Map<Category, List<Product>> getProductsGroupedByCategories() {
+        Map<Category, List<Product>> grouped = new HashMap<>();
+        for (Product p : products) {
+            grouped.computeIfAbsent(p.category(), k -> new ArrayList<>()).add(p);
+        }
+        return grouped;
+    }
+
+    // Genomsökning utan kopiering, för ProductQuery
+    Collection<Product> productValues() {
+        return products.values();
+    }
+
+    @Override
+    public String toString() {
+        return "WarehouseSnapshot{" + "name='" + getName() + '\'' + ", version=" + version + ", size=" + size() + '}';
+    }
+}
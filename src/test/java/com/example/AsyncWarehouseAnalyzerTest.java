@@ -0,0 +1,96 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the asynchronous analyzer facade.
+ */
+@DisplayName("Asynchronous analyzer")
+class AsyncWarehouseAnalyzerTest {
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("AsyncAnalyzerTestWarehouse");
+        warehouse.clearProducts();
+        for (int i = 1; i <= 10; i++) {
+            warehouse.addProduct(electronics("Item" + i, String.valueOf(i * 10)));
+        }
+        warehouse.addProduct(food("Milk", "1000.00", LocalDate.now()));
+    }
+
+    @Test
+    @DisplayName("⚡ should compute the full report from one snapshot")
+    void should_computeFullReport() throws Exception {
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        try (AsyncWarehouseAnalyzer async = new AsyncWarehouseAnalyzer(warehouse)) {
+            long version = warehouse.version();
+            InventoryReport report = async.fullReport(2.0, Duration.ofSeconds(10)).get();
+
+            assertThat(report.version()).isEqualTo(version);
+            assertThat(report.statistics().getTotalProducts()).isEqualTo(11);
+            assertThat(report.averagePriceByCategory()).isEqualTo(analyzer.calculateWeightedAveragePriceByCategory());
+            assertThat(report.priceOutliers()).isEqualTo(analyzer.findPriceOutliers(2.0)).extracting(Product::name).contains("Milk");
+            assertThat(report.expirationDiscounts()).isEqualTo(analyzer.calculateExpirationBasedDiscounts());
+            assertThat(report.validation().getCategoryDiversity()).isEqualTo(2);
+            assertThat(async.getInventoryStatistics().get().getTotalProducts()).isEqualTo(11);
+        }
+    }
+
+    @Test
+    @DisplayName("⚡ should run report components concurrently")
+    void should_runComponentsConcurrently() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(5);
+        ExecutorService threads = Executors.newCachedThreadPool();
+        Executor gate = task -> threads.execute(() -> {
+            allStarted.countDown();
+            try {
+                // Körs delarna efter varandra når spärren aldrig noll
+                if (!allStarted.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("Components ran sequentially.");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        });
+        try (AsyncWarehouseAnalyzer async = new AsyncWarehouseAnalyzer(warehouse, gate)) {
+            assertThat(async.fullReport(2.0, Duration.ofSeconds(10)).get().statistics().getTotalProducts()).isEqualTo(11);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("⚡ should time out and cancel components that have not started")
+    void should_timeOutAndCancel() {
+        List<Runnable> queued = new ArrayList<>();
+        Executor never = queued::add;
+        try (AsyncWarehouseAnalyzer async = new AsyncWarehouseAnalyzer(warehouse, never)) {
+            CompletableFuture<InventoryReport> report = async.fullReport(2.0, Duration.ofMillis(50));
+
+            assertThatThrownBy(report::join).hasCauseInstanceOf(TimeoutException.class);
+            assertThat(queued).hasSize(5);
+        }
+    }
+
+    @Test
+    @DisplayName("⚡ should surface a rejecting executor to the caller")
+    void should_throw_when_executorRejects() {
+        Executor failing = task -> { throw new RejectedExecutionException("Executor is shut down."); };
+        try (AsyncWarehouseAnalyzer async = new AsyncWarehouseAnalyzer(warehouse, failing)) {
+            assertThatThrownBy(() -> async.fullReport(2.0, Duration.ofSeconds(1)))
+                    .isInstanceOf(RejectedExecutionException.class);
+        }
+    }
+}
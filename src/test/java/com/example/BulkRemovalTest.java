@@ -0,0 +1,98 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for predicate-based and expiry-based bulk removal.
+ */
+@DisplayName("Bulk removal")
+class BulkRemovalTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2031, 3, 10);
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("BulkRemovalTestWarehouse");
+        warehouse.clearProducts();
+        warehouse.setClock(Clock.fixed(TODAY.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouse.setClock(Clock.systemDefaultZone());
+    }
+
+    @Test
+    @DisplayName("🧹 should remove matching products in one version and keep indexes in sync")
+    void should_removeIf_and_keepIndexesInSync() {
+        Product milk = food("Milk", TODAY.plusDays(5));
+        Product cheese = food("Cheese", TODAY.plusDays(20));
+        Product laptop = electronics("Laptop");
+        warehouse.addProduct(milk);
+        warehouse.addProduct(cheese);
+        warehouse.addProduct(laptop);
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("11.00"));
+        long version = warehouse.version();
+
+        List<Product> removed = warehouse.removeIf(p -> p.category().equals(Category.of("Dairy")));
+
+        assertThat(removed).extracting(Product::uuid).containsExactlyInAnyOrder(milk.uuid(), cheese.uuid());
+        assertThat(warehouse.version()).as("A bulk removal publishes one new version.").isEqualTo(version + 1);
+        assertThat(warehouse.getProducts()).containsExactly(laptop);
+        assertThat(warehouse.query().inCategory(Category.of("Dairy")).list()).isEmpty();
+        assertThat(warehouse.countPerishables(ExpiryState.DISCOUNT) + warehouse.countPerishables(ExpiryState.FRESH)).isZero();
+        assertThat(warehouse.shippableProducts()).containsExactly((Shippable) laptop);
+        assertThat(warehouse.getChangedProducts()).isEmpty();
+        assertThat(warehouse.removeIf(p -> false)).isEmpty();
+        assertThat(warehouse.version()).isEqualTo(version + 1);
+    }
+
+    @Test
+    @DisplayName("🧹 should purge expired food straight from the expiry index")
+    void should_purgeExpired() {
+        Product old = food("Old", TODAY.minusDays(10));
+        Product stale = food("Stale", TODAY.minusDays(1));
+        Product lastDay = food("Last day", TODAY);
+        Product fresh = food("Fresh", TODAY.plusDays(30));
+        List.of(old, stale, lastDay, fresh).forEach(warehouse::addProduct);
+
+        assertThat(warehouse.removeExpiredBefore(TODAY.minusDays(1))).containsExactly(old);
+        assertThat(warehouse.purgeExpired()).isEqualTo(2);
+        assertThat(warehouse.getProducts()).containsExactly(fresh);
+        assertThat(warehouse.expiredProducts()).isEmpty();
+        assertThat(warehouse.countPerishables(ExpiryState.FRESH)).isEqualTo(1);
+        assertThatThrownBy(() -> warehouse.removeExpiredBefore(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Date cannot be null.");
+    }
+
+    @Test
+    @DisplayName("🧹 should remove from a large inventory in parallel")
+    void should_removeInParallel_when_inventoryIsLarge() {
+        for (int i = 0; i < 12_000; i++) {
+            warehouse.addProduct(food("Item " + i, TODAY.plusDays(i % 60)));
+        }
+
+        List<Product> removed = warehouse.removeIf(p -> ((Perishable) p).expirationDate().isAfter(TODAY.plusDays(29)));
+
+        assertThat(removed).hasSize(6_000);
+        assertThat(warehouse.size()).isEqualTo(6_000);
+        assertThat(warehouse.perishablesExpiringBetween(TODAY.plusDays(30), LocalDate.MAX)).isEmpty();
+        assertThat(warehouse.query().nameContains("Item").list().size()).isEqualTo(6_000);
+        assertThat(warehouse.countPerishables(ExpiryState.FRESH) + warehouse.countPerishables(ExpiryState.DISCOUNT))
+                .isEqualTo(6_000);
+    }
+}
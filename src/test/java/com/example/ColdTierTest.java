@@ -0,0 +1,216 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for spilling expired and inactive products to the on-disk cold tier.
+ */
+@DisplayName("Cold tier")
+class ColdTierTest {
+
+    private static final Instant START = Instant.parse("2031-03-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ColdTierTestWarehouse");
+        warehouse.clearProducts();
+        at(START);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        warehouse.disableColdTier();
+        warehouse.setClock(Clock.systemDefaultZone());
+    }
+
+    @Test
+    @DisplayName("🧊 should spill expired perishables at day change and fault them back in by id")
+    void should_spillExpired_and_faultBackIn() throws IOException {
+        FoodProduct milk = food("Milk", "12.90", LocalDate.of(2031, 3, 2));
+        ElectronicsProduct phone = electronics("Phone 0", "4999.00", 24, "0.2");
+        warehouse.addProduct(milk);
+        warehouse.addProduct(phone);
+        warehouse.enableColdTier(directory.resolve("cold.bin"), TieringPolicy.of(1, Duration.ofDays(30), 1_000));
+
+        at(START.plus(Duration.ofDays(3)));
+        assertThat(warehouse.today()).isEqualTo(LocalDate.of(2031, 3, 4));
+        assertThat(warehouse.coldSize()).isEqualTo(1);
+        assertThat(warehouse.getProducts()).containsExactly(phone);
+        assertThat(warehouse.expiredProducts()).isEmpty();
+        assertThat(warehouse.shippableProducts()).containsExactly(phone);
+
+        Product restored = warehouse.getProductById(milk.uuid()).orElseThrow();
+        assertThat(restored).isEqualTo(milk);
+        assertThat(restored.price()).isEqualTo(new BigDecimal("12.90"));
+        assertThat(((Perishable) restored).expirationDate()).isEqualTo(milk.expirationDate());
+        assertThat(warehouse.coldSize()).isZero();
+        assertThat(warehouse.expiredProducts()).containsExactly((Perishable) restored);
+    }
+
+    @Test
+    @DisplayName("🧊 should keep the hot tier within budget by spilling the least recently used")
+    void should_spillLeastRecentlyUsed_when_overBudget() throws IOException {
+        warehouse.enableColdTier(directory.resolve("budget.bin"), TieringPolicy.of(0, Duration.ofDays(30), 10));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            at(START.plusMillis(i));
+            Product product = electronics("Phone " + i, "4999.00", 24, "0.2");
+            products.add(product);
+            warehouse.addProduct(product);
+            assertThat(warehouse.size()).isLessThanOrEqualTo(10);
+        }
+
+        assertThat(warehouse.size() + warehouse.coldSize()).isEqualTo(25);
+        assertThat(warehouse.getProducts()).contains(products.getLast()).doesNotContain(products.getFirst());
+
+        at(START.plusSeconds(1));
+        warehouse.updateProductPrice(products.getFirst().uuid(), new BigDecimal("1.00"));
+        assertThat(warehouse.getProductById(products.getFirst().uuid()).orElseThrow().price()).isEqualByComparingTo("1.00");
+        warehouse.remove(products.get(1).uuid());
+        assertThat(warehouse.getProductById(products.get(1).uuid())).isEmpty();
+        assertThat(warehouse.size() + warehouse.coldSize()).isEqualTo(24);
+
+        warehouse.clearProducts();
+        assertThat(warehouse.coldSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("🧊 should spill products nobody has used within the inactivity period")
+    void should_spillInactive_and_restoreAllOnDisable() throws IOException {
+        Product idle = electronics("Phone 1", "4999.00", 24, "0.2");
+        Product busy = electronics("Phone 2", "4999.00", 24, "0.2");
+        warehouse.addProduct(idle);
+        warehouse.addProduct(busy);
+        warehouse.enableColdTier(directory.resolve("idle.bin"), TieringPolicy.of(0, Duration.ofHours(1), 1_000));
+
+        at(START.plus(Duration.ofHours(2)));
+        warehouse.getProductById(busy.uuid());
+        assertThat(warehouse.spillColdProducts()).isEqualTo(1);
+        assertThat(warehouse.getProducts()).containsExactly(busy);
+
+        warehouse.disableColdTier();
+        assertThat(warehouse.getProducts()).containsExactlyInAnyOrder(idle, busy);
+        assertThat(directory.resolve("idle.bin")).doesNotExist();
+        assertThatThrownBy(() -> TieringPolicy.of(0, Duration.ofHours(1), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Max hot products must be at least 1.");
+    }
+
+    @Test
+    @DisplayName("🧊 should purge expired perishables from disk as well as from memory")
+    void should_purgeExpiredOnDisk() throws IOException {
+        FoodProduct spilled = food("Milk", "12.90", LocalDate.of(2031, 3, 2));
+        FoodProduct fresh = food("Cheese", "12.90", LocalDate.of(2031, 4, 1));
+        warehouse.addProduct(spilled);
+        warehouse.addProduct(fresh);
+        warehouse.enableColdTier(directory.resolve("purge.bin"), TieringPolicy.of(1, Duration.ofDays(30), 1_000));
+
+        at(START.plus(Duration.ofDays(3)));
+        FoodProduct hot = food("Yoghurt", "12.90", LocalDate.of(2031, 3, 3));
+        warehouse.addProduct(hot);
+        assertThat(warehouse.coldSize()).isEqualTo(1);
+        assertThat(warehouse.expiredProducts()).as("Only products in memory are listed.").containsExactly(hot);
+
+        assertThat(warehouse.removeExpiredBefore(LocalDate.of(2031, 3, 3))).containsExactly(spilled);
+        assertThat(warehouse.coldSize()).isZero();
+        assertThat(warehouse.getProductById(spilled.uuid())).isEmpty();
+
+        warehouse.addProduct(food("Butter", "12.90", LocalDate.of(2031, 3, 1)));
+        assertThat(warehouse.spillColdProducts()).isEqualTo(1);
+        assertThat(warehouse.purgeExpired()).isEqualTo(2);
+        assertThat(warehouse.coldSize()).isZero();
+        assertThat(warehouse.getProducts()).containsExactly(fresh);
+    }
+
+    @Test
+    @DisplayName("🧊 should reprice products on disk and check every id before faulting any in")
+    void should_repriceColdProducts() throws IOException {
+        Product spilled = electronics("Phone 1", "100.00");
+        Product hot = electronics("Phone 2", "200.00");
+        warehouse.addProduct(spilled);
+        warehouse.addProduct(hot);
+        warehouse.enableColdTier(directory.resolve("reprice.bin"), TieringPolicy.of(0, Duration.ofHours(1), 1_000));
+        at(START.plus(Duration.ofHours(2)));
+        warehouse.getProductById(hot.uuid());
+        assertThat(warehouse.spillColdProducts()).isEqualTo(1);
+
+        Map<UUID, BigDecimal> prices = new LinkedHashMap<>();
+        prices.put(spilled.uuid(), new BigDecimal("1.00"));
+        prices.put(UUID.randomUUID(), new BigDecimal("2.00"));
+        long version = warehouse.version();
+        assertThatThrownBy(() -> warehouse.updateProductPrices(prices)).isInstanceOf(NoSuchElementException.class);
+        assertThat(warehouse.coldSize()).isEqualTo(1);
+        assertThat(warehouse.version()).isEqualTo(version);
+
+        assertThat(warehouse.repriceCategory(Category.of("Electronics"), price -> price.multiply(BigDecimal.TWO))).isEqualTo(2);
+        assertThat(warehouse.spillColdProducts()).isZero();
+        assertThat(warehouse.coldSize()).isZero();
+        assertThat(warehouse.getProductById(spilled.uuid()).orElseThrow().price()).isEqualByComparingTo("200.00");
+
+        at(START.plus(Duration.ofHours(4)));
+        warehouse.getProductById(hot.uuid());
+        assertThat(warehouse.spillColdProducts()).isEqualTo(1);
+        assertThat(warehouse.repriceWhere(product -> product.price().compareTo(new BigDecimal("300.00")) < 0,
+                price -> price.add(BigDecimal.ONE))).isEqualTo(1);
+        assertThat(warehouse.getProductById(spilled.uuid()).orElseThrow().price()).isEqualByComparingTo("201.00");
+        assertThat(warehouse.getProductById(hot.uuid()).orElseThrow().price()).isEqualByComparingTo("400.00");
+    }
+
+    @Test
+    @DisplayName("🧊 should leave shipping groups alone when products move between tiers")
+    void should_keepShippingGroups_when_spillingAndRestoring() throws IOException {
+        FoodProduct milk = food("Milk", "12.90", LocalDate.of(2031, 3, 2), "4.0");
+        FoodProduct cheese = food("Cheese", "12.90", LocalDate.of(2031, 4, 1), "6.0");
+        warehouse.addProduct(milk);
+        warehouse.addProduct(cheese);
+        warehouse.enableColdTier(directory.resolve("planner.bin"), TieringPolicy.of(1, Duration.ofDays(30), 1_000));
+
+        try (ShippingPlanner planner = warehouse.openShippingPlanner(new BigDecimal("10.0"))) {
+            at(START.plus(Duration.ofDays(3)));
+            assertThat(warehouse.today()).isEqualTo(LocalDate.of(2031, 3, 4));
+            assertThat(warehouse.coldSize()).isEqualTo(1);
+            assertThat(planner.groupCount()).isEqualTo(1);
+            assertThat(planner.closedGroups()).singleElement()
+                    .satisfies(group -> assertThat(group.getProducts()).containsExactlyInAnyOrder(milk, cheese));
+
+            warehouse.getProductById(milk.uuid());
+            assertThat(warehouse.spillColdProducts()).isEqualTo(1);
+            assertThat(planner.groupCount()).isEqualTo(1);
+            try (ShippingPlanner opened = warehouse.openShippingPlanner(new BigDecimal("10.0"))) {
+                assertThat(opened.closedGroups()).as("Products on disk are planned too.").singleElement()
+                        .satisfies(group -> assertThat(group.getProducts()).containsExactlyInAnyOrder(milk, cheese));
+            }
+
+            warehouse.remove(milk.uuid());
+            assertThat(planner.closedGroups()).isEmpty();
+            assertThat(planner.openGroups()).singleElement()
+                    .satisfies(group -> assertThat(group.getProducts()).containsExactly(cheese));
+        }
+    }
+
+    private void at(Instant instant) {
+        warehouse.setClock(Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
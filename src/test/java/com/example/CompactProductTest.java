@@ -0,0 +1,58 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the compact product representation.
+ */
+@DisplayName("Compact products")
+class CompactProductTest {
+
+    @Test
+    @DisplayName("🗜️ should share names and common amounts between products")
+    void should_shareNamesAndAmounts() {
+        Product first = food(new String("Milk 1L"), "12.90", LocalDate.now().plusDays(3), "1.0");
+        Product second = food(new String("Milk 1L"), "12.9", LocalDate.now().plusDays(3), "1.0");
+
+        assertThat(first.name()).isSameAs(second.name());
+        assertThat(first.price()).isSameAs(second.price());
+        assertThat(first.withPrice(new BigDecimal("12.90")).price()).isSameAs(first.price());
+    }
+
+    @Test
+    @DisplayName("🗜️ should keep the values of the original accessors")
+    void should_keepAccessorValues() {
+        FoodProduct milk = food("Milk", "12.345", LocalDate.now().plusDays(3), "0.125");
+        ElectronicsProduct heavy = electronics("Printer", "4999999.99", 24, "5.01");
+
+        assertThat(milk.price()).isEqualTo(new BigDecimal("12.35"));
+        assertThat(milk.weight()).isEqualTo(0.125);
+        assertThat(milk.calculateShippingCost()).isEqualTo(new BigDecimal("6.25"));
+        assertThat(milk.toString()).contains("weight=0.125");
+        assertThat(heavy.price()).isEqualTo(new BigDecimal("4999999.99"));
+        assertThat(heavy.weight()).isEqualTo(5.01);
+        assertThat(heavy.calculateShippingCost()).isEqualTo(new BigDecimal("128.00"));
+
+        assertThat(heavy.withPrice(new BigDecimal("0.005")).price()).isEqualTo(new BigDecimal("0.01"));
+        assertThat(heavy.price()).isEqualTo(new BigDecimal("4999999.99"));
+    }
+
+    @Test
+    @DisplayName("🗜️ should reject amounts that do not fit")
+    void should_rejectAmountsThatDoNotFit() {
+        assertThatThrownBy(() -> food("Milk", "1e30", LocalDate.now().plusDays(3), "1.0"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Price is too large.");
+        assertThatThrownBy(() -> food("Milk", "1.00", LocalDate.now().plusDays(3), "123456789012345678901234567890"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Weight is too large.");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.*;
+import java.util.List;
+
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for expiry handling driven by the warehouse's injectable clock.
+ */
+@DisplayName("Expiry tracking with a simulated clock")
+class ExpiryTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+    private static final LocalDate START = LocalDate.of(2030, 1, 10);
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ExpiryTestWarehouse");
+        warehouse.clearProducts();
+        clock = new MutableClock(START.atTime(12, 0).atZone(ZONE).toInstant(), ZONE);
+        warehouse.setClock(clock);
+        analyzer = new WarehouseAnalyzer(warehouse);
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouse.setClock(Clock.systemDefaultZone());
+    }
+
+    @Test
+    @DisplayName("⏰ should move perishables between states when the day rolls over")
+    void should_moveStates_when_dayRollsOver() {
+        warehouse.addProduct(food("Milk", START.plusDays(1)));
+        warehouse.addProduct(food("Cheese", START.plusDays(5)));
+        warehouse.addProduct(food("Bread", START));
+
+        assertThat(warehouse.countPerishables(ExpiryState.FRESH)).isEqualTo(1);
+        assertThat(warehouse.countPerishables(ExpiryState.DISCOUNT)).isEqualTo(2);
+        assertThat(warehouse.countPerishables(ExpiryState.EXPIRED)).isZero();
+
+        clock.advance(Duration.ofDays(2));
+
+        assertThat(warehouse.today()).isEqualTo(START.plusDays(2));
+        assertThat(warehouse.countPerishables(ExpiryState.FRESH)).isZero();
+        assertThat(warehouse.countPerishables(ExpiryState.DISCOUNT)).isEqualTo(1);
+        assertThat(warehouse.countPerishables(ExpiryState.EXPIRED)).isEqualTo(2);
+        assertThat(analyzer.getInventoryStatistics().getExpiredCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("⏰ should answer expiry queries relative to the warehouse clock")
+    void should_useWarehouseClock_forExpiryQueries() {
+        warehouse.addProduct(food("Today", START));
+        warehouse.addProduct(food("InTwoDays", START.plusDays(2)));
+        warehouse.addProduct(food("Yesterday", START.minusDays(1)));
+
+        assertThat(analyzer.findProductsExpiringWithinDays(3))
+                .extracting(p -> ((Product) p).name())
+                .containsExactly("Today", "InTwoDays");
+        assertThat(warehouse.expiredProducts())
+                .extracting(p -> ((Product) p).name())
+                .containsExactly("Yesterday", "Today");
+
+        clock.advance(Duration.ofDays(-1));
+
+        assertThat(warehouse.expiredProducts())
+                .extracting(p -> ((Product) p).name())
+                .containsExactly("Yesterday");
+    }
+
+    @Test
+    @DisplayName("💰 should keep discounted prices current across price changes and day rollover")
+    void should_maintainDiscountTable() {
+        Product milk = food("Milk", START.plusDays(2));
+        warehouse.addProduct(milk);
+
+        assertThat(warehouse.discountedPrice(milk)).isEqualByComparingTo("8.50");
+
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("20.00"));
+        assertThat(warehouse.discountedPrice(milk)).isEqualByComparingTo("17.00");
+
+        clock.advance(Duration.ofDays(2));
+        assertThat(analyzer.calculateExpirationBasedDiscounts().get(milk)).isEqualByComparingTo("10.00");
+
+        clock.advance(Duration.ofDays(1));
+        assertThat(warehouse.discountedPrice(milk)).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    @DisplayName("💰 should apply a configured discount rule table")
+    void should_applyConfiguredRules() {
+        Product milk = food("Milk", START.plusDays(5));
+        warehouse.addProduct(milk);
+        try {
+            warehouse.setDiscountRules(DiscountRules.of(List.of(new DiscountRule(0, 7, new BigDecimal("0.90")))));
+
+            assertThat(warehouse.discountedPrice(milk)).isEqualByComparingTo("9.00");
+            assertThat(warehouse.countPerishables(ExpiryState.DISCOUNT)).isEqualTo(1);
+        } finally {
+            warehouse.setDiscountRules(DiscountRules.defaults());
+        }
+    }
+
+    // Klocka som testerna kan flytta framåt och bakåt
+    static final class MutableClock extends Clock {
+        private Instant instant;
+        private final ZoneId zone;
+
+        MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() { return zone; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { return new MutableClock(instant, zone); }
+
+        @Override
+        public Instant instant() { return instant; }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the warehouse change publisher.
+ */
+@DisplayName("Inventory change events")
+class InventoryChangeTest {
+
+    private Warehouse warehouse;
+    private RecordingSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("InventoryChangeTestWarehouse");
+        warehouse.clearProducts();
+        subscriber = new RecordingSubscriber();
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriber.subscription.cancel();
+    }
+
+    @Test
+    @DisplayName("📣 should coalesce pending changes per product")
+    void should_coalesceChanges() throws InterruptedException {
+        warehouse.changes().subscribe(subscriber);
+        Product milk = electronics("Milk", "10.00");
+        Product bread = electronics("Bread", "10.00");
+
+        warehouse.addProduct(milk);
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("12.00"));
+        warehouse.addProduct(bread);
+        warehouse.remove(bread.uuid());
+        subscriber.subscription.request(1);
+
+        List<InventoryChange> batch = subscriber.next();
+        assertThat(batch).extracting(InventoryChange::type).containsExactly(InventoryChange.Type.ADDED, InventoryChange.Type.REMOVED);
+        assertThat(batch.getFirst().product().price()).isEqualByComparingTo("12.00");
+        assertThat(batch.getFirst().version()).isEqualTo(warehouse.version() - 2);
+        assertThat(batch.getLast().productId()).isEqualTo(bread.uuid());
+    }
+
+    @Test
+    @DisplayName("📣 should report a removal after a pending replacement of a known product")
+    void should_reportRemoval_when_replacedProductIsRemoved() throws InterruptedException {
+        Product milk = electronics("Milk", "10.00");
+        warehouse.addProduct(milk);
+        warehouse.changes().subscribe(subscriber);
+
+        warehouse.addProduct(electronics(milk.uuid(), "Milk", "11.00"));
+        warehouse.remove(milk.uuid());
+        subscriber.subscription.request(1);
+
+        List<InventoryChange> batch = subscriber.next();
+        assertThat(batch).extracting(InventoryChange::type).containsExactly(InventoryChange.Type.REMOVED);
+        assertThat(batch.getFirst().productId()).isEqualTo(milk.uuid());
+    }
+
+    @Test
+    @DisplayName("📣 should deliver batches no larger than the configured size")
+    void should_splitIntoBatches() throws InterruptedException {
+        warehouse.changes().subscribe(subscriber, 16, 2);
+        for (int i = 0; i < 5; i++) {
+            warehouse.addProduct(electronics("Item" + i, "10.00"));
+        }
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.next()).hasSize(2);
+        assertThat(subscriber.next()).hasSize(2);
+        assertThat(subscriber.next()).extracting(change -> change.product().name()).containsExactly("Item4");
+    }
+
+    @Test
+    @DisplayName("📣 should replace an overflowing buffer with a reset instead of blocking writers")
+    void should_resetOnOverflow() throws InterruptedException {
+        warehouse.changes().subscribe(subscriber, 4, 256);
+        for (int i = 0; i < 10_000; i++) {
+            warehouse.addProduct(electronics("Item" + i, "10.00"));
+        }
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.next().getFirst().type()).isEqualTo(InventoryChange.Type.RESET);
+        assertThat(warehouse.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("📣 should report bulk repricing and clearing")
+    void should_reportBulkChanges() throws InterruptedException {
+        warehouse.addProduct(electronics("Milk", "10.00"));
+        warehouse.addProduct(electronics("Bread", "10.00"));
+        warehouse.changes().subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        warehouse.repriceWhere(p -> true, p -> p.add(BigDecimal.ONE));
+        List<InventoryChange> batch = subscriber.next();
+        assertThat(batch).hasSize(2).allSatisfy(change -> assertThat(change.type()).isEqualTo(InventoryChange.Type.PRICE_CHANGED));
+
+        warehouse.clearProducts();
+        assertThat(subscriber.next()).extracting(InventoryChange::type).containsExactly(InventoryChange.Type.RESET);
+    }
+
+    static final class RecordingSubscriber implements Flow.Subscriber<List<InventoryChange>> {
+        private final LinkedBlockingQueue<List<InventoryChange>> batches = new LinkedBlockingQueue<>();
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) { this.subscription = subscription; }
+
+        @Override
+        public void onNext(List<InventoryChange> batch) { batches.add(batch); }
+
+        @Override
+        public void onError(Throwable throwable) { }
+
+        @Override
+        public void onComplete() { }
+
+        List<InventoryChange> next() throws InterruptedException {
+            List<InventoryChange> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertThat(batch).as("Expected a batch to be delivered.").isNotNull();
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the JFR events emitted by analyzer runs and bulk mutations.
+ */
+@DisplayName("JFR events")
+class JfrEventsTest {
+
+    private static final String WAREHOUSE = "JfrEventsTestWarehouse";
+
+    @TempDir
+    Path directory;
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance(WAREHOUSE);
+        warehouse.clearProducts();
+        warehouse.resultCache().clear();
+        warehouse.addProduct(electronics("Laptop", "900.00"));
+        warehouse.addProduct(electronics("Phone", "500.00"));
+        warehouse.addProduct(electronics("Cable", "20.00"));
+    }
+
+    @Test
+    @DisplayName("🎥 should record analyzer runs with inventory and result sizes")
+    void should_recordAnalyzerRuns() throws IOException {
+        List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            new WarehouseAnalyzer(warehouse).findProductsAbovePrice(new BigDecimal("100.00"));
+            new WarehouseAnalyzer(warehouse).getInventoryStatistics();
+        });
+
+        List<RecordedEvent> runs = events.stream().filter(event -> event.getEventType().getName().equals("com.example.AnalyzerRun")).toList();
+        assertThat(runs).extracting(event -> event.getString("operation")).containsExactly("FIND_ABOVE_PRICE", "INVENTORY_STATISTICS");
+        assertThat(runs).allSatisfy(event -> {
+            assertThat(event.getInt("inventorySize")).isEqualTo(3);
+            assertThat(event.getDuration().isNegative()).isFalse();
+        });
+        assertThat(runs.getFirst().getInt("resultSize")).isEqualTo(2);
+        assertThat(runs.getLast().getInt("resultSize")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("🎥 should record bulk mutations with the size before and the number affected")
+    void should_recordBulkMutations() throws IOException {
+        List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            warehouse.removeIf(product -> product.price().compareTo(new BigDecimal("100.00")) < 0);
+            warehouse.clearProducts();
+        });
+
+        List<RecordedEvent> mutations = events.stream().filter(event -> event.getEventType().getName().equals("com.example.BulkMutation")).toList();
+        assertThat(mutations).extracting(event -> event.getString("operation")).containsExactly("removeIf", "clearProducts");
+        assertThat(mutations.getFirst().getInt("inventorySize")).isEqualTo(3);
+        assertThat(mutations.getFirst().getInt("resultSize")).isEqualTo(1);
+        assertThat(mutations.getLast().getInt("inventorySize")).isEqualTo(2);
+        assertThat(mutations.getLast().getInt("resultSize")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("🎥 should skip events shorter than the configured threshold")
+    void should_skipEvents_when_belowThreshold() throws IOException {
+        List<RecordedEvent> events = record(Duration.ofHours(1), () -> {
+            new WarehouseAnalyzer(warehouse).getInventoryStatistics();
+            warehouse.removeIf(product -> true);
+        });
+
+        assertThat(events).isEmpty();
+    }
+
+    // Spelar in lagrets händelser medan action körs, med samma tröskel för båda typerna
+    private List<RecordedEvent> record(Duration threshold, Runnable action) throws IOException {
+        Path file = directory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.AnalyzerRun").withThreshold(threshold);
+            recording.enable("com.example.BulkMutation").withThreshold(threshold);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> WAREHOUSE.equals(event.getString("warehouse")))
+                .toList();
+    }
+}
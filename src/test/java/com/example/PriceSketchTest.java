@@ -0,0 +1,92 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for the price quantile sketch and the analyzer's percentile reports.
+ */
+@DisplayName("Price quantiles")
+class PriceSketchTest {
+
+    @Test
+    @DisplayName("📊 should stay within the relative error bound")
+    void should_stayWithinErrorBound() {
+        Random random = new Random(42);
+        PriceSketch sketch = new PriceSketch();
+        List<BigDecimal> prices = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal price = BigDecimal.valueOf((long) Math.exp(random.nextDouble() * 14), 2);
+            prices.add(price);
+            sketch.add(price);
+        }
+        Collections.sort(prices);
+
+        for (double q : new double[]{0.01, 0.5, 0.9, 0.99, 1.0}) {
+            double exact = prices.get((int) Math.ceil(q * prices.size()) - 1).doubleValue();
+            assertThat(sketch.quantile(q).doubleValue()).as("quantile %s", q).isCloseTo(exact, within(exact * 0.016 + 0.01));
+        }
+    }
+
+    @Test
+    @DisplayName("📊 should forget removed prices and merge sketches")
+    void should_removeAndMerge() {
+        PriceSketch low = new PriceSketch();
+        PriceSketch high = new PriceSketch();
+        for (int i = 1; i <= 100; i++) {
+            low.add(new BigDecimal(i));
+            high.add(new BigDecimal(1000 + i));
+        }
+        high.add(new BigDecimal("99999"));
+        high.remove(new BigDecimal("99999"));
+        assertThat(high.quantile(1.0).doubleValue()).isCloseTo(1100, within(1100 * 0.016));
+
+        low.merge(high);
+        assertThat(low.count()).isEqualTo(200);
+        assertThat(low.quantile(0.25).doubleValue()).isCloseTo(50, within(50 * 0.016));
+        assertThat(low.quantile(0.75).doubleValue()).isCloseTo(1050, within(1050 * 0.016));
+        assertThat(new PriceSketch().quantile(0.5)).isNull();
+    }
+
+    @Test
+    @DisplayName("📊 should report percentiles per category as the inventory changes")
+    void should_reportPercentilesPerCategory() {
+        Warehouse warehouse = Warehouse.getInstance("PriceSketchTestWarehouse");
+        warehouse.clearProducts();
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        Product expensive = null;
+        for (int i = 1; i <= 100; i++) {
+            Product product = electronics(Category.of(i <= 50 ? "Cheap" : "Pricey"), "Item" + i, String.valueOf(i * 10));
+            warehouse.addProduct(product);
+            expensive = product;
+        }
+
+        PriceQuantiles all = analyzer.getPriceQuantiles();
+        assertThat(all.p50().doubleValue()).isCloseTo(500, within(8.0));
+        assertThat(all.p90().doubleValue()).isCloseTo(900, within(15.0));
+        assertThat(all.p99().doubleValue()).isCloseTo(990, within(16.0));
+
+        var byCategory = analyzer.getPriceQuantilesByCategory();
+        assertThat(byCategory.get(Category.of("Cheap")).p50().doubleValue()).isCloseTo(250, within(4.0));
+        assertThat(byCategory.get(Category.of("Pricey")).p50().doubleValue()).isCloseTo(750, within(12.0));
+
+        warehouse.updateProductPrice(expensive.uuid(), new BigDecimal("1.00"));
+        assertThat(analyzer.getPriceQuantiles().p99().doubleValue()).isCloseTo(980, within(16.0));
+        assertThat(analyzer.getPriceQuantilesByCategory().get(Category.of("Pricey")).p50().doubleValue())
+                .isCloseTo(740, within(12.0));
+        assertThat(new WarehouseAnalyzer(warehouse.snapshot()).getPriceQuantiles()).isEqualTo(analyzer.getPriceQuantiles());
+
+        warehouse.clearProducts();
+        assertThat(analyzer.getPriceQuantiles().p50()).isEqualByComparingTo("0");
+        assertThat(analyzer.getPriceQuantilesByCategory()).isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the binary product codec.
+ */
+@DisplayName("Product codec")
+class ProductCodecTest {
+
+    private final FoodProduct milk = food("Mjölk 1L", "12.90", LocalDate.of(2031, 5, 17), "1.035");
+    private final ElectronicsProduct laptop = electronics("Laptop 🚀", "12999.00", 36, "2.2");
+    private final FoodProduct cheese = food("Cheese", "89.50", LocalDate.of(2031, 6, 1), "0.5");
+
+    @Test
+    @DisplayName("💾 should round-trip every field through a heap buffer")
+    void should_roundTripThroughHeapBuffer() {
+        List<Product> products = List.of(milk, laptop, cheese);
+        ByteBuffer buffer = ProductCodec.encode(products);
+
+        assertThat(buffer.remaining()).isEqualTo(ProductCodec.encodedSize(products));
+        List<Product> decoded = ProductCodec.decode(buffer);
+
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(decoded).containsExactly(milk, laptop, cheese);
+        FoodProduct decodedMilk = (FoodProduct) decoded.get(0);
+        assertThat(decodedMilk.name()).isEqualTo("Mjölk 1L");
+        assertThat(decodedMilk.category()).isSameAs(Category.of("Dairy"));
+        assertThat(decodedMilk.price()).isEqualTo(new BigDecimal("12.90"));
+        assertThat(decodedMilk.expirationDate()).isEqualTo(LocalDate.of(2031, 5, 17));
+        assertThat(decodedMilk.toString()).isEqualTo(milk.toString());
+        assertThat(decoded.get(1).productDetails()).isEqualTo(laptop.productDetails());
+        assertThat(((Shippable) decoded.get(1)).calculateShippingCost()).isEqualTo(laptop.calculateShippingCost());
+    }
+
+    @Test
+    @DisplayName("💾 should encode into and decode from off-heap memory")
+    void should_roundTripThroughMemorySegment() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(1024);
+            long written = ProductCodec.encode(List.of(laptop, milk), segment);
+
+            assertThat(written).isEqualTo(ProductCodec.encodedSize(List.of(laptop, milk)));
+            assertThat(ProductCodec.decode(segment.asSlice(0, written))).containsExactly(laptop, milk);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(1024).position(7);
+            ProductCodec.encode(List.of(cheese), direct);
+            assertThat(ProductCodec.decode(direct.flip().position(7))).containsExactly(cheese);
+        }
+    }
+
+    @Test
+    @DisplayName("💾 should reject malformed input and leave a short buffer untouched")
+    void should_rejectMalformedInput() {
+        ByteBuffer encoded = ProductCodec.encode(List.of(milk));
+        ByteBuffer truncated = encoded.slice(0, encoded.remaining() - 3);
+        assertThatThrownBy(() -> ProductCodec.decode(truncated))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Truncated product stream.");
+
+        ByteBuffer wrongVersion = ProductCodec.encode(List.of(milk));
+        wrongVersion.put(2, (byte) 9);
+        assertThatThrownBy(() -> ProductCodec.decode(wrongVersion))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported codec version: 9");
+
+        ByteBuffer small = ByteBuffer.allocate(16);
+        assertThatThrownBy(() -> ProductCodec.encode(List.of(milk), small)).isInstanceOf(BufferOverflowException.class);
+        assertThat(small.position()).isZero();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for capability-partitioned product storage.
+ */
+@DisplayName("Capability partitions")
+class ProductPartitionsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2031, 3, 1);
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ProductPartitionsTestWarehouse");
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("🗂️ should serve perishable and shippable queries from their partitions")
+    void should_servePartitionedQueries() {
+        FoodProduct milk = food("Milk", "20.00", TODAY.plusDays(3));
+        FoodProduct yoghurt = food("Yoghurt", "20.00", TODAY.plusDays(40));
+        ElectronicsProduct phone = electronics("Phone", "4999.00", 24, "0.2");
+        warehouse.addProduct(milk);
+        warehouse.addProduct(yoghurt);
+        warehouse.addProduct(phone);
+
+        WarehouseSnapshot snapshot = warehouse.snapshot();
+        assertThat(snapshot.shippableProducts()).containsExactlyInAnyOrder(milk, yoghurt, phone);
+        assertThat(snapshot.perishablesExpiringBetween(TODAY, TODAY.plusDays(10))).containsExactly(milk);
+        assertThat(snapshot.perishablesExpiringBetween(LocalDate.MIN, LocalDate.MAX)).containsExactly(milk, yoghurt);
+
+        warehouse.remove(yoghurt.uuid());
+        assertThat(warehouse.shippableProducts()).containsExactlyInAnyOrder(milk, phone);
+        assertThat(snapshot.shippableProducts()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("🗂️ should move a product between partitions when its id is reused")
+    void should_movePartition_when_idReused() {
+        UUID id = UUID.randomUUID();
+        warehouse.addProduct(food(id, "Milk", "20.00", TODAY, "1.0"));
+        ElectronicsProduct replacement = electronics(id, "Phone", "4999.00", 24, "0.2");
+        warehouse.addProduct(replacement);
+
+        WarehouseSnapshot snapshot = warehouse.snapshot();
+        assertThat(snapshot.perishablesExpiringBetween(LocalDate.MIN, LocalDate.MAX)).isEmpty();
+        assertThat(snapshot.shippableProducts()).containsExactly(replacement);
+
+        warehouse.updateProductPrice(id, new BigDecimal("1.00"));
+        assertThat(warehouse.snapshot().shippableProducts()).singleElement()
+                .satisfies(item -> assertThat(((Product) item).price()).isEqualByComparingTo("1.00"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for composable queries and their index-aware planning.
+ */
+@DisplayName("Product queries")
+class ProductQueryTest {
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("QueryTestWarehouse");
+        warehouse.clearProducts();
+        for (int i = 0; i < 50; i++) {
+            warehouse.addProduct(electronics("Cable " + i, String.valueOf(10 + i)));
+        }
+        warehouse.addProduct(food("Organic Milk", "12.00", LocalDate.now().plusDays(1)));
+        warehouse.addProduct(food("Almond Milk", "25.00", LocalDate.now().plusDays(2)));
+        warehouse.addProduct(food("Cheddar", "15.00", LocalDate.now().plusDays(10)));
+    }
+
+    @Test
+    @DisplayName("🔍 should combine conditions and answer from the most selective index")
+    void should_combineConditions_usingMostSelectiveIndex() {
+        ProductQuery query = warehouse.query()
+                .priceBetween(new BigDecimal("10.00"), new BigDecimal("30.00"))
+                .inCategory(Category.of("Dairy"))
+                .expiringWithinDays(10)
+                .nameContains("MILK");
+
+        assertThat(query.list())
+                .extracting(Product::name)
+                .containsExactlyInAnyOrder("Organic Milk", "Almond Milk");
+        assertThat(query.explain()).startsWith("name(milk) ~2");
+    }
+
+    @Test
+    @DisplayName("🔍 should fall back to a scan when no condition has an index")
+    void should_scan_when_noIndexApplies() {
+        ProductQuery query = warehouse.query().nameContains("mi").where(p -> p instanceof Perishable);
+
+        assertThat(query.explain()).startsWith("scan ~53");
+        assertThat(query.list()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("📋 should order and limit results")
+    void should_orderAndLimit() {
+        assertThat(warehouse.query()
+                .inCategory(Category.of("Electronics"))
+                .orderBy(Comparator.comparing(Product::price).reversed())
+                .limit(3)
+                .list())
+                .extracting(Product::name)
+                .containsExactly("Cable 49", "Cable 48", "Cable 47");
+    }
+
+    @Test
+    @DisplayName("🔄 should keep indexes in sync with price updates and removals")
+    void should_followMutations() {
+        Product cheddar = warehouse.query().nameContains("cheddar").list().getFirst();
+
+        warehouse.updateProductPrice(cheddar.uuid(), new BigDecimal("500.00"));
+        assertThat(warehouse.query().priceAbove(new BigDecimal("100")).list()).containsExactly(cheddar);
+
+        warehouse.remove(cheddar.uuid());
+        assertThat(warehouse.query().priceAbove(new BigDecimal("100")).list()).isEmpty();
+        assertThat(warehouse.query().nameContains("cheddar").list()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("📄 should page through a broad query with keyset cursors")
+    void should_pageThroughResults() {
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        List<Product> seen = new ArrayList<>();
+        PageCursor cursor = null;
+        int pages = 0;
+        do {
+            Page<Product> page = analyzer.findProductsAbovePrice(BigDecimal.ZERO, cursor, 20);
+            seen.addAll(page.items());
+            cursor = page.next();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(53).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo(Comparator.comparing(Product::price));
+    }
+
+    @Test
+    @DisplayName("📄 should page a selective query in price order")
+    void should_pageSelectiveQuery() {
+        Page<Product> first = warehouse.query().inCategory(Category.of("Dairy")).page(2);
+        Page<Product> second = warehouse.query().inCategory(Category.of("Dairy")).page(first.next(), 2);
+
+        assertThat(first.items()).extracting(Product::name).containsExactly("Organic Milk", "Cheddar");
+        assertThat(second.items()).extracting(Product::name).containsExactly("Almond Milk");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("🌊 should stream lazily")
+    void should_streamLazily() {
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+
+        assertThat(analyzer.streamProductsInPriceRange(new BigDecimal("10"), new BigDecimal("100")).limit(2))
+                .extracting(Product::name)
+                .containsExactly("Cable 0", "Cable 1");
+        assertThat(analyzer.streamProductsExpiringWithinDays(1)).hasSize(1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the persistent UUID-keyed product trie.
+ */
+@DisplayName("Product trie")
+class ProductTrieTest {
+
+    @Test
+    @DisplayName("🌳 should behave like a map through random additions, replacements and removals")
+    void should_behaveLikeMap_when_mutatedRandomly() {
+        Random random = new Random(7);
+        Map<UUID, Product> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        ProductTrie trie = ProductTrie.EMPTY;
+
+        for (int i = 0; i < 20_000; i++) {
+            int action = random.nextInt(10);
+            if (action < 6 || ids.isEmpty()) {
+                Product product = electronics(new UUID(random.nextLong(), random.nextLong()), "Item" + i, String.valueOf(i));
+                ids.add(product.uuid());
+                expected.put(product.uuid(), product);
+                trie = trie.with(product);
+            } else if (action < 8) {
+                Product product = electronics(ids.get(random.nextInt(ids.size())), "Item" + i, String.valueOf(i));
+                expected.put(product.uuid(), product);
+                trie = trie.with(product);
+            } else {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                expected.remove(id);
+                trie = trie.without(id);
+            }
+        }
+
+        assertThat(trie.size()).isEqualTo(expected.size());
+        assertThat(trie.values()).containsExactlyInAnyOrderElementsOf(expected.values());
+        for (Map.Entry<UUID, Product> entry : expected.entrySet()) {
+            assertThat(trie.get(entry.getKey())).isSameAs(entry.getValue());
+        }
+        assertThat(trie.get(UUID.randomUUID())).isNull();
+    }
+
+    @Test
+    @DisplayName("🌳 should leave earlier versions untouched")
+    void should_leaveEarlierVersionsUntouched() {
+        Product first = electronics("Item1", "1");
+        Product second = electronics("Item2", "2");
+        ProductTrie one = ProductTrie.EMPTY.with(first);
+        ProductTrie two = one.with(second);
+        ProductTrie back = two.without(first.uuid());
+
+        assertThat(one.values()).containsExactly(first);
+        assertThat(two.values()).containsExactlyInAnyOrder(first, second);
+        assertThat(back.values()).containsExactly(second);
+        assertThat(back.without(first.uuid())).isSameAs(back);
+    }
+
+    @Test
+    @DisplayName("🌳 should keep products whose hashes collide apart")
+    void should_keepCollidingProductsApart() {
+        Random random = new Random(11);
+        Map<Integer, UUID> seen = new HashMap<>();
+        UUID first;
+        UUID second;
+        while (true) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            UUID previous = seen.put(ProductTrie.hash(id.getMostSignificantBits(), id.getLeastSignificantBits()), id);
+            if (previous != null) {
+                first = previous;
+                second = id;
+                break;
+            }
+        }
+        Product a = electronics(first, "Item1", "1");
+        Product b = electronics(second, "Item2", "2");
+        Product c = electronics(new UUID(1, 2), "Item3", "3");
+
+        ProductTrie trie = ProductTrie.EMPTY.with(a).with(b).with(c);
+        assertThat(trie.get(first)).isSameAs(a);
+        assertThat(trie.get(second)).isSameAs(b);
+        assertThat(trie.size()).isEqualTo(3);
+
+        Product updated = electronics(second, "Item4", "4");
+        trie = trie.with(updated).without(first);
+        assertThat(trie.get(first)).isNull();
+        assertThat(trie.get(second.getMostSignificantBits(), second.getLeastSignificantBits())).isSameAs(updated);
+        assertThat(trie.values()).containsExactlyInAnyOrder(updated, c);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests for change-log replication from a leader to a follower warehouse.
+ */
+@DisplayName("Replication")
+class ReplicationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path directory;
+
+    private Warehouse leader;
+    private Warehouse follower;
+    private Pipe pipe;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        leader = Warehouse.getInstance("ReplicationTestLeader");
+        follower = Warehouse.getInstance("ReplicationTestFollower");
+        leader.clearProducts();
+        follower.clearProducts();
+        pipe = Pipe.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        leader.disableColdTier();
+        follower.disableColdTier();
+    }
+
+    @Test
+    @DisplayName("🔁 should start from a snapshot and follow every kind of change")
+    void should_followLeaderChanges() throws Exception {
+        Product milk = food("Milk", "12.00");
+        Product cheese = food("Cheese", "89.00");
+        leader.addProduct(milk);
+        leader.addProduct(cheese);
+
+        try (ReplicationSource source = ReplicationSource.start(leader, pipe.sink());
+             ReplicationFollower replica = ReplicationFollower.start(follower, pipe.source())) {
+            assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+            assertSameContents();
+
+            Product laptop = electronics("Laptop", "9999.00");
+            leader.addProduct(laptop);
+            leader.updateProductPrice(milk.uuid(), new BigDecimal("13.50"));
+            leader.remove(cheese.uuid());
+            leader.repriceCategory(Category.of("Electronics"), price -> price.subtract(BigDecimal.ONE));
+
+            assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+            assertSameContents();
+            assertThat(follower.getProductById(laptop.uuid()).orElseThrow().price()).isEqualByComparingTo("9998.00");
+            assertThat(new WarehouseAnalyzer(follower).calculateWeightedAveragePriceByCategory())
+                    .isEqualTo(new WarehouseAnalyzer(leader).calculateWeightedAveragePriceByCategory());
+            assertThat(source.snapshotsSent()).isEqualTo(1);
+            assertThat(source.sentVersion()).isEqualTo(leader.version());
+
+            leader.clearProducts();
+            assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+            assertThat(follower.getProducts()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("🔁 should catch up from a fresh snapshot when the follower falls too far behind")
+    void should_catchUpFromSnapshot_when_followerLags() throws Exception {
+        try (ReplicationSource source = ReplicationSource.start(leader, pipe.sink(), 8, 4)) {
+            for (int i = 0; i < 2_000; i++) {
+                leader.addProduct(food("Item " + i, "10.00"));
+            }
+            try (ReplicationFollower replica = ReplicationFollower.start(follower, pipe.source())) {
+                assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+                assertThat(source.snapshotsSent()).isGreaterThan(1);
+                assertSameContents();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("🔁 should remove a product that was buffered before the snapshot and removed after it")
+    void should_removeProduct_when_removedAfterSnapshotContainingIt() throws Exception {
+        GatedChannel channel = new GatedChannel(pipe.sink());
+        try (ReplicationSource source = ReplicationSource.start(leader, channel, 8, 1);
+             ReplicationFollower replica = ReplicationFollower.start(follower, pipe.source())) {
+            assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+
+            // Källan fastnar på nästa ram medan bufferten svämmar över till en RESET
+            channel.hold();
+            leader.addProduct(food("Blocked", "10.00"));
+            channel.awaitBlocked();
+            for (int i = 0; i < 9; i++) {
+                leader.addProduct(food("Item " + i, "10.00"));
+            }
+            // Ligger kvar efter RESET, med en version som ingår i nästa ögonblicksbild
+            Product gone = food("Gone", "10.00");
+            leader.addProduct(gone);
+
+            channel.pass();
+            channel.awaitBlocked();
+            leader.remove(gone.uuid());
+            channel.open();
+
+            assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+            assertThat(source.snapshotsSent()).isEqualTo(2);
+            assertThat(follower.getProductById(gone.uuid())).isEmpty();
+            assertSameContents();
+        }
+    }
+
+    @Test
+    @DisplayName("🔁 should replicate products on disk and report their removal on the follower")
+    void should_replicateColdProducts() throws Exception {
+        TieringPolicy policy = TieringPolicy.of(1, Duration.ofDays(30), 10);
+        leader.enableColdTier(directory.resolve("leader.bin"), policy);
+        follower.enableColdTier(directory.resolve("follower.bin"), policy);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            products.add(food("Item " + i, "10.00"));
+            leader.addProduct(products.getLast());
+        }
+        assertThat(leader.coldSize()).isPositive();
+
+        InventoryChangeTest.RecordingSubscriber removals = new InventoryChangeTest.RecordingSubscriber();
+        try (ReplicationSource source = ReplicationSource.start(leader, pipe.sink());
+             ReplicationFollower replica = ReplicationFollower.start(follower, pipe.source())) {
+            assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+            assertThat(follower.size() + follower.coldSize()).isEqualTo(30);
+            assertThat(follower.coldSize()).isPositive();
+
+            List<Product> hot = follower.getProducts();
+            Product cold = products.stream().filter(product -> !hot.contains(product)).findFirst().orElseThrow();
+            follower.changes().subscribe(removals);
+            removals.subscription.request(Long.MAX_VALUE);
+            leader.remove(cold.uuid());
+
+            assertThat(replica.awaitVersion(leader.version(), TIMEOUT)).isTrue();
+            assertThat(removals.next()).extracting(InventoryChange::type, InventoryChange::productId)
+                    .containsExactly(tuple(InventoryChange.Type.REMOVED, cold.uuid()));
+            assertThat(follower.size() + follower.coldSize()).isEqualTo(29);
+            assertThat(follower.getProductById(cold.uuid())).isEmpty();
+        } finally {
+            removals.subscription.cancel();
+        }
+    }
+
+    @Test
+    @DisplayName("🔁 should stop on a gap in the frame sequence")
+    void should_stop_when_sequenceHasGap() throws Exception {
+        try (ReplicationFollower replica = ReplicationFollower.start(follower, pipe.source())) {
+            ReplicationProtocol.writeSnapshot(pipe.sink(), 0, 5, List.of(food("Milk", "12.00")));
+            ReplicationProtocol.writeChanges(pipe.sink(), 2, 6, List.of());
+
+            assertThat(replica.awaitVersion(6, TIMEOUT)).isFalse();
+            assertThat(replica.appliedVersion()).isEqualTo(5);
+            assertThat(replica.isRunning()).isFalse();
+            assertThat(replica.failure()).hasMessage("Replication sequence gap: expected 1, was 2");
+            assertThat(follower.size()).isEqualTo(1);
+        }
+    }
+
+    private void assertSameContents() {
+        Map<UUID, BigDecimal> expected = prices(leader.getProducts());
+        assertThat(prices(follower.getProducts())).isEqualTo(expected);
+        assertThat(follower.countPerishables(ExpiryState.FRESH)).isEqualTo(leader.countPerishables(ExpiryState.FRESH));
+    }
+
+    private static Map<UUID, BigDecimal> prices(List<Product> products) {
+        return products.stream().collect(Collectors.toMap(Product::uuid, product -> product.price().stripTrailingZeros()));
+    }
+
+    // Släpper igenom ramar en i taget medan den hålls
+    private static final class GatedChannel implements WritableByteChannel {
+        private final WritableByteChannel delegate;
+        private final Semaphore permits = new Semaphore(0);
+        private final Semaphore blocked = new Semaphore(0);
+        private volatile boolean held;
+
+        GatedChannel(WritableByteChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            if (held && source.position() == 0) {
+                blocked.release();
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            return delegate.write(source);
+        }
+
+        void hold() {
+            held = true;
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertThat(blocked.tryAcquire(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).as("Expected a frame to be held.").isTrue();
+        }
+
+        void pass() {
+            permits.release();
+        }
+
+        void open() {
+            held = false;
+            permits.release();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
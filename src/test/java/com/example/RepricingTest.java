@@ -0,0 +1,94 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for bulk repricing operations.
+ */
+@DisplayName("Bulk repricing")
+class RepricingTest {
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("RepricingTestWarehouse");
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("💲 should reprice a category and keep indexes in sync")
+    void should_repriceCategory() {
+        Product milk = food("Milk", "10.00");
+        Product cheese = food("Cheese", "100.00");
+        Product laptop = electronics("Laptop", "1000.00");
+        warehouse.addProduct(milk);
+        warehouse.addProduct(cheese);
+        warehouse.addProduct(laptop);
+        long version = warehouse.version();
+
+        int touched = warehouse.repriceCategory(Category.of("Dairy"), p -> p.multiply(new BigDecimal("1.03")));
+
+        assertThat(touched).isEqualTo(2);
+        assertThat(warehouse.version()).as("A bulk update publishes one new version.").isEqualTo(version + 1);
+        assertThat(warehouse.getProductById(milk.uuid()).orElseThrow().price()).isEqualByComparingTo("10.30");
+        assertThat(warehouse.getProductById(cheese.uuid()).orElseThrow().price()).isEqualByComparingTo("103.00");
+        assertThat(warehouse.getChangedProducts()).containsExactlyInAnyOrder(milk.uuid(), cheese.uuid());
+        assertThat(warehouse.query().priceBetween(new BigDecimal("10.30"), new BigDecimal("10.30")).list()).containsExactly(milk);
+    }
+
+    @Test
+    @DisplayName("💲 should reprice by predicate and skip unchanged prices")
+    void should_repriceWhere() {
+        warehouse.addProduct(electronics("Laptop", "1234.56"));
+        warehouse.addProduct(electronics("Monitor", "2000.00"));
+        warehouse.addProduct(electronics("Mouse", "199.90"));
+
+        int touched = warehouse.repriceWhere(p -> p.price().compareTo(new BigDecimal("1000")) > 0,
+                p -> p.setScale(-2, RoundingMode.HALF_UP));
+
+        assertThat(touched).as("Monitor is already rounded and is not counted.").isEqualTo(1);
+        assertThat(warehouse.query().priceAbove(new BigDecimal("1000")).list())
+                .extracting(p -> p.price().toPlainString())
+                .containsExactly("1200.00", "2000.00");
+    }
+
+    @Test
+    @DisplayName("💲 should apply a price map all-or-nothing")
+    void should_applyPriceMap() {
+        Product milk = food("Milk", "10.00");
+        warehouse.addProduct(milk);
+
+        assertThatThrownBy(() -> warehouse.updateProductPrices(Map.of(milk.uuid(), new BigDecimal("12.00"),
+                UUID.randomUUID(), BigDecimal.ONE)))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("Product not found with id:");
+        assertThat(warehouse.getProductById(milk.uuid()).orElseThrow().price()).isEqualByComparingTo("10.00");
+
+        assertThat(warehouse.updateProductPrices(Map.of(milk.uuid(), new BigDecimal("12.00")))).isEqualTo(1);
+        assertThat(warehouse.getProductById(milk.uuid()).orElseThrow().price()).isEqualByComparingTo("12.00");
+    }
+
+    @Test
+    @DisplayName("💲 should reprice large inventories in parallel")
+    void should_repriceLargeInventory() {
+        for (int i = 0; i < 10_000; i++) {
+            warehouse.addProduct(electronics("Item" + i, "10.00"));
+        }
+
+        assertThat(warehouse.repriceWhere(p -> true, p -> p.add(BigDecimal.ONE))).isEqualTo(10_000);
+        assertThat(warehouse.query().priceBetween(new BigDecimal("11"), new BigDecimal("11")).list()).hasSize(10_000);
+        assertThat(warehouse.getChangedProducts()).hasSize(10_000);
+    }
+}
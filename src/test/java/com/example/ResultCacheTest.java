@@ -0,0 +1,108 @@
+package com.example;
+
+import com.example.WarehouseMetrics.Operation;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for version-keyed caching of analyzer results.
+ */
+@DisplayName("Analyzer result cache")
+class ResultCacheTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ResultCacheTestWarehouse");
+        warehouse.clearProducts();
+        warehouse.resultCache().clear();
+        analyzer = new WarehouseAnalyzer(warehouse);
+        warehouse.addProduct(electronics("Laptop", "900.00"));
+        warehouse.addProduct(electronics("Phone", "500.00"));
+    }
+
+    @Test
+    @DisplayName("🗄️ should return the cached result while the inventory is unchanged")
+    void should_returnCachedResult_when_unchanged() {
+        long misses = warehouse.resultCache().misses();
+        InventoryStatistics first = analyzer.getInventoryStatistics();
+        long hits = warehouse.resultCache().hits();
+        assertThat(warehouse.resultCache().misses()).isEqualTo(misses + 1);
+
+        assertThat(analyzer.getInventoryStatistics()).isSameAs(first);
+        assertThat(new WarehouseAnalyzer(warehouse).getInventoryStatistics()).isSameAs(first);
+        assertThat(new WarehouseAnalyzer(warehouse.snapshot()).getInventoryStatistics()).isSameAs(first);
+        assertThat(warehouse.resultCache().hits()).isEqualTo(hits + 3);
+        assertThat(warehouse.resultCache().misses()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    @DisplayName("🗄️ should recompute after any mutation")
+    void should_recompute_when_mutated() {
+        Product tablet = electronics("Tablet", "300.00");
+        InventoryStatistics before = analyzer.getInventoryStatistics();
+        WarehouseAnalyzer snapshotAnalyzer = new WarehouseAnalyzer(warehouse.snapshot());
+
+        warehouse.addProduct(tablet);
+        assertThat(analyzer.getInventoryStatistics().getTotalProducts()).isEqualTo(3);
+
+        warehouse.updateProductPrice(tablet.uuid(), new BigDecimal("2000.00"));
+        assertThat(analyzer.getInventoryStatistics().getMostExpensiveProduct().name()).isEqualTo("Tablet");
+
+        assertThat(snapshotAnalyzer.getInventoryStatistics()).as("The snapshot still sees its own version.").isSameAs(before);
+    }
+
+    @Test
+    @DisplayName("🗄️ should key results by argument")
+    void should_keyByArgument() {
+        // ShippingGroup jämförs på identitet, så lika listor betyder samma cachade grupper
+        assertThat(analyzer.optimizeShippingGroups(new BigDecimal("10.0")))
+                .isEqualTo(analyzer.optimizeShippingGroups(new BigDecimal("10.00")));
+        assertThat(analyzer.optimizeShippingGroups(new BigDecimal("10.0")))
+                .isNotEqualTo(analyzer.optimizeShippingGroups(new BigDecimal("5.0")));
+    }
+
+    @Test
+    @DisplayName("🗄️ should hand out copies that callers may modify")
+    void should_returnModifiableCopies() {
+        List<Product> outliers = analyzer.findPriceOutliers(1.0);
+        int size = outliers.size();
+        outliers.clear();
+        Map<Category, BigDecimal> averages = analyzer.calculateWeightedAveragePriceByCategory();
+        averages.clear();
+        analyzer.calculateExpirationBasedDiscounts().clear();
+        analyzer.optimizeShippingGroups(new BigDecimal("10.0")).sort(Comparator.comparing(ShippingGroup::getTotalWeight));
+
+        assertThat(analyzer.findPriceOutliers(1.0)).hasSize(size);
+        assertThat(analyzer.calculateWeightedAveragePriceByCategory()).isNotEmpty();
+        assertThat(analyzer.calculateExpirationBasedDiscounts()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("🗄️ should evict the least recently used entry beyond its capacity")
+    void should_evictLeastRecentlyUsed() {
+        ResultCache cache = new ResultCache(2);
+        ResultCache.Key a = new ResultCache.Key(Operation.PRICE_OUTLIERS, 1.0, 1);
+        ResultCache.Key b = new ResultCache.Key(Operation.PRICE_OUTLIERS, 2.0, 1);
+        ResultCache.Key c = new ResultCache.Key(Operation.PRICE_OUTLIERS, 3.0, 1);
+
+        cache.put(a, "a");
+        cache.put(b, "b");
+        cache.get(a);
+        cache.put(c, "c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(a)).isEqualTo("a");
+        assertThat(cache.get(b)).isNull();
+        assertThat(cache.get(c)).isEqualTo("c");
+    }
+}
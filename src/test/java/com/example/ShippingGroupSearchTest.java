@@ -0,0 +1,82 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the time-bounded improvement of shipping groups.
+ */
+@DisplayName("Shipping group local search")
+class ShippingGroupSearchTest {
+
+    private static final BigDecimal MAX_WEIGHT = new BigDecimal("10.0");
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ShippingGroupSearchTestWarehouse");
+        warehouse.clearProducts();
+        analyzer = new WarehouseAnalyzer(warehouse);
+    }
+
+    @Test
+    @DisplayName("📦 should find a packing with fewer groups than first-fit decreasing")
+    void should_useFewerGroups_than_firstFitDecreasing() {
+        for (String weight : new String[]{"4", "4", "3", "3", "3", "3"}) {
+            warehouse.addProduct(electronics("Box " + weight, "100.00", weight));
+        }
+
+        assertThat(analyzer.optimizeShippingGroups(MAX_WEIGHT)).hasSize(3);
+        List<ShippingGroup> improved = analyzer.optimizeShippingGroups(MAX_WEIGHT, Duration.ofSeconds(5), 2);
+
+        assertThat(improved).hasSize(2);
+        assertFeasible(improved, 6);
+        assertThat(improved.stream().map(ShippingGroup::getTotalShippingCost).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo("474.00");
+    }
+
+    @Test
+    @DisplayName("📦 should return a feasible packing when the budget expires")
+    void should_returnFeasiblePacking_when_budgetExpires() {
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            warehouse.addProduct(electronics("Box", "100.00", BigDecimal.valueOf(1 + random.nextInt(60), 1).toPlainString()));
+        }
+        int initial = analyzer.optimizeShippingGroups(MAX_WEIGHT).size();
+
+        long start = System.nanoTime();
+        List<ShippingGroup> improved = analyzer.optimizeShippingGroups(MAX_WEIGHT, Duration.ofMillis(200));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(2));
+        assertThat(improved.size()).isLessThanOrEqualTo(initial);
+        assertFeasible(improved, 300);
+        assertThat(analyzer.optimizeShippingGroups(MAX_WEIGHT, Duration.ZERO)).hasSize(initial);
+    }
+
+    @Test
+    @DisplayName("📦 should reject a missing budget")
+    void should_rejectMissingBudget() {
+        assertThatThrownBy(() -> analyzer.optimizeShippingGroups(MAX_WEIGHT, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Time budget cannot be null or negative.");
+        assertThatThrownBy(() -> analyzer.optimizeShippingGroups(MAX_WEIGHT, Duration.ofMillis(1), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Parallelism must be at least 1.");
+    }
+
+    private void assertFeasible(List<ShippingGroup> groups, int products) {
+        assertThat(groups).allSatisfy(group -> assertThat(group.getTotalWeight()).isLessThanOrEqualTo(10.0));
+        assertThat(groups.stream().flatMap(group -> group.getProducts().stream()).distinct().count()).isEqualTo(products);
+    }
+}
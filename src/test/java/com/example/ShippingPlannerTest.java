@@ -0,0 +1,101 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for incremental shipping group planning.
+ */
+@DisplayName("Shipping planner")
+class ShippingPlannerTest {
+
+    private static final BigDecimal MAX_WEIGHT = new BigDecimal("10.0");
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ShippingPlannerTestWarehouse");
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("🚛 should place arriving parcels best-fit and close full groups")
+    void should_placeArrivals_and_closeFullGroups() {
+        warehouse.addProduct(electronics("Parcel 6", "100.00", "6"));
+        try (ShippingPlanner planner = warehouse.openShippingPlanner(MAX_WEIGHT)) {
+            Product four = electronics("Parcel 4", "100.00", "4");
+            warehouse.addProduct(electronics("Parcel 7", "100.00", "7"));
+            warehouse.addProduct(electronics("Parcel 3", "100.00", "3"));
+            warehouse.addProduct(four);
+
+            assertThat(planner.closedGroups()).extracting(ShippingGroup::getTotalWeight).containsExactly(10.0, 10.0);
+            assertThat(planner.openGroups()).isEmpty();
+
+            warehouse.remove(four.uuid());
+            assertThat(planner.openGroups()).extracting(ShippingGroup::getTotalWeight).containsExactly(6.0);
+            assertThat(planner.closedGroups()).hasSize(1);
+
+            warehouse.addProduct(electronics("Parcel 2", "100.00", "2"));
+            warehouse.addProduct(electronics("Parcel 12", "100.00", "12"));
+            assertThat(planner.openGroups()).extracting(ShippingGroup::getTotalWeight).containsExactly(8.0);
+            assertThat(planner.closedGroups()).extracting(ShippingGroup::getTotalWeight).containsExactly(10.0, 12.0);
+            assertThat(planner.groupCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("🚛 should stay feasible and complete through random changes")
+    void should_stayFeasible_when_changedRandomly() {
+        Random random = new Random(3);
+        List<Product> present = new ArrayList<>();
+        try (ShippingPlanner planner = warehouse.openShippingPlanner(MAX_WEIGHT, new BigDecimal("0.5"))) {
+            for (int i = 0; i < 2_000; i++) {
+                if (present.isEmpty() || random.nextInt(3) > 0) {
+                    Product product = electronics("Parcel", "100.00", BigDecimal.valueOf(1 + random.nextInt(50), 1).toPlainString());
+                    warehouse.addProduct(product);
+                    present.add(product);
+                } else {
+                    Product product = present.remove(random.nextInt(present.size()));
+                    warehouse.remove(product.uuid());
+                }
+            }
+            warehouse.updateProductPrice(present.getFirst().uuid(), new BigDecimal("1.00"));
+
+            List<ShippingGroup> groups = new ArrayList<>(planner.openGroups());
+            groups.addAll(planner.closedGroups());
+            assertThat(groups).allSatisfy(group -> assertThat(group.getTotalWeight()).isLessThanOrEqualTo(10.0));
+            assertThat(planner.closedGroups()).allSatisfy(group -> assertThat(group.getTotalWeight()).isGreaterThanOrEqualTo(9.5));
+            assertThat(groups.stream().flatMap(group -> group.getProducts().stream()).map(Product.class::cast))
+                    .containsExactlyInAnyOrderElementsOf(warehouse.getProducts());
+            assertThat(groups.stream().flatMap(group -> group.getProducts().stream()))
+                    .anySatisfy(item -> assertThat(((Product) item).price()).isEqualByComparingTo("1.00"));
+
+            warehouse.clearProducts();
+            assertThat(planner.groupCount()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("🚛 should stop following the warehouse when closed")
+    void should_stopFollowing_when_closed() {
+        ShippingPlanner planner = warehouse.openShippingPlanner(MAX_WEIGHT);
+        warehouse.addProduct(electronics("Parcel 5", "100.00", "5"));
+        planner.close();
+        warehouse.addProduct(electronics("Parcel 5", "100.00", "5"));
+
+        assertThat(planner.groupCount()).isEqualTo(1);
+        assertThat(planner.openGroups().getFirst().getProducts()).hasSize(1);
+        assertThatThrownBy(() -> warehouse.openShippingPlanner(MAX_WEIGHT, MAX_WEIGHT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Closing margin must be at least zero and below the max weight.");
+    }
+}
@@ -0,0 +1,104 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for cached shipping quotes and configurable shipping rates.
+ */
+@DisplayName("Shipping quotes")
+class ShippingQuotesTest {
+
+    private Warehouse warehouse;
+    private FoodProduct milk;
+    private ElectronicsProduct printer;
+    private ElectronicsProduct phone;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("ShippingQuotesTestWarehouse");
+        warehouse.clearProducts();
+        warehouse.setShippingRates(ShippingRates.defaults());
+        milk = food("Milk", "15.00", LocalDate.now().plusDays(5), "1.25");
+        printer = electronics("Printer", "2000.00", "8.0");
+        phone = electronics("Phone", "500.00", "0.2");
+        warehouse.addProduct(milk);
+        warehouse.addProduct(printer);
+        warehouse.addProduct(phone);
+    }
+
+    @Test
+    @DisplayName("🚚 should quote the same costs as the products at the default rates")
+    void should_matchProductCosts_when_defaultRates() {
+        for (Shippable shippable : warehouse.shippableProducts()) {
+            assertThat(warehouse.shippingCost(shippable)).isEqualTo(shippable.calculateShippingCost());
+        }
+        assertThat(warehouse.shippingCost(milk)).isEqualTo(new BigDecimal("62.50"));
+        assertThat(warehouse.shippingCost(printer)).isEqualTo(new BigDecimal("128.00"));
+
+        List<ShippingGroup> groups = new WarehouseAnalyzer(warehouse).optimizeShippingGroups(new BigDecimal("10.0"));
+        for (ShippingGroup group : groups) {
+            ShippingGroup direct = new ShippingGroup(group.getProducts());
+            assertThat(group.getTotalShippingCost()).isEqualTo(direct.getTotalShippingCost());
+            assertThat(group.getTotalWeight()).isEqualTo(direct.getTotalWeight());
+        }
+    }
+
+    @Test
+    @DisplayName("🚚 should requote every product when the rates change")
+    void should_requote_when_ratesChange() {
+        WarehouseSnapshot before = warehouse.snapshot();
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse);
+        BigDecimal defaultTotal = total(analyzer.optimizeShippingGroups(new BigDecimal("100")));
+
+        warehouse.setShippingRates(ShippingRates.of(new BigDecimal("40"), new BigDecimal("99"),
+                new BigDecimal("100"), new BigDecimal("10")));
+
+        assertThat(warehouse.version()).isGreaterThan(before.version());
+        assertThat(warehouse.shippingCost(milk)).isEqualTo(new BigDecimal("50.00"));
+        assertThat(warehouse.shippingCost(printer)).isEqualTo(new BigDecimal("99.00"));
+        assertThat(total(analyzer.optimizeShippingGroups(new BigDecimal("100")))).isEqualTo(new BigDecimal("248.00"));
+        assertThat(analyzer.findHighestShippingCostProducts(1)).singleElement().isIn(printer, phone);
+
+        assertThat(before.shippingCost(milk)).isEqualTo(new BigDecimal("62.50"));
+        assertThat(total(new WarehouseAnalyzer(before).optimizeShippingGroups(new BigDecimal("100")))).isEqualTo(defaultTotal);
+    }
+
+    @Test
+    @DisplayName("🚚 should let other Shippable implementations quote themselves")
+    void should_quoteOtherShippables() {
+        Shippable parcel = new Shippable() {
+            @Override
+            public BigDecimal calculateShippingCost() { return new BigDecimal("19.00"); }
+
+            @Override
+            public double weight() { return 3.0; }
+        };
+
+        assertThat(warehouse.shippingCost(parcel)).isEqualTo(new BigDecimal("19.00"));
+        assertThat(warehouse.snapshot().shippingCost(parcel)).isEqualTo(new BigDecimal("19.00"));
+    }
+
+    @Test
+    @DisplayName("🚚 should reject invalid rates")
+    void should_rejectInvalidRates() {
+        assertThatThrownBy(() -> ShippingRates.of(new BigDecimal("-1"), BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Food rate per kg cannot be null or negative.");
+        assertThatThrownBy(() -> warehouse.setShippingRates(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Shipping rates cannot be null.");
+    }
+
+    private static BigDecimal total(List<ShippingGroup> groups) {
+        return groups.stream().map(ShippingGroup::getTotalShippingCost).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
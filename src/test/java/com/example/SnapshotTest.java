@@ -0,0 +1,142 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for versioned snapshots and concurrent access to a warehouse.
+ */
+@DisplayName("Snapshots and concurrent access")
+class SnapshotTest {
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("SnapshotTestWarehouse");
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("📸 should keep a snapshot unchanged when the warehouse is modified")
+    void should_keepSnapshot_when_warehouseModified() {
+        Product laptop = electronics("Laptop", "900.00");
+        Product phone = electronics("Phone", "500.00");
+        warehouse.addProduct(laptop);
+        warehouse.addProduct(phone);
+
+        WarehouseSnapshot snapshot = warehouse.snapshot();
+        long version = snapshot.version();
+
+        warehouse.updateProductPrice(laptop.uuid(), new BigDecimal("1200.00"));
+        warehouse.remove(phone.uuid());
+        warehouse.addProduct(electronics("Tablet", "300.00"));
+
+        assertThat(warehouse.version()).isEqualTo(version + 3);
+        assertThat(snapshot.version()).isEqualTo(version);
+        assertThat(snapshot.size()).isEqualTo(2);
+        assertThat(snapshot.getProductById(laptop.uuid())).hasValueSatisfying(p ->
+                assertThat(p.price()).isEqualByComparingTo("900.00"));
+        assertThat(snapshot.getProductById(phone.uuid())).isPresent();
+        assertThat(warehouse.getProductById(laptop.uuid())).hasValueSatisfying(p ->
+                assertThat(p.price()).isEqualByComparingTo("1200.00"));
+        assertThat(laptop.price()).as("Price updates replace the product instead of mutating it.")
+                .isEqualByComparingTo("900.00");
+    }
+
+    @Test
+    @DisplayName("📸 should answer analyzer queries against the snapshot state")
+    void should_analyzeSnapshot() {
+        Product laptop = electronics("Laptop", "900.00");
+        warehouse.addProduct(laptop);
+        warehouse.addProduct(electronics("Phone", "500.00"));
+        warehouse.addProduct(food("Milk", "15.00", warehouse.today().plusDays(1)));
+
+        WarehouseAnalyzer analyzer = new WarehouseAnalyzer(warehouse.snapshot());
+        warehouse.updateProductPrice(laptop.uuid(), new BigDecimal("100.00"));
+        warehouse.clearProducts();
+
+        assertThat(analyzer.findProductsAbovePrice(new BigDecimal("600"))).extracting(Product::name).containsExactly("Laptop");
+        assertThat(analyzer.searchProductsByName("pho")).extracting(Product::name).containsExactly("Phone");
+        assertThat(analyzer.findProductsExpiringWithinDays(2)).extracting(p -> ((Product) p).name()).containsExactly("Milk");
+        assertThat(analyzer.findMostExpensiveProducts(2)).extracting(Product::name).containsExactly("Laptop", "Phone");
+        assertThat(analyzer.findProductsInPriceRange(BigDecimal.ZERO, new BigDecimal("1000"), null, 2).items())
+                .extracting(Product::name).containsExactly("Milk", "Phone");
+        assertThat(analyzer.getInventoryStatistics().getTotalProducts()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("📸 should keep every product reachable through adds and removes")
+    void should_keepProductsReachable_when_manyAddsAndRemoves() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Product product = electronics("Item" + i, String.valueOf(i + 1));
+            products.add(product);
+            warehouse.addProduct(product);
+        }
+        for (int i = 0; i < products.size(); i += 2) {
+            warehouse.remove(products.get(i).uuid());
+        }
+
+        assertThat(warehouse.size()).isEqualTo(1000);
+        assertThat(warehouse.getProducts()).hasSize(1000).doesNotHaveDuplicates();
+        for (int i = 0; i < products.size(); i++) {
+            assertThat(warehouse.getProductById(products.get(i).uuid()).isPresent()).isEqualTo(i % 2 == 1);
+        }
+    }
+
+    @Test
+    @DisplayName("🔒 should give readers consistent snapshots while writers run concurrently")
+    void should_giveConsistentSnapshots_when_writersRunConcurrently() throws Exception {
+        int writers = 4;
+        int perWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        Product product = electronics("W" + writer + "-" + i, "10.00");
+                        warehouse.addProduct(product);
+                        warehouse.updateProductPrice(product.uuid(), new BigDecimal("20.00"));
+                    }
+                    return null;
+                }));
+            }
+            Future<Integer> reader = executor.submit(() -> {
+                start.await();
+                int checks = 0;
+                WarehouseSnapshot snapshot;
+                do {
+                    snapshot = warehouse.snapshot();
+                    assertThat(snapshot.getProducts()).hasSize(snapshot.size());
+                    checks++;
+                } while (snapshot.size() < writers * perWriter);
+                return checks;
+            });
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(reader.get(30, TimeUnit.SECONDS)).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(warehouse.size()).isEqualTo(writers * perWriter);
+        assertThat(warehouse.version()).isGreaterThanOrEqualTo(2L * writers * perWriter);
+        assertThat(warehouse.query().priceAbove(new BigDecimal("15")).list()).hasSize(writers * perWriter);
+        assertThat(warehouse.getChangedProducts()).hasSize(writers * perWriter);
+    }
+}
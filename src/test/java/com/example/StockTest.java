@@ -0,0 +1,185 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for stock levels and atomic reservations.
+ */
+@DisplayName("Stock")
+class StockTest {
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("StockTestWarehouse");
+        warehouse.clearProducts();
+    }
+
+    @Test
+    @DisplayName("📦 should reserve, commit and release against the stock level")
+    void should_reserveCommitAndRelease() {
+        Product laptop = electronics("Laptop");
+        warehouse.addProduct(laptop);
+        warehouse.setStock(laptop.uuid(), 10);
+        warehouse.addStock(laptop.uuid(), 2);
+
+        StockReservation sold = warehouse.reserve(laptop.uuid(), 5).orElseThrow();
+        StockReservation cancelled = warehouse.reserve(laptop.uuid(), 4).orElseThrow();
+        assertThat(warehouse.reserve(laptop.uuid(), 4)).isEmpty();
+        assertThat(warehouse.availableStock(laptop.uuid())).isEqualTo(3);
+        assertThat(warehouse.reservedStock(laptop.uuid())).isEqualTo(9);
+
+        sold.commit();
+        cancelled.release();
+        assertThat(warehouse.availableStock(laptop.uuid())).isEqualTo(7);
+        assertThat(warehouse.reservedStock(laptop.uuid())).isZero();
+        assertThat(sold.isOpen()).isFalse();
+        assertThatThrownBy(sold::release)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Reservation is already committed.");
+        assertThat(warehouse.availableStock(laptop.uuid())).isEqualTo(7);
+
+        assertThatThrownBy(() -> warehouse.reserve(laptop.uuid(), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Quantity must be positive.");
+        assertThatThrownBy(() -> warehouse.setStock(UUID.randomUUID(), 1))
+                .isInstanceOf(NoSuchElementException.class);
+
+        warehouse.remove(laptop.uuid());
+        assertThat(warehouse.availableStock(laptop.uuid())).isZero();
+        assertThat(warehouse.reserve(laptop.uuid(), 1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("📦 should reserve a whole order or nothing")
+    void should_reserveAllOrNothing() {
+        Product laptop = electronics("Laptop");
+        Product phone = electronics("Phone");
+        warehouse.addProduct(laptop);
+        warehouse.addProduct(phone);
+        warehouse.setStock(laptop.uuid(), 3);
+        warehouse.setStock(phone.uuid(), 1);
+
+        assertThat(warehouse.reserveAll(Map.of(laptop.uuid(), 2L, phone.uuid(), 2L))).isEmpty();
+        assertThat(warehouse.availableStock(laptop.uuid())).as("A failed order keeps no lines.").isEqualTo(3);
+        assertThat(warehouse.availableStock(phone.uuid())).isEqualTo(1);
+
+        StockReservation order = warehouse.reserveAll(Map.of(laptop.uuid(), 2L, phone.uuid(), 1L)).orElseThrow();
+        assertThat(order.lines()).containsOnly(Map.entry(laptop.uuid(), 2L), Map.entry(phone.uuid(), 1L));
+        assertThat(warehouse.availableStock(laptop.uuid())).isEqualTo(1);
+        assertThat(warehouse.availableStock(phone.uuid())).isZero();
+
+        order.commit();
+        assertThat(warehouse.reservedStock(laptop.uuid()) + warehouse.reservedStock(phone.uuid())).isZero();
+        assertThatThrownBy(() -> warehouse.reserveAll(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Order cannot be null.");
+    }
+
+    @Test
+    @DisplayName("📦 should never oversell under concurrent reservations")
+    void should_notOversell_when_reservingConcurrently() throws Exception {
+        Product laptop = electronics("Laptop");
+        Product phone = electronics("Phone");
+        warehouse.addProduct(laptop);
+        warehouse.addProduct(phone);
+        long initial = 20_000;
+        warehouse.setStock(laptop.uuid(), initial);
+        warehouse.setStock(phone.uuid(), initial);
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    // Sålda laptops och telefoner
+                    long[] sold = new long[2];
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 10_000; i++) {
+                        long quantity = random.nextInt(1, 4);
+                        if (random.nextBoolean()) {
+                            warehouse.reserve(laptop.uuid(), quantity).ifPresent(reservation -> {
+                                if (random.nextInt(4) == 0) {
+                                    reservation.release();
+                                } else {
+                                    reservation.commit();
+                                    sold[0] += quantity;
+                                }
+                            });
+                        } else {
+                            warehouse.reserveAll(Map.of(laptop.uuid(), 1L, phone.uuid(), quantity)).ifPresent(reservation -> {
+                                reservation.commit();
+                                sold[0] += 1;
+                                sold[1] += quantity;
+                            });
+                        }
+                    }
+                    return sold;
+                }));
+            }
+            start.countDown();
+        }
+
+        long laptopsSold = 0;
+        long phonesSold = 0;
+        for (Future<long[]> result : results) {
+            laptopsSold += result.get()[0];
+            phonesSold += result.get()[1];
+        }
+        assertThat(warehouse.reservedStock(laptop.uuid())).isZero();
+        assertThat(warehouse.availableStock(laptop.uuid())).isNotNegative().isEqualTo(initial - laptopsSold);
+        assertThat(warehouse.availableStock(phone.uuid())).isNotNegative().isEqualTo(initial - phonesSold);
+        assertThat(warehouse.availableStock(laptop.uuid())).as("Demand exceeds supply, so everything sells.").isLessThan(3);
+    }
+
+    @Test
+    @DisplayName("📦 should sell out exactly when demand equals stock under contention")
+    void should_sellOutExactly_when_demandEqualsStock() throws Exception {
+        Product laptop = electronics("Laptop");
+        warehouse.addProduct(laptop);
+        int threads = 8;
+        int reservationsPerThread = 20_000;
+        warehouse.setStock(laptop.uuid(), (long) threads * reservationsPerThread * 3);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> refusals = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                refusals.add(executor.submit(() -> {
+                    start.await();
+                    int refused = 0;
+                    for (int i = 0; i < reservationsPerThread; i++) {
+                        if (warehouse.reserve(laptop.uuid(), 3).isEmpty()) refused++;
+                    }
+                    return refused;
+                }));
+            }
+            start.countDown();
+        }
+
+        for (Future<Integer> refused : refusals) {
+            assertThat(refused.get()).as("Enough stock existed for every reservation.").isZero();
+        }
+        assertThat(warehouse.availableStock(laptop.uuid())).isZero();
+        assertThat(warehouse.reservedStock(laptop.uuid())).isEqualTo((long) threads * reservationsPerThread * 3);
+        assertThat(warehouse.reserve(laptop.uuid(), 1)).isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Shared product factories for the tests. Food is filed under Dairy and electronics under Electronics unless a category is given;
+ * values a test does not pass get the defaults below.
+ */
+final class TestProducts {
+    static final String DEFAULT_PRICE = "999.00";
+    static final String DEFAULT_WEIGHT = "1.0";
+    static final int DEFAULT_WARRANTY_MONTHS = 12;
+    static final int DEFAULT_SHELF_LIFE_DAYS = 30;
+
+    private TestProducts() {
+    }
+
+    static FoodProduct food(UUID id, String name, String price, LocalDate expirationDate, String weight) {
+        return new FoodProduct(id, name, Category.of("Dairy"), new BigDecimal(price), expirationDate, new BigDecimal(weight));
+    }
+
+    static FoodProduct food(String name, String price, LocalDate expirationDate, String weight) {
+        return food(UUID.randomUUID(), name, price, expirationDate, weight);
+    }
+
+    static FoodProduct food(String name, String price, LocalDate expirationDate) {
+        return food(name, price, expirationDate, DEFAULT_WEIGHT);
+    }
+
+    static FoodProduct food(String name, LocalDate expirationDate) {
+        return food(name, "10.00", expirationDate);
+    }
+
+    static FoodProduct food(String name, String price) {
+        return food(name, price, LocalDate.now().plusDays(DEFAULT_SHELF_LIFE_DAYS));
+    }
+
+    static ElectronicsProduct electronics(UUID id, String name, String price, int warrantyMonths, String weight) {
+        return new ElectronicsProduct(id, name, Category.of("Electronics"), new BigDecimal(price), warrantyMonths, new BigDecimal(weight));
+    }
+
+    static ElectronicsProduct electronics(Category category, String name, String price) {
+        return new ElectronicsProduct(UUID.randomUUID(), name, category, new BigDecimal(price), DEFAULT_WARRANTY_MONTHS,
+                new BigDecimal(DEFAULT_WEIGHT));
+    }
+
+    static ElectronicsProduct electronics(String name, String price, int warrantyMonths, String weight) {
+        return electronics(UUID.randomUUID(), name, price, warrantyMonths, weight);
+    }
+
+    static ElectronicsProduct electronics(String name, String price, String weight) {
+        return electronics(name, price, DEFAULT_WARRANTY_MONTHS, weight);
+    }
+
+    static ElectronicsProduct electronics(UUID id, String name, String price) {
+        return electronics(id, name, price, DEFAULT_WARRANTY_MONTHS, DEFAULT_WEIGHT);
+    }
+
+    static ElectronicsProduct electronics(String name, String price) {
+        return electronics(UUID.randomUUID(), name, price);
+    }
+
+    static ElectronicsProduct electronics(String name) {
+        return electronics(name, DEFAULT_PRICE);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.TestProducts.electronics;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the top-K analyzer queries.
+ */
+@DisplayName("Top-K queries")
+class TopKTest {
+
+    private Warehouse warehouse;
+    private WarehouseAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("TopKTestWarehouse");
+        warehouse.clearProducts();
+        analyzer = new WarehouseAnalyzer(warehouse);
+        for (int i = 1; i <= 20; i++) {
+            warehouse.addProduct(electronics("Item" + i, String.valueOf(i * 10), String.valueOf(i % 7)));
+        }
+    }
+
+    @Test
+    @DisplayName("🏆 should return the most expensive and cheapest products in order")
+    void should_returnPriceExtremes() {
+        assertThat(analyzer.findMostExpensiveProducts(3)).extracting(Product::name).containsExactly("Item20", "Item19", "Item18");
+        assertThat(analyzer.findCheapestProducts(2)).extracting(Product::name).containsExactly("Item1", "Item2");
+        assertThat(analyzer.findCheapestProducts(100)).hasSize(20);
+    }
+
+    @Test
+    @DisplayName("🏆 should break weight ties deterministically")
+    void should_breakTiesDeterministically() {
+        List<Shippable> heaviest = analyzer.findHeaviestProducts(6);
+
+        assertThat(heaviest).extracting(Shippable::weight).containsExactly(6.0, 6.0, 6.0, 5.0, 5.0, 5.0);
+        assertThat(heaviest.subList(0, 3)).extracting(s -> ((Product) s).uuid())
+                .isSortedAccordingTo(Collections.reverseOrder());
+        assertThat(analyzer.findHeaviestProducts(6)).isEqualTo(heaviest);
+    }
+
+    @Test
+    @DisplayName("🏆 should agree with a full sort for any input order")
+    void should_matchFullSort() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) values.add((i * 7919) % 1000);
+
+        List<Integer> expected = new ArrayList<>(values);
+        expected.sort(Collections.reverseOrder());
+
+        assertThat(TopK.largest(values, 10, Integer::compare)).isEqualTo(expected.subList(0, 10));
+        assertThat(analyzer.findHighestShippingCostProducts(4))
+                .extracting(Shippable::calculateShippingCost)
+                .map(BigDecimal::toPlainString)
+                .containsExactly("128.00", "128.00", "128.00", "79.00");
+    }
+}
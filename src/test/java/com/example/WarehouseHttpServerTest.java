@@ -0,0 +1,144 @@
+package com.example;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.TestProducts.electronics;
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the embedded HTTP front end.
+ */
+@DisplayName("Warehouse HTTP server")
+class WarehouseHttpServerTest {
+
+    private Warehouse warehouse;
+    private WarehouseHttpServer server;
+    private HttpClient client;
+    private Product laptop;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        warehouse = Warehouse.getInstance("HttpServerTestWarehouse");
+        warehouse.clearProducts();
+        laptop = electronics("Laptop \"Pro\"", "900.00", 24, "2.0");
+        warehouse.addProduct(laptop);
+        warehouse.addProduct(electronics("Phone", "500.00", "0.2"));
+        warehouse.addProduct(food("Milk", "15.00", LocalDate.now().plusDays(1)));
+        server = WarehouseHttpServer.start(warehouse, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        client.close();
+    }
+
+    @Test
+    @DisplayName("🌐 should look up a product and update its price")
+    void should_lookUpAndUpdateProduct() throws Exception {
+        HttpResponse<String> lookup = get("/products/" + laptop.uuid());
+        assertThat(lookup.statusCode()).isEqualTo(200);
+        assertThat(lookup.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/json"));
+        assertThat(lookup.body()).contains("\"name\":\"Laptop \\\"Pro\\\"\"", "\"price\":900.00", "\"shippingCost\":79.00");
+
+        HttpResponse<String> update = send(HttpRequest.newBuilder(uri("/products/" + laptop.uuid() + "/price"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"price\": 950.50}")).build());
+        assertThat(update.statusCode()).isEqualTo(200);
+        assertThat(update.body()).contains("\"price\":950.50");
+        assertThat(warehouse.getProductById(laptop.uuid()).orElseThrow().price()).isEqualByComparingTo("950.50");
+    }
+
+    @Test
+    @DisplayName("🌐 should page through search results with a cursor")
+    void should_pageSearchResults() throws Exception {
+        HttpResponse<String> first = get("/search/price-range?min=0&max=1000&limit=2");
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.body()).contains("Milk", "Phone").doesNotContain("Laptop");
+        String next = first.body().replaceAll(".*\"next\":\"([^\"]+)\".*", "$1");
+
+        HttpResponse<String> second = get("/search/price-range?min=0&max=1000&limit=2&after=" + next);
+        assertThat(second.body()).contains("Laptop").doesNotContain("Milk").endsWith("\"next\":null}");
+
+        assertThat(get("/search/name?q=pho").body()).contains("Phone");
+        assertThat(get("/search/expiring?days=2").body()).contains("Milk", "\"expirationDate\"");
+    }
+
+    @Test
+    @DisplayName("🌐 should serve analyzer reports")
+    void should_serveReports() throws Exception {
+        assertThat(get("/reports/statistics").body()).contains("\"totalProducts\":3", "\"categoryCount\":2");
+        assertThat(get("/top/most-expensive?k=1").body()).contains("Laptop").doesNotContain("Phone");
+        assertThat(get("/reports/discounts").body()).contains("\"discountedPrice\":10.50");
+        assertThat(get("/reports/shipping-groups?maxWeight=10").statusCode()).isEqualTo(200);
+        assertThat(get("/reports/price-quantiles").body()).contains("\"byCategory\":{", "\"p50\":");
+    }
+
+    @Test
+    @DisplayName("🌐 should turn away whole-inventory reports beyond their own limit")
+    void should_limitInventoryReports() throws Exception {
+        server.reportPermits.acquire(WarehouseHttpServer.DEFAULT_MAX_CONCURRENT_REPORTS);
+        try {
+            assertThat(get("/reports/outliers").statusCode()).isEqualTo(503);
+            assertThat(get("/reports/discounts").statusCode()).isEqualTo(503);
+            assertThat(get("/reports/shipping-groups?maxWeight=10").statusCode()).isEqualTo(503);
+            assertThat(get("/reports/statistics").statusCode()).isEqualTo(200);
+        } finally {
+            server.reportPermits.release(WarehouseHttpServer.DEFAULT_MAX_CONCURRENT_REPORTS);
+        }
+        assertThat(get("/reports/outliers").statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("🌐 should map errors to status codes")
+    void should_mapErrorsToStatusCodes() throws Exception {
+        assertThat(get("/products/" + UUID.randomUUID()).statusCode()).isEqualTo(404);
+        assertThat(get("/products/not-a-uuid").statusCode()).isEqualTo(400);
+        assertThat(get("/search/price-range?min=0").statusCode()).isEqualTo(400);
+        assertThat(get("/search/name?q=x&limit=100000").statusCode()).isEqualTo(400);
+        assertThat(get("/search/expiring?days=2147483647").statusCode()).isEqualTo(400);
+        assertThat(get("/search/expiring?days=-1").statusCode()).isEqualTo(400);
+        assertThat(get("/unknown").statusCode()).isEqualTo(404);
+        assertThat(send(HttpRequest.newBuilder(uri("/products/" + laptop.uuid()))
+                .DELETE().build()).statusCode()).isEqualTo(405);
+        assertThat(send(HttpRequest.newBuilder(uri("/products/" + laptop.uuid() + "/price"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"price\": -1}")).build()).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("🌐 should handle many concurrent requests")
+    void should_handleConcurrentRequests() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri("/products/" + laptop.uuid())).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        assertThat(responses).allSatisfy(response -> assertThat(response.join().statusCode()).isEqualTo(200));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.port() + path);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path)).build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
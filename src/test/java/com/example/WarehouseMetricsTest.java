@@ -0,0 +1,106 @@
+package com.example;
+
+import com.example.WarehouseMetrics.Operation;
+import org.junit.jupiter.api.*;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.example.TestProducts.food;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the optional per-operation counters and latency histograms.
+ */
+@DisplayName("Warehouse metrics")
+class WarehouseMetricsTest {
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = Warehouse.getInstance("MetricsTestWarehouse");
+        warehouse.clearProducts();
+        warehouse.metrics().reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouse.metrics().setEnabled(false);
+    }
+
+    @Test
+    @DisplayName("✅ should not record anything while disabled")
+    void should_notRecord_when_disabled() {
+        warehouse.addProduct(food("Milk", "10.00", LocalDate.now().plusDays(5)));
+
+        assertThat(warehouse.metrics().stats(Operation.ADD).count()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ should record a measurement whose start time reads as zero")
+    void should_record_when_startTimeIsZero() {
+        WarehouseMetrics metrics = warehouse.metrics();
+        metrics.setEnabled(true);
+
+        metrics.record(Operation.ADD, 0L);
+        metrics.record(Operation.ADD, -1L);
+
+        assertThat(metrics.stats(Operation.ADD).count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("✅ should count warehouse and analyzer operations when enabled")
+    void should_countOperations_when_enabled() {
+        warehouse.metrics().setEnabled(true);
+        Product milk = food("Milk", "10.00", LocalDate.now().plusDays(5));
+
+        warehouse.addProduct(milk);
+        warehouse.getProductById(milk.uuid());
+        warehouse.getProductById(milk.uuid());
+        warehouse.updateProductPrice(milk.uuid(), new BigDecimal("12.00"));
+        new WarehouseAnalyzer(warehouse).getInventoryStatistics();
+        warehouse.remove(milk.uuid());
+
+        var snapshot = warehouse.metrics().snapshot();
+        assertThat(snapshot.get(Operation.ADD).count()).isEqualTo(1);
+        assertThat(snapshot.get(Operation.LOOKUP).count()).isEqualTo(2);
+        assertThat(snapshot.get(Operation.PRICE_UPDATE).count()).isEqualTo(1);
+        assertThat(snapshot.get(Operation.INVENTORY_STATISTICS).count()).isEqualTo(1);
+        assertThat(snapshot.get(Operation.REMOVE).count()).isEqualTo(1);
+        assertThat(snapshot.get(Operation.LOOKUP).p99Nanos())
+                .isLessThanOrEqualTo(snapshot.get(Operation.LOOKUP).maxNanos());
+    }
+
+    @Test
+    @DisplayName("📊 should report percentiles within the histogram's relative error")
+    void should_reportPercentiles_withinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10_000; nanos++) {
+            histogram.record(nanos);
+        }
+
+        assertThat(histogram.count()).isEqualTo(10_000);
+        assertThat((double) histogram.percentile(50)).isBetween(5_000.0, 5_000 * 1.04);
+        assertThat((double) histogram.percentile(99)).isBetween(9_900.0, 9_900 * 1.04);
+        assertThat(histogram.percentile(100)).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("🔌 should be exposed through JMX")
+    void should_registerMBean() throws Exception {
+        ObjectName name = warehouse.metrics().registerMBean();
+        try {
+            warehouse.metrics().setEnabled(true);
+            warehouse.addProduct(food("Milk", "10.00", LocalDate.now().plusDays(5)));
+
+            Object counts = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "OperationCounts");
+            assertThat(counts).isNotNull();
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Enabled")).isEqualTo(true);
+        } finally {
+            warehouse.metrics().unregisterMBean();
+        }
+    }
+}